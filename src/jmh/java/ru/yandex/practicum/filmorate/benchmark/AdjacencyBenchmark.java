@@ -0,0 +1,96 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение {@link LongHashSet} с прежним {@code HashSet<Long>} для множеств лайков и друзей.
+ *
+ * <p>Скорость меряет JMH, а занимаемую память печатает {@link #main} через JOL:
+ * {@code mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.yandex.practicum.filmorate.benchmark.AdjacencyBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdjacencyBenchmark {
+    private static final int[] FOOTPRINT_SIZES = {10, 1_000, 100_000};
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private LongHashSet primitiveSet;
+    private Set<Long> boxedSet;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        primitiveSet = new LongHashSet();
+        boxedSet = new HashSet<>();
+        for (long i = 0; i < size; i++) {
+            primitiveSet.add(i * 7);
+            boxedSet.add(i * 7);
+        }
+        random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public boolean containsPrimitive() {
+        return primitiveSet.contains(random.nextLong(size * 7L));
+    }
+
+    @Benchmark
+    public boolean containsBoxed() {
+        return boxedSet.contains(random.nextLong(size * 7L));
+    }
+
+    @Benchmark
+    public boolean addRemovePrimitive() {
+        long value = random.nextLong(size * 7L);
+        return primitiveSet.add(value) && primitiveSet.remove(value);
+    }
+
+    @Benchmark
+    public boolean addRemoveBoxed() {
+        long value = random.nextLong(size * 7L);
+        return boxedSet.add(value) && boxedSet.remove(value);
+    }
+
+    public static void main(String[] args) {
+        System.out.printf("%10s %18s %18s %14s %14s%n",
+                "edges", "HashSet<Long>, B", "LongHashSet, B", "B/edge boxed", "B/edge prim");
+        for (int edges : FOOTPRINT_SIZES) {
+            Set<Long> boxed = new HashSet<>();
+            LongHashSet primitive = new LongHashSet();
+            for (long i = 0; i < edges; i++) {
+                // Значения вне кэша Long.valueOf, как у реальных id
+                boxed.add(1_000 + i * 7);
+                primitive.add(1_000 + i * 7);
+            }
+            long boxedBytes = GraphLayout.parseInstance(boxed).totalSize();
+            long primitiveBytes = GraphLayout.parseInstance(primitive).totalSize();
+            System.out.printf("%10d %18d %18d %14.1f %14.1f%n", edges, boxedBytes, primitiveBytes,
+                    (double) boxedBytes / edges, (double) primitiveBytes / edges);
+        }
+    }
+}
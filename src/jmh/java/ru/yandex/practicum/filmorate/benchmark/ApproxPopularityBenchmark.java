@@ -0,0 +1,109 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.util.HeavyHitters;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Точный и приближённый ({@code ?approx=true}) топ популярных фильмов.
+ *
+ * <p>Лайки распределены по степенному закону: фильм {@code ⌊films · u⁴⌋}, u равномерно на [0, 1).
+ * При подготовке печатается память точного пути (наборы лайков всех фильмов) и сводки
+ * {@link HeavyHitters} с параметрами хранилища, а также ошибка приближённого топа: сколько фильмов
+ * точной десятки и сотни в нём есть и на сколько позиций в среднем сдвинуты общие фильмы.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ApproxPopularityBenchmark {
+    private static final int USERS = 10_000_000;
+    // Те же параметры, что у InMemoryFilmStorage
+    private static final int APPROX_CAPACITY = 4096;
+    private static final double APPROX_EPSILON = 1e-4;
+    private static final double APPROX_DELTA = 1e-3;
+
+    @Param({"1000000"})
+    private int films;
+
+    @Param({"5000000"})
+    private int likes;
+
+    @Param({"10"})
+    private int count;
+
+    private InMemoryFilmStorage storage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = new InMemoryFilmStorage();
+        for (int i = 0; i < films; i++) {
+            storage.createFilm(BenchmarkData.film(i));
+        }
+        HeavyHitters sketch = new HeavyHitters(APPROX_CAPACITY, APPROX_EPSILON, APPROX_DELTA);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < likes; i++) {
+            long filmId = 1 + (long) (films * Math.pow(random.nextDouble(), 4));
+            storage.addLike(filmId, 1 + random.nextInt(USERS));
+            sketch.add(filmId, 1);
+        }
+
+        long exactBytes = GraphLayout.parseInstance(storage.getAllFilms().stream()
+                .map(Film::getLikedUser)
+                .toArray()).totalSize();
+        long approxBytes = GraphLayout.parseInstance(sketch).totalSize();
+        System.out.printf("%nmemory: like sets %.1f MB, sketch %.1f MB%n",
+                exactBytes / 1e6, approxBytes / 1e6);
+
+        for (int top : new int[]{10, 100}) {
+            List<Film> exact = storage.getPopularFilms(top);
+            List<Film> approx = storage.getApproxPopularFilms(top);
+            Map<Long, Integer> exactRank = new HashMap<>();
+            for (int i = 0; i < exact.size(); i++) {
+                exactRank.put(exact.get(i).getId(), i);
+            }
+            int common = 0;
+            long displacement = 0;
+            for (int i = 0; i < approx.size(); i++) {
+                Integer rank = exactRank.get(approx.get(i).getId());
+                if (rank != null) {
+                    common++;
+                    displacement += Math.abs(rank - i);
+                }
+            }
+            System.out.printf("top-%d: %d of %d exact films found, mean rank shift %.2f%n",
+                    top, common, exact.size(), common == 0 ? 0.0 : (double) displacement / common);
+        }
+    }
+
+    @Benchmark
+    public List<Film> exactTop() {
+        return storage.getPopularFilms(count);
+    }
+
+    @Benchmark
+    public List<Film> approxTop() {
+        return storage.getApproxPopularFilms(count);
+    }
+}
@@ -0,0 +1,110 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение друзей пользователя с {@code friends} друзьями: по запросу на каждый id, одним пакетным
+ * {@link UserStorage#getUsersByIds} и одним JOIN в {@link UserStorage#getFriends}.
+ *
+ * <p>{@code h2} – хранилище в БД в памяти, где каждый {@code getUserById} – два запроса
+ * (пользователь и его друзья), а пакет – два запроса на каждую тысячу id.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchLookupBenchmark {
+    @Param({"memory", "h2"})
+    private String backend;
+
+    @Param({"5000"})
+    private int friends;
+
+    private EmbeddedDatabase database;
+    private UserStorage storage;
+    private long hubId;
+    private List<Long> friendIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (backend.equals("h2")) {
+            database = new EmbeddedDatabaseBuilder()
+                    .generateUniqueName(true)
+                    .setType(EmbeddedDatabaseType.H2)
+                    .addScript("classpath:schema.sql")
+                    .build();
+            storage = new UserDbStorage(new NamedParameterJdbcTemplate(database));
+        } else {
+            storage = new InMemoryUserStorage();
+        }
+
+        List<User> users = new ArrayList<>(friends + 1);
+        for (int i = 0; i <= friends; i++) {
+            users.add(BenchmarkData.user(i));
+        }
+        List<User> created = storage.createUsers(users);
+        hubId = created.get(0).getId();
+        List<EdgeChange> edges = new ArrayList<>(friends * 2);
+        for (int i = 1; i <= friends; i++) {
+            edges.add(new EdgeChange(hubId, created.get(i).getId(), true));
+            // У каждого друга есть и свои друзья, чтобы их наборы тоже что-то стоили
+            edges.add(new EdgeChange(created.get(i).getId(), created.get(1 + i % friends).getId(), true));
+        }
+        storage.applyFriendships(edges);
+        friendIds = new ArrayList<>(storage.getUserById(hubId).orElseThrow().getFriends());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (database != null) {
+            database.shutdown();
+        }
+    }
+
+    // Прежний путь сервиса: запрос на каждого друга
+    @Benchmark
+    public List<User> perIdLookup() {
+        List<User> result = new ArrayList<>(friendIds.size());
+        for (Long id : friendIds) {
+            storage.getUserById(id).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<User> batchLookup() {
+        return storage.getUsersByIds(friendIds);
+    }
+
+    @Benchmark
+    public List<User> getFriends() {
+        return storage.getFriends(hubId);
+    }
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+// Синтетические сущности для бенчмарков
+final class BenchmarkData {
+    private BenchmarkData() {
+    }
+
+    static Film film(long n) {
+        Film film = new Film();
+        film.setName("Film " + n);
+        film.setDescription("Synthetic film number " + n);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1).plusDays(n % 9_000));
+        film.setDuration(90 + (int) (n % 60));
+        return film;
+    }
+
+    static User user(long n) {
+        User user = new User();
+        user.setEmail("user" + n + "@example.com");
+        user.setLogin("user" + n);
+        user.setName("User " + n);
+        user.setBirthday(LocalDate.of(1990, 1, 1).plusDays(n % 9_000));
+        return user;
+    }
+}
@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.service.bulk.BulkFormat;
+import ru.yandex.practicum.filmorate.service.bulk.BulkImportReport;
+import ru.yandex.practicum.filmorate.service.bulk.BulkImportService;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Массовый импорт {@code ROWS} фильмов в хранилище в памяти из NDJSON и CSV: разбор, валидация
+ * и пакетная вставка. Строк в секунду – {@code ROWS} делить на время одной операции.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class BulkImportBenchmark {
+    private static final int ROWS = 100_000;
+
+    @Param({"NDJSON", "CSV"})
+    private BulkFormat format;
+
+    private byte[] body;
+    private BulkImportService service;
+
+    @Setup(Level.Trial)
+    public void prepareBody() {
+        StringBuilder text = new StringBuilder();
+        if (format == BulkFormat.CSV) {
+            text.append("name,description,releaseDate,duration\n");
+        }
+        for (int i = 0; i < ROWS; i++) {
+            if (format == BulkFormat.CSV) {
+                text.append("film ").append(i).append(",\"description, ").append(i).append("\",2000-01-01,100\n");
+            } else {
+                text.append("{\"name\":\"film ").append(i).append("\",\"description\":\"description ").append(i)
+                        .append("\",\"releaseDate\":\"2000-01-01\",\"duration\":100}\n");
+            }
+        }
+        body = text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Каждая операция пишет в пустое хранилище, чтобы время не росло от итерации к итерации
+    @Setup(Level.Invocation)
+    public void resetStorage() {
+        service = new BulkImportService(new InMemoryFilmStorage(), new InMemoryUserStorage(), event -> {
+        }, Validation.buildDefaultValidatorFactory().getValidator(), JsonMapper.builder().findAndAddModules().build());
+    }
+
+    @Benchmark
+    public BulkImportReport importFilms() throws IOException {
+        return service.importFilms(new ByteArrayInputStream(body), format);
+    }
+}
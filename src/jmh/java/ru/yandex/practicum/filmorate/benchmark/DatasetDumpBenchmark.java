@@ -0,0 +1,105 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.service.bulk.DatasetDumpService;
+import ru.yandex.practicum.filmorate.service.bulk.DumpLoadReport;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полная выгрузка {@code USERS} пользователей и {@code FILMS} фильмов с лайками и дружбами:
+ * двоичная против JSON всего каталога через {@code getAllFilms}/{@code getAllUsers},
+ * и загрузка двоичной выгрузки в пустые хранилища.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class DatasetDumpBenchmark {
+    private static final int USERS = 100_000;
+    private static final int FILMS = 100_000;
+    private static final int LIKES_PER_FILM = 10;
+    private static final int FRIENDS_PER_USER = 10;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private InMemoryFilmStorage films;
+    private InMemoryUserStorage users;
+    private DatasetDumpService source;
+    private byte[] dump;
+    private DatasetDumpService target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        films = new InMemoryFilmStorage();
+        users = new InMemoryUserStorage();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < USERS; i++) {
+            users.createUser(BenchmarkData.user(i));
+        }
+        for (long userId = 1; userId <= USERS; userId++) {
+            for (int i = 0; i < FRIENDS_PER_USER / 2; i++) {
+                long friendId = 1 + random.nextInt(USERS);
+                if (friendId != userId) {
+                    users.addFriend(userId, friendId);
+                }
+            }
+        }
+        for (int i = 0; i < FILMS; i++) {
+            long filmId = films.createFilm(BenchmarkData.film(i)).getId();
+            for (int like = 0; like < LIKES_PER_FILM; like++) {
+                films.addLike(filmId, 1 + random.nextInt(USERS));
+            }
+        }
+        source = new DatasetDumpService(films, users, event -> {
+        }, objectMapper);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        source.exportBinary(out, false);
+        dump = out.toByteArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void resetTarget() {
+        target = new DatasetDumpService(new InMemoryFilmStorage(), new InMemoryUserStorage(), event -> {
+        }, objectMapper);
+    }
+
+    @Benchmark
+    public int exportBinary() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(dump.length);
+        source.exportBinary(out, false);
+        return out.size();
+    }
+
+    @Benchmark
+    public int exportJsonArrays() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(dump.length * 4);
+        objectMapper.writeValue(out, users.getAllUsers());
+        objectMapper.writeValue(out, films.getAllFilms());
+        return out.size();
+    }
+
+    @Benchmark
+    public DumpLoadReport loadBinary() throws IOException {
+        return target.load(new ByteArrayInputStream(dump));
+    }
+}
@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Офлайн-проверка рекомендаций фильмов: качество и задержка.
+ *
+ * <p>Пользователи разбиты на {@code GROUPS} групп по вкусу: большая часть лайков – фильмы своей группы
+ * (внутри группы популярность убывает), остальные – случайные. У {@code HELD_OUT} пользователей один лайк своей группы не ставится; recall@10 –
+ * доля таких фильмов, попавших в десятку рекомендаций. Для сравнения печатается recall десятки популярных.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class FilmRecommendationBenchmark {
+    private static final int USERS = 20_000;
+    private static final int FILMS = 5_000;
+    private static final int GROUPS = 50;
+    private static final int LIKES_PER_USER = 20;
+    private static final double IN_GROUP_SHARE = 0.8;
+    private static final int HELD_OUT = 500;
+    private static final int TOP = 10;
+
+    private InMemoryFilmStorage storage;
+    private long[] heldOutFilms;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = new InMemoryFilmStorage();
+        for (int i = 0; i < FILMS; i++) {
+            storage.createFilm(BenchmarkData.film(i));
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        heldOutFilms = new long[HELD_OUT];
+        for (long userId = 1; userId <= USERS; userId++) {
+            int group = (int) (userId % GROUPS);
+            for (int i = 0; i < LIKES_PER_USER; i++) {
+                long filmId = random.nextDouble() < IN_GROUP_SHARE ? groupFilm(group, random) : 1 + random.nextInt(FILMS);
+                if (userId <= HELD_OUT && i == 0) {
+                    heldOutFilms[(int) userId - 1] = filmId;
+                } else if (userId > HELD_OUT || filmId != heldOutFilms[(int) userId - 1]) {
+                    storage.addLike(filmId, userId);
+                }
+            }
+        }
+
+        List<Film> popular = storage.getPopularFilms(TOP);
+        int hits = 0;
+        int popularHits = 0;
+        for (long userId = 1; userId <= HELD_OUT; userId++) {
+            long heldOut = heldOutFilms[(int) userId - 1];
+            if (storage.getFilmRecommendations(userId, TOP).stream().anyMatch(film -> film.getId() == heldOut)) {
+                hits++;
+            }
+            if (popular.stream().anyMatch(film -> film.getId() == heldOut)) {
+                popularHits++;
+            }
+        }
+        System.out.printf("%nrecall@%d: collaborative %.3f, popular %.3f%n",
+                TOP, (double) hits / HELD_OUT, (double) popularHits / HELD_OUT);
+    }
+
+    @Benchmark
+    public List<Film> recommend() {
+        next = next % HELD_OUT + 1;
+        return storage.getFilmRecommendations(next, TOP);
+    }
+
+    // Фильмы группы g – те, у которых (id - 1) % GROUPS == g; первые фильмы группы популярнее остальных
+    private static long groupFilm(int group, SplittableRandom random) {
+        double skewed = random.nextDouble() * random.nextDouble();
+        return 1 + group + (long) GROUPS * (int) (skewed * (FILMS / GROUPS));
+    }
+}
@@ -0,0 +1,115 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск по каталогу из {@code films} фильмов. Названия (3 слова) и описания (10 слов) собраны
+ * из словаря в {@code VOCABULARY} русских и латинских псевдослов с частотами по закону Ципфа,
+ * как в живом тексте. Запросы – слово целиком и слово плюс префикс из трёх букв (автодополнение).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms3g", "-Xmx3g"})
+public class FilmSearchBenchmark {
+    private static final int VOCABULARY = 50_000;
+    private static final int QUERIES = 1024;
+    private static final String[] LATIN = {"ka", "lo", "mi", "ne", "ro", "sa", "tu", "vi", "ber", "dan", "gor", "lin"};
+    private static final String[] CYRILLIC = {"ка", "ло", "ми", "не", "ро", "са", "ту", "ви", "бер", "дан", "гор", "лин"};
+
+    @Param({"1000000"})
+    private int films;
+
+    private InMemoryFilmStorage storage;
+    private String[] words;
+    private double[] zipf;
+    private String[] wordQueries;
+    private String[] prefixQueries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            String[] syllables = i % 2 == 0 ? LATIN : CYRILLIC;
+            StringBuilder word = new StringBuilder();
+            for (int n = i; word.length() < 4 || n > 0; n /= syllables.length) {
+                word.append(syllables[n % syllables.length]);
+            }
+            words[i] = word.toString();
+        }
+        // Накопленные веса 1/(rank + 1) для выборки слова по Ципфу
+        zipf = new double[VOCABULARY];
+        double sum = 0;
+        for (int i = 0; i < VOCABULARY; i++) {
+            sum += 1.0 / (i + 1);
+            zipf[i] = sum;
+        }
+
+        storage = new InMemoryFilmStorage();
+        for (int i = 0; i < films; i++) {
+            Film film = new Film();
+            film.setName(text(random, 3));
+            film.setDescription(text(random, 10));
+            film.setReleaseDate(LocalDate.of(2000, 1, 1));
+            film.setDuration(100);
+            storage.createFilm(film);
+        }
+
+        wordQueries = new String[QUERIES];
+        prefixQueries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            wordQueries[i] = word(random);
+            String prefix = word(random);
+            prefixQueries[i] = word(random) + " " + prefix.substring(0, Math.min(3, prefix.length()));
+        }
+    }
+
+    @Benchmark
+    public List<Film> word() {
+        next = (next + 1) % QUERIES;
+        return storage.searchFilms(wordQueries[next], 20);
+    }
+
+    @Benchmark
+    public List<Film> wordAndPrefix() {
+        next = (next + 1) % QUERIES;
+        return storage.searchFilms(prefixQueries[next], 20);
+    }
+
+    private String text(SplittableRandom random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(i == 0 ? "" : " ").append(word(random));
+        }
+        return text.toString();
+    }
+
+    private String word(SplittableRandom random) {
+        double point = random.nextDouble() * zipf[VOCABULARY - 1];
+        int index = Arrays.binarySearch(zipf, point);
+        return words[index >= 0 ? index : -index - 1];
+    }
+}
@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.cache.ReadCache;
+import ru.yandex.practicum.filmorate.service.cache.ReadCacheProperties;
+import ru.yandex.practicum.filmorate.service.edge.DirectEdgeWriter;
+import ru.yandex.practicum.filmorate.service.event.StorageEvent;
+import ru.yandex.practicum.filmorate.service.stats.FilmLikeStats;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilmServiceBenchmark {
+    // Без кэша меряется сам путь к хранилищу, с кэшем – попадания и цена инвалидации
+    @Param({"false", "true"})
+    private boolean cached;
+
+    @Param({"1000", "100000"})
+    private int films;
+
+    @Param({"1000"})
+    private int users;
+
+    @Param({"10"})
+    private int popularCount;
+
+    private FilmService filmService;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        ReadCache readCache = new ReadCache(new ReadCacheProperties(cached, 10_000, Duration.ofMinutes(1)));
+        ApplicationEventPublisher events = event -> readCache.onStorageEvent((StorageEvent) event);
+        filmService = new FilmService(filmStorage, userStorage, new DirectEdgeWriter(filmStorage, userStorage, events),
+                readCache, new FilmLikeStats(), events);
+        random = new SplittableRandom(42);
+
+        for (int i = 0; i < users; i++) {
+            userStorage.createUser(BenchmarkData.user(i));
+        }
+        for (int i = 0; i < films; i++) {
+            Film film = filmStorage.createFilm(BenchmarkData.film(i));
+            // Степенное распределение лайков: немного хитов и длинный хвост
+            int likes = (int) (users / Math.pow(i + 1, 0.8));
+            for (long userId = 1; userId <= likes; userId++) {
+                filmStorage.addLike(film.getId(), userId);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilms() {
+        return filmService.getPopularFilms(popularCount);
+    }
+
+    @Benchmark
+    public void addAndRemoveUserLike() {
+        long filmId = 1 + random.nextInt(films);
+        long userId = 1 + random.nextInt(users);
+        filmService.addUserLike(filmId, userId);
+        filmService.removeUserLike(filmId, userId);
+    }
+}
@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Добавление и удаление дружбы по случайным парам из {@code USERS} пользователей в несколько потоков.
+ * Запуск с разным {@code -t} показывает, как пропускная способность растёт с числом ядер.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class FriendGraphBenchmark {
+    private static final int USERS = 10_000;
+
+    private InMemoryUserStorage storage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = new InMemoryUserStorage();
+        for (int i = 0; i < USERS; i++) {
+            storage.createUser(BenchmarkData.user(i));
+        }
+    }
+
+    @Benchmark
+    public void toggleFriendship(ThreadRandom random) {
+        long userId = 1 + random.source.nextInt(USERS);
+        long friendId = 1 + random.source.nextInt(USERS);
+        if (userId == friendId) {
+            return;
+        }
+        if (random.source.nextBoolean()) {
+            storage.addFriend(userId, friendId);
+        } else {
+            storage.removeFriend(friendId, userId);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        private final SplittableRandom source = new SplittableRandom();
+    }
+}
@@ -0,0 +1,104 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Рекомендации друзей на графе со степенным распределением степеней (модель Барабаши – Альберт:
+ * каждый новый пользователь дружит с {@code edgesPerUser} уже существующими пропорционально их числу друзей).
+ * {@code hub} – самый связанный пользователь, {@code typical} – пользователь из хвоста распределения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class FriendRecommendationBenchmark {
+    private static final int LIMIT = 10;
+
+    @Param({"100000"})
+    private int users;
+
+    @Param({"5"})
+    private int edgesPerUser;
+
+    private InMemoryUserStorage storage;
+    private long hubId;
+    private long typicalId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = new InMemoryUserStorage();
+        for (int i = 0; i < users; i++) {
+            storage.createUser(BenchmarkData.user(i));
+        }
+        // Концы всех рёбер: случайный элемент выбирает пользователя с вероятностью, пропорциональной степени
+        long[] endpoints = new long[2 * users * edgesPerUser];
+        int endpointCount = 0;
+        SplittableRandom random = new SplittableRandom(42);
+        for (long userId = 2; userId <= users; userId++) {
+            for (int i = 0; i < edgesPerUser; i++) {
+                long friendId = endpointCount == 0 ? 1 : endpoints[random.nextInt(endpointCount)];
+                if (friendId != userId && !storage.getUserById(userId).orElseThrow().getFriends().contains(friendId)) {
+                    storage.addFriend(userId, friendId);
+                    endpoints[endpointCount++] = userId;
+                    endpoints[endpointCount++] = friendId;
+                }
+            }
+        }
+        hubId = storage.getAllUsers().stream()
+                .max((a, b) -> Integer.compare(a.getFriends().size(), b.getFriends().size()))
+                .orElseThrow().getId();
+        typicalId = users;
+    }
+
+    @Benchmark
+    public List<User> hub() {
+        return storage.getFriendRecommendations(hubId, LIMIT);
+    }
+
+    @Benchmark
+    public List<User> typical() {
+        return storage.getFriendRecommendations(typicalId, LIMIT);
+    }
+
+    // Для сравнения: полный обход без бюджета со счётчиками в HashMap<Long, Integer>
+    @Benchmark
+    public List<User> hubBoxed() {
+        Set<Long> friends = storage.getUserById(hubId).orElseThrow().getFriends();
+        Map<Long, Integer> mutualFriends = new HashMap<>();
+        for (Long friendId : friends) {
+            for (Long candidate : storage.getUserById(friendId).orElseThrow().getFriends()) {
+                if (candidate != hubId && !friends.contains(candidate)) {
+                    mutualFriends.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+        return mutualFriends.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(LIMIT)
+                .map(entry -> storage.getUserById(entry.getKey()).orElseThrow())
+                .toList();
+    }
+}
@@ -0,0 +1,199 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Нагрузочный тест HTTP: пропускная способность и хвост задержек на платформенных
+ * и виртуальных потоках Tomcat ({@code spring.threads.virtual.enabled}).
+ *
+ * <p>JMH для этого не подходит: меряется сервер целиком под параллельной нагрузкой.
+ * Каждое обращение к хранилищу задерживается на {@code latencyMs}, как если бы оно шло в сеть или на диск,
+ * а {@code clients} клиентов в замкнутом цикле чередуют {@code GET /users/{id}/friends}
+ * и {@code GET /films/popular}. Кэш чтения выключен, чтобы запросы доходили до хранилища.
+ *
+ * <p>Запуск: {@code mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ru.yandex.practicum.filmorate.benchmark.HttpLoadBenchmark
+ * [-Dclients=1000 -DlatencyMs=5 -DwarmupSeconds=5 -DmeasureSeconds=15]}
+ */
+public final class HttpLoadBenchmark {
+    private static final int USERS = 1_000;
+    private static final int FILMS = 1_000;
+    private static final int FRIENDS_PER_USER = 20;
+
+    private HttpLoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("clients", 1_000);
+        int latencyMs = Integer.getInteger("latencyMs", 5);
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("warmupSeconds", 5));
+        Duration measure = Duration.ofSeconds(Integer.getInteger("measureSeconds", 15));
+
+        System.out.printf("clients=%d, storage latency=%d ms, measure=%s%n", clients, latencyMs, measure);
+        System.out.printf("%-9s %12s %10s %10s %10s %10s%n", "mode", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "errors");
+        for (boolean virtual : new boolean[]{false, true}) {
+            Result result = run(virtual, clients, latencyMs, warmup, measure);
+            System.out.printf("%-9s %12.0f %10.2f %10.2f %10.2f %10d%n", virtual ? "virtual" : "platform",
+                    result.throughput(), result.percentile(0.5), result.percentile(0.99), result.percentile(0.999),
+                    result.errors());
+        }
+    }
+
+    private static Result run(boolean virtual, int clients, int latencyMs, Duration warmup, Duration measure)
+            throws Exception {
+        AtomicBoolean slowStorage = new AtomicBoolean();
+        // Аргументами командной строки, чтобы перекрыть application.properties
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(
+                        new StorageLatency(slowStorage, latencyMs)))
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--filmorate.cache.enabled=false",
+                        "--logging.level.org.zalando.logbook=OFF")) {
+            seed(context);
+            slowStorage.set(true);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+
+            load(http, port, clients, warmup);
+            return load(http, port, clients, measure);
+        }
+    }
+
+    // Данные кладутся до включения задержки, чтобы подготовка не занимала минуты
+    private static void seed(ConfigurableApplicationContext context) {
+        UserStorage users = context.getBean(UserStorage.class);
+        FilmStorage films = context.getBean(FilmStorage.class);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < USERS; i++) {
+            users.createUser(BenchmarkData.user(i));
+        }
+        for (long userId = 1; userId <= USERS; userId++) {
+            for (int i = 0; i < FRIENDS_PER_USER / 2; i++) {
+                long friendId = 1 + random.nextInt(USERS);
+                if (friendId != userId) {
+                    users.addFriend(userId, friendId);
+                }
+            }
+        }
+        for (int i = 0; i < FILMS; i++) {
+            long filmId = films.createFilm(BenchmarkData.film(i)).getId();
+            for (int like = 0; like < i % 50; like++) {
+                films.addLike(filmId, 1 + random.nextInt(USERS));
+            }
+        }
+    }
+
+    // Замкнутый цикл: каждый клиент шлёт следующий запрос сразу после ответа на предыдущий
+    private static Result load(HttpClient http, int port, int clients, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<long[]>> futures = new ArrayList<>(clients);
+        long[] errors = new long[clients];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                futures.add(executor.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(client);
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        String path = random.nextBoolean()
+                                ? "/users/" + (1 + random.nextInt(USERS)) + "/friends"
+                                : "/films/popular?count=10";
+                        URI uri = URI.create("http://localhost:" + port + path);
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(HttpRequest.newBuilder(uri).GET().build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors[client]++;
+                            }
+                        } catch (Exception e) {
+                            errors[client]++;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+
+        List<long[]> perClient = new ArrayList<>(clients);
+        for (Future<long[]> future : futures) {
+            perClient.add(future.get());
+        }
+        long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, Arrays.stream(errors).sum(), duration);
+    }
+
+    private record Result(long[] sortedNanos, long errors, Duration duration) {
+        double throughput() {
+            return sortedNanos.length / (duration.toMillis() / 1000.0);
+        }
+
+        double percentile(double p) {
+            if (sortedNanos.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(p * sortedNanos.length) - 1);
+            return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+        }
+    }
+
+    // Оборачивает хранилища: каждый вызов ждёт latencyMs, пока задержка включена
+    private record StorageLatency(AtomicBoolean enabled, int latencyMs) implements BeanPostProcessor {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof FilmStorage storage) {
+                return delayed(FilmStorage.class, storage);
+            }
+            if (bean instanceof UserStorage storage) {
+                return delayed(UserStorage.class, storage);
+            }
+            return bean;
+        }
+
+        private <T> T delayed(Class<T> type, T target) {
+            Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+                if (enabled.get()) {
+                    Thread.sleep(latencyMs);
+                }
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+            return type.cast(proxy);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фильмы, которые лайкнул пользователь: страница из обратного индекса против прежнего
+ * обхода {@code likedUser} всех фильмов каталога.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class LikedFilmsBenchmark {
+    private static final int USERS = 10_000;
+    private static final int LIKES_PER_USER = 50;
+    private static final int PAGE = 100;
+
+    @Param({"10000", "100000"})
+    private int films;
+
+    private InMemoryFilmStorage storage;
+    private long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = new InMemoryFilmStorage();
+        for (int i = 0; i < films; i++) {
+            storage.createFilm(BenchmarkData.film(i));
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        for (long user = 1; user <= USERS; user++) {
+            for (int i = 0; i < LIKES_PER_USER; i++) {
+                storage.addLike(1 + random.nextInt(films), user);
+            }
+        }
+        userId = USERS / 2;
+    }
+
+    @Benchmark
+    public List<Film> index() {
+        return storage.getLikedFilms(userId, 0, PAGE);
+    }
+
+    @Benchmark
+    public List<Film> scan() {
+        return storage.getAllFilms().stream()
+                .filter(film -> film.getLikedUser().contains(userId))
+                .limit(PAGE)
+                .toList();
+    }
+}
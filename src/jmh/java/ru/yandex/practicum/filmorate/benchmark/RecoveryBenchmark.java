@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.journal.StorageJournal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Время восстановления хранилищ после перезапуска: из одного журнала ({@code wal})
+ * или из снимка ({@code snapshot}), при {@code edges} лайках на 10 000 фильмах.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class RecoveryBenchmark {
+    private static final int FILMS = 10_000;
+
+    @Param({"1000000", "10000000"})
+    private int edges;
+
+    @Param({"wal", "snapshot"})
+    private String source;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("filmorate-recovery");
+        try (StorageJournal journal = new StorageJournal(directory, Duration.ofMillis(10), Duration.ZERO)) {
+            FilmStorage films = journal.filmStorage();
+            for (int i = 0; i < FILMS; i++) {
+                Film film = new Film();
+                film.setName("film" + i);
+                film.setDescription("description");
+                film.setReleaseDate(LocalDate.of(2000, 1, 1));
+                film.setDuration(100);
+                films.createFilm(film);
+            }
+            for (int i = 0; i < edges; i++) {
+                films.addLike(1 + i % FILMS, 1 + i / FILMS);
+            }
+            if (source.equals("snapshot")) {
+                journal.snapshot();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public long recover() throws IOException {
+        try (StorageJournal journal = new StorageJournal(directory, Duration.ZERO, Duration.ZERO)) {
+            return journal.getRecoveredRecords();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вставка и полная выгрузка в хранилищах при разном объёме уже загруженных данных.
+ *
+ * <p>Время createFilm/createUser не должно зависеть от {@code rows}: id выдаются за O(1).
+ * Полная выгрузка без изменений отдаёт уже опубликованную версию каталога, а после одного лайка
+ * пересобирает только изменённый кусок.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StorageBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+        for (int i = 0; i < rows; i++) {
+            filmStorage.createFilm(BenchmarkData.film(i));
+            userStorage.createUser(BenchmarkData.user(i));
+        }
+    }
+
+    @Benchmark
+    public Film createFilm() {
+        return filmStorage.createFilm(BenchmarkData.film(sequence++));
+    }
+
+    @Benchmark
+    public User createUser() {
+        return userStorage.createUser(BenchmarkData.user(sequence++));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Collection<Film> getAllFilms() {
+        return filmStorage.getAllFilms();
+    }
+
+    // Лайк меняет один кусок каталога: новая версия копирует его и переиспользует остальные
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Collection<Film> getAllFilmsAfterLike() {
+        sequence++;
+        filmStorage.addLike(1 + sequence % rows, sequence);
+        return filmStorage.getAllFilms();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Collection<User> getAllUsers() {
+        return userStorage.getAllUsers();
+    }
+}
@@ -0,0 +1,102 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.service.cache.ReadCache;
+import ru.yandex.practicum.filmorate.service.cache.ReadCacheProperties;
+import ru.yandex.practicum.filmorate.service.edge.DirectEdgeWriter;
+import ru.yandex.practicum.filmorate.service.event.StorageEvent;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserServiceBenchmark {
+    // true – друзья и общие друзья читаются через ReadCache
+    @Param({"false", "true"})
+    private boolean cached;
+
+    @Param({"10000"})
+    private int users;
+
+    @Param({"50", "1000"})
+    private int friendsPerUser;
+
+    private InMemoryUserStorage storage;
+    private UserService userService;
+    private long firstUserId;
+    private long secondUserId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = new InMemoryUserStorage();
+        ReadCache readCache = new ReadCache(new ReadCacheProperties(cached, 10_000, Duration.ofMinutes(1)));
+        ApplicationEventPublisher events = event -> readCache.onStorageEvent((StorageEvent) event);
+        userService = new UserService(storage, new DirectEdgeWriter(new InMemoryFilmStorage(), storage, events),
+                readCache, events);
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int i = 0; i < users; i++) {
+            storage.createUser(BenchmarkData.user(i));
+        }
+        for (long userId = 1; userId <= users; userId++) {
+            for (int i = 0; i < friendsPerUser / 2; i++) {
+                long friendId = 1 + random.nextInt(users);
+                if (friendId != userId) {
+                    userService.addFriend(userId, friendId);
+                }
+            }
+        }
+        firstUserId = 1;
+        secondUserId = 2;
+    }
+
+    @Benchmark
+    public Set<User> getFriends() {
+        return userService.getFriends(firstUserId);
+    }
+
+    @Benchmark
+    public Set<User> getMutualFriends() {
+        return userService.getMutualFriends(firstUserId, secondUserId);
+    }
+
+    // Прежняя реализация (поток по друзьям второго пользователя с проверкой через add) –
+    // для сравнения; работает на копии, чтобы не портить данные
+    @Benchmark
+    public Set<User> getMutualFriendsLegacy() {
+        Set<Long> friendsUser = new HashSet<>(storage.getUserById(firstUserId).orElseThrow().getFriends());
+
+        return storage.getUserById(secondUserId).orElseThrow()
+                .getFriends().stream()
+                .filter(x -> !friendsUser.add(x))
+                .map(storage::getUserById)
+                .flatMap(Optional::stream)
+                .collect(Collectors.toSet());
+    }
+}
@@ -2,13 +2,14 @@ package ru.yandex.practicum.filmorate.controller;
 
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
-import jakarta.validation.ValidationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.exception.WriteQueueFullException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -68,9 +69,10 @@ public class ErrorHandler {
         return path;
     }
 
-    // 3. Общий случай ValidationException – вдруг что–то ещё полетит отсюда
-    @ExceptionHandler(ValidationException.class)
-    public ResponseEntity<ErrorResponse> handleValidationException(ValidationException ex) {
+    // 3. Общий случай ValidationException из jakarta.validation – вдруг что–то ещё полетит отсюда.
+    // Имя совпадает с нашим исключением, поэтому класс указан полностью
+    @ExceptionHandler(jakarta.validation.ValidationException.class)
+    public ResponseEntity<ErrorResponse> handleValidationException(jakarta.validation.ValidationException ex) {
         ErrorResponse response = new ErrorResponse(
                 "Ошибка валидации",
                 ex.getClass().getSimpleName()
@@ -78,6 +80,16 @@ public class ErrorHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
+    // 3a. Своё исключение для некорректного тела запроса целиком (например, формат импорта)
+    @ExceptionHandler(ValidationException.class)
+    public ResponseEntity<ErrorResponse> handleRequestValidation(ValidationException ex) {
+        ErrorResponse response = new ErrorResponse(
+                ex.getMessage(),
+                ex.getClass().getSimpleName()
+        );
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
     // 4. Обработка своих бизнес–исключений – NotFoundException на 404
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<ErrorResponse> handleUserNotFound(NotFoundException ex) {
@@ -88,5 +100,14 @@ public class ErrorHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
     }
 
-}
+    // 5. Очередь записи переполнена – просим клиента повторить позже
+    @ExceptionHandler(WriteQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleWriteQueueFull(WriteQueueFullException ex) {
+        ErrorResponse response = new ErrorResponse(
+                ex.getMessage(),
+                ex.getClass().getSimpleName()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
 
+}
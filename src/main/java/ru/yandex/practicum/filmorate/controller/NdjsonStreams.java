@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Потоковая выдача коллекций в формате NDJSON (один JSON-объект на строку).
+ *
+ * <p>Данные читаются из хранилища страницами по курсору id и сразу пишутся в ответ,
+ * поэтому ни полный список, ни полный JSON в памяти не собираются.
+ */
+public final class NdjsonStreams {
+    static final int STREAM_PAGE_SIZE = 500;
+
+    private NdjsonStreams() {
+    }
+
+    public static <T> ResponseEntity<StreamingResponseBody> stream(ObjectMapper objectMapper,
+                                                                   PageLoader<T> pageLoader,
+                                                                   ToLongFunction<T> idOf) {
+        ObjectWriter writer = objectMapper.writer();
+        StreamingResponseBody body = out -> {
+            List<T> page = pageLoader.load(0, STREAM_PAGE_SIZE);
+            while (!page.isEmpty()) {
+                for (T item : page) {
+                    out.write(writer.writeValueAsBytes(item));
+                    out.write('\n');
+                }
+                out.flush();
+                long afterId = idOf.applyAsLong(page.get(page.size() - 1));
+                page = pageLoader.load(afterId, STREAM_PAGE_SIZE);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @FunctionalInterface
+    public interface PageLoader<T> {
+        List<T> load(long afterId, int limit);
+    }
+}
@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.controller.bulk;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.service.bulk.BulkFormat;
+import ru.yandex.practicum.filmorate.service.bulk.BulkImportReport;
+import ru.yandex.practicum.filmorate.service.bulk.BulkImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Массовый импорт: тело в NDJSON или CSV читается потоком, в ответ – отчёт по строкам
+@RestController
+@RequestMapping("/import")
+@RequiredArgsConstructor
+public class BulkImportController {
+    private final BulkImportService bulkImportService;
+
+    @PostMapping(value = "/films", consumes = {MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.TEXT_CSV_VALUE})
+    public BulkImportReport importFilms(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                        InputStream body) throws IOException {
+        return bulkImportService.importFilms(body, BulkFormat.of(contentType));
+    }
+
+    @PostMapping(value = "/users", consumes = {MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.TEXT_CSV_VALUE})
+    public BulkImportReport importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                        InputStream body) throws IOException {
+        return bulkImportService.importUsers(body, BulkFormat.of(contentType));
+    }
+
+    @PostMapping(value = "/likes", consumes = {MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.TEXT_CSV_VALUE})
+    public BulkImportReport importLikes(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                        InputStream body) throws IOException {
+        return bulkImportService.importLikes(body, BulkFormat.of(contentType));
+    }
+
+    @PostMapping(value = "/friendships", consumes = {MediaType.APPLICATION_NDJSON_VALUE, BulkFormat.TEXT_CSV_VALUE})
+    public BulkImportReport importFriendships(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                              InputStream body) throws IOException {
+        return bulkImportService.importFriendships(body, BulkFormat.of(contentType));
+    }
+}
@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.controller.bulk;
+
+import jakarta.validation.constraints.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.service.bulk.DatasetDumpService;
+import ru.yandex.practicum.filmorate.service.bulk.DumpLoadReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Полная выгрузка данных файлом и загрузка такой выгрузки обратно
+@RestController
+@RequiredArgsConstructor
+@Validated
+public class DatasetDumpController {
+    private static final String BINARY = "binary";
+
+    private final DatasetDumpService datasetDumpService;
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = BINARY)
+                                                        @Pattern(regexp = "binary|ndjson",
+                                                                message = "format должен быть binary или ndjson")
+                                                        String format,
+
+                                                        @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        boolean binary = BINARY.equals(format);
+        String fileName = "filmorate." + (binary ? "dump" : "ndjson") + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip")
+                : binary ? MediaType.APPLICATION_OCTET_STREAM : MediaType.APPLICATION_NDJSON;
+
+        StreamingResponseBody body = out -> {
+            if (binary) {
+                datasetDumpService.exportBinary(out, gzip);
+            } else {
+                datasetDumpService.exportNdjson(out, gzip);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    @PostMapping(value = "/import/dump", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "application/gzip"})
+    public DumpLoadReport load(InputStream body) throws IOException {
+        return datasetDumpService.load(body);
+    }
+}
@@ -1,11 +1,18 @@
 package ru.yandex.practicum.filmorate.controller.film;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.groups.Default;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,9 +24,14 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.controller.NdjsonStreams;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.stats.FilmLikerStats;
+import ru.yandex.practicum.filmorate.storage.film.TrendWindow;
 
+import java.time.LocalDate;
 import java.util.Collection;
 
 @RestController
@@ -27,7 +39,12 @@ import java.util.Collection;
 @RequiredArgsConstructor
 @Validated
 public class FilmController {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     private final FilmService filmService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -41,8 +58,42 @@ public class FilmController {
     }
 
     @GetMapping
-    public Collection<Film> getAllFilms() {
-        return filmService.getAllFilms();
+    public Collection<Film> getAllFilms(@RequestParam(required = false)
+                                        @PositiveOrZero(message = "after не может быть отрицательным")
+                                        Long after,
+
+                                        @RequestParam(required = false)
+                                        @Positive(message = "limit должен быть положительным")
+                                        @Max(value = MAX_PAGE_SIZE, message = "limit не может быть больше 1000")
+                                        Integer limit
+    ) {
+        if (after == null && limit == null) {
+            return filmService.getAllFilms();
+        }
+        return filmService.getFilmsPage(
+                after == null ? 0 : after,
+                limit == null ? DEFAULT_PAGE_SIZE : limit
+        );
+    }
+
+    // Потоковая выдача всего каталога в NDJSON без сборки полного списка в памяти
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllFilms() {
+        return NdjsonStreams.stream(objectMapper, filmService::getFilmsPage, Film::getId);
+    }
+
+    // Поиск по словам названия и описания; последнее слово дополняется как префикс
+    @GetMapping("/search")
+    public Collection<Film> searchFilms(@RequestParam
+                                        @NotBlank(message = "q не может быть пустым")
+                                        String q,
+
+                                        @RequestParam(defaultValue = "20")
+                                        @Positive(message = "limit должен быть положительным")
+                                        @Max(value = MAX_SEARCH_RESULTS, message = "limit не может быть больше 100")
+                                        int limit
+    ) {
+        return filmService.searchFilms(q, limit);
     }
 
     @PutMapping("/{id}/like/{userId}")
@@ -73,8 +124,36 @@ public class FilmController {
         filmService.removeUserLike(id, userId);
     }
 
+    // approx=true – приближённый топ по скетчу вместо точного индекса
     @GetMapping("/popular")
-    public Collection<Film> getPopularFilms(@RequestParam(defaultValue = "10") @PositiveOrZero(message = "count  не может быть отрицательным") int count) {
-        return filmService.getPopularFilms(count);
+    public Collection<Film> getPopularFilms(@RequestParam(defaultValue = "10") @PositiveOrZero(message = "count  не может быть отрицательным")
+                                            @Max(value = MAX_PAGE_SIZE, message = "count не может быть больше 1000") int count,
+                                            @RequestParam(defaultValue = "false") boolean approx) {
+        return approx ? filmService.getApproxPopularFilms(count) : filmService.getPopularFilms(count);
+    }
+
+    @GetMapping("/{id}/stats/likers")
+    public FilmLikerStats getLikerStats(@PathVariable
+                                        @NotNull(message = "id фильма обязателен")
+                                        @PositiveOrZero(message = "id фильма не может быть отрицательным")
+                                        Long id,
+
+                                        @RequestParam(required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                        LocalDate from,
+
+                                        @RequestParam(required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+                                        LocalDate to
+    ) {
+        return filmService.getLikerStats(id, from, to);
+    }
+
+    // Самые лайкаемые фильмы за последний час, сутки или неделю
+    @GetMapping("/trending")
+    public Collection<Film> getTrendingFilms(@RequestParam(defaultValue = "24h") String window,
+                                             @RequestParam(defaultValue = "10") @PositiveOrZero(message = "count не может быть отрицательным")
+                                             @Max(value = MAX_PAGE_SIZE, message = "count не может быть больше 1000") int count) {
+        return filmService.getTrendingFilms(TrendWindow.of(window), count);
     }
 }
@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.controller.user;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.util.Collection;
+
+// Фильмы, которые понравились пользователям с похожими лайками
+@Validated
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/users/{id}/film-recommendations")
+public class FilmRecommendationsController {
+    private static final int MAX_RECOMMENDATIONS = 100;
+
+    private final FilmService filmService;
+
+    @GetMapping
+    public Collection<Film> getFilmRecommendations(
+            @PathVariable
+            @NotNull(message = "id пользователя обязателен")
+            @PositiveOrZero(message = "id пользователя не может быть отрицательным")
+            Long id,
+
+            @RequestParam(defaultValue = "10")
+            @Positive(message = "limit должен быть положительным")
+            @Max(value = MAX_RECOMMENDATIONS, message = "limit не может быть больше 100")
+            int limit
+    ) {
+        return filmService.getRecommendations(id, limit);
+    }
+}
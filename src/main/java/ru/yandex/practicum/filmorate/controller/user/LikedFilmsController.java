@@ -0,0 +1,47 @@
+package ru.yandex.practicum.filmorate.controller.user;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.util.Collection;
+
+// Фильмы, которые лайкнул пользователь, постранично по id фильма
+@Validated
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/users/{id}/likes")
+public class LikedFilmsController {
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final FilmService filmService;
+
+    @GetMapping
+    public Collection<Film> getLikedFilms(
+            @PathVariable
+            @NotNull(message = "id пользователя обязателен")
+            @PositiveOrZero(message = "id пользователя не может быть отрицательным")
+            Long id,
+
+            @RequestParam(defaultValue = "0")
+            @PositiveOrZero(message = "after не может быть отрицательным")
+            long after,
+
+            @RequestParam(defaultValue = "100")
+            @Positive(message = "limit должен быть положительным")
+            @Max(value = MAX_PAGE_SIZE, message = "limit не может быть больше 1000")
+            int limit
+    ) {
+        return filmService.getLikedFilms(id, after, limit);
+    }
+}
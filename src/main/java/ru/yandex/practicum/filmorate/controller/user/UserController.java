@@ -1,16 +1,26 @@
 package ru.yandex.practicum.filmorate.controller.user;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.groups.Default;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.controller.NdjsonStreams;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.UserService;
 
@@ -22,7 +32,12 @@ import java.util.Collection;
 @RestController
 @RequestMapping("/users")
 public class UserController {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_RECOMMENDATIONS = 100;
+
     private final UserService service;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public User createUser(@Validated({Default.class}) @NotNull @RequestBody User user) {
@@ -35,8 +50,45 @@ public class UserController {
     }
 
     @GetMapping
-    public Collection<User> getAllUsers() {
-        return service.getAllUsers();
+    public Collection<User> getAllUsers(
+            @RequestParam(required = false)
+            @PositiveOrZero(message = "after не может быть отрицательным")
+            Long after,
+
+            @RequestParam(required = false)
+            @Positive(message = "limit должен быть положительным")
+            @Max(value = MAX_PAGE_SIZE, message = "limit не может быть больше 1000")
+            Integer limit
+    ) {
+        if (after == null && limit == null) {
+            return service.getAllUsers();
+        }
+        return service.getUsersPage(
+                after == null ? 0 : after,
+                limit == null ? DEFAULT_PAGE_SIZE : limit
+        );
+    }
+
+    // Друзья друзей по убыванию числа общих друзей
+    @GetMapping("/{id}/recommendations")
+    public Collection<User> getRecommendations(
+            @PathVariable
+            @NotNull(message = "id пользователя обязателен")
+            @PositiveOrZero(message = "id пользователя не может быть отрицательным")
+            Long id,
+
+            @RequestParam(defaultValue = "10")
+            @Positive(message = "limit должен быть положительным")
+            @Max(value = MAX_RECOMMENDATIONS, message = "limit не может быть больше 100")
+            int limit
+    ) {
+        return service.getRecommendations(id, limit);
+    }
+
+    // Потоковая выдача всех пользователей в NDJSON
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return NdjsonStreams.stream(objectMapper, service::getUsersPage, User::getId);
     }
 
 
@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.exception;
+
+public class WriteQueueFullException extends RuntimeException {
+    public WriteQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,95 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.service.cache.ReadCache;
+import ru.yandex.practicum.filmorate.service.edge.WriteBehindEdgeWriter;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.journal.StorageJournal;
+import ru.yandex.practicum.filmorate.storage.journal.WriteAheadLog;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Метрики состояния приложения: размеры каталога и графа, кэш чтения,
+ * очередь отложенной записи и журнал.
+ *
+ * <p>Размеры считаются при опросе, поэтому ничего не стоят на пути запроса.
+ * Очередь и журнал регистрируются, только если включены.
+ */
+@RequiredArgsConstructor
+public class FilmorateMetrics implements MeterBinder {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ReadCache readCache;
+    private final WriteBehindEdgeWriter writeBehind;
+    private final StorageJournal journal;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        gauge(registry, "filmorate.catalogue.films", filmStorage, FilmStorage::countFilms);
+        gauge(registry, "filmorate.catalogue.users", userStorage, UserStorage::countUsers);
+        Gauge.builder("filmorate.edges", filmStorage, FilmStorage::countLikes)
+                .tag("type", "like")
+                .strongReference(true)
+                .register(registry);
+        Gauge.builder("filmorate.edges", userStorage, UserStorage::countFriendships)
+                .tag("type", "friendship")
+                .strongReference(true)
+                .register(registry);
+        gauge(registry, "filmorate.film.likes.max", filmStorage, FilmStorage::maxLikes);
+
+        bindCache(registry, "popular_films", ReadCache::popularFilmsStats);
+        bindCache(registry, "friends", ReadCache::friendsStats);
+        bindCache(registry, "mutual_friends", ReadCache::mutualFriendsStats);
+        bindCache(registry, "recommendations", ReadCache::recommendationsStats);
+
+        if (writeBehind != null) {
+            gauge(registry, "filmorate.write_behind.queue.depth", writeBehind, WriteBehindEdgeWriter::getQueueDepth);
+            gauge(registry, "filmorate.write_behind.batch.last", writeBehind, WriteBehindEdgeWriter::getLastBatchSize);
+            counter(registry, "filmorate.write_behind.submitted", writeBehind, WriteBehindEdgeWriter::getSubmitted);
+            counter(registry, "filmorate.write_behind.rejected", writeBehind, WriteBehindEdgeWriter::getRejected);
+            counter(registry, "filmorate.write_behind.batches", writeBehind, WriteBehindEdgeWriter::getFlushedBatches);
+            counter(registry, "filmorate.write_behind.flushed", writeBehind, WriteBehindEdgeWriter::getFlushedChanges);
+            counter(registry, "filmorate.write_behind.failed", writeBehind, WriteBehindEdgeWriter::getFailedChanges);
+        }
+
+        if (journal != null) {
+            WriteAheadLog wal = journal.getWal();
+            counter(registry, "filmorate.journal.records", wal, WriteAheadLog::getAppendedRecords);
+            counter(registry, "filmorate.journal.bytes", wal, WriteAheadLog::getWrittenBytes);
+            counter(registry, "filmorate.journal.syncs", wal, WriteAheadLog::getSyncs);
+            gauge(registry, "filmorate.journal.recovery.millis", journal, StorageJournal::getRecoveryMillis);
+        }
+    }
+
+    // Счётчики держат ссылку на сам кэш: Micrometer хранит её слабой, а кэш живёт в контексте
+    private void bindCache(MeterRegistry registry, String cache, Function<ReadCache, ReadCache.Stats> stats) {
+        FunctionCounter.builder("filmorate.cache.requests", readCache, c -> stats.apply(c).hits())
+                .tags("cache", cache, "result", "hit")
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.requests", readCache, c -> stats.apply(c).misses())
+                .tags("cache", cache, "result", "miss")
+                .register(registry);
+        FunctionCounter.builder("filmorate.cache.evictions", readCache, c -> stats.apply(c).evictions())
+                .tag("cache", cache)
+                .register(registry);
+        Gauge.builder("filmorate.cache.size", readCache, c -> stats.apply(c).size())
+                .tag("cache", cache)
+                .strongReference(true)
+                .register(registry);
+    }
+
+    private static <T> void gauge(MeterRegistry registry, String name, T source, ToDoubleFunction<T> value) {
+        Gauge.builder(name, source, value).strongReference(true).register(registry);
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, T source, ToDoubleFunction<T> value) {
+        FunctionCounter.builder(name, source, value).register(registry);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.service.cache.ReadCache;
+import ru.yandex.practicum.filmorate.service.edge.WriteBehindEdgeWriter;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.journal.StorageJournal;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+@Configuration
+public class MetricsConfig {
+
+    // Обрабатывает @Timed на хранилищах и сервисах
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public FilmorateMetrics filmorateMetrics(FilmStorage filmStorage,
+                                             UserStorage userStorage,
+                                             ReadCache readCache,
+                                             ObjectProvider<WriteBehindEdgeWriter> writeBehind,
+                                             ObjectProvider<StorageJournal> journal) {
+        return new FilmorateMetrics(filmStorage, userStorage, readCache,
+                writeBehind.getIfAvailable(), journal.getIfAvailable());
+    }
+}
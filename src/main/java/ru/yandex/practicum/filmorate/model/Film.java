@@ -7,9 +7,9 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
 
 import java.time.LocalDate;
-import java.util.HashSet;
 import java.util.Set;
 
 
@@ -32,7 +32,7 @@ public class Film {
     @Min(value = 1, message = "duration должна составлять не меньше 1 минуты")
     private Integer duration;
 
-    private Set<Long> likedUser = new HashSet<>();
+    private LongHashSet likedUser = new LongHashSet();
 
     @AssertTrue(message = "releaseDate не может быть раньше чем 28.12.1895")
     public boolean isReleaseDateValid() {
@@ -40,5 +40,10 @@ public class Film {
         return !releaseDate.isBefore(MIN);
     }
 
+    // Лайки держим в LongHashSet, какую бы коллекцию ни прислал клиент
+    public void setLikedUser(Set<Long> likedUser) {
+        this.likedUser = likedUser == null ? new LongHashSet() : new LongHashSet(likedUser);
+    }
+
 
 }
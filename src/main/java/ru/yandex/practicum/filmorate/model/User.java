@@ -8,9 +8,9 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Past;
 import jakarta.validation.constraints.Pattern;
 import lombok.Data;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
 
 import java.time.LocalDate;
-import java.util.HashSet;
 import java.util.Set;
 
 @Data
@@ -34,7 +34,7 @@ public class User {
     @Past(message = "birthday должен быть раньше текущего момента времени")
     private LocalDate birthday;
 
-    private Set<Long> friends = new HashSet<>();
+    private LongHashSet friends = new LongHashSet();
 
 
     public void setLogin(String email) {
@@ -51,6 +51,11 @@ public class User {
         this.name = (n == null) ? this.login : n;
     }
 
+    // Любую присланную коллекцию копируем в компактное множество примитивов
+    public void setFriends(Set<Long> friends) {
+        this.friends = friends == null ? new LongHashSet() : new LongHashSet(friends);
+    }
+
     // ==== УТИЛИТЫ ====
 
     private static boolean isBlank(String s) {
@@ -1,58 +1,111 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.cache.ReadCache;
+import ru.yandex.practicum.filmorate.service.edge.EdgeWriter;
+import ru.yandex.practicum.filmorate.service.event.FilmChangedEvent;
+import ru.yandex.practicum.filmorate.service.stats.FilmLikeStats;
+import ru.yandex.practicum.filmorate.service.stats.FilmLikerStats;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.TrendWindow;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import java.time.LocalDate;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed("filmorate.service")
 public class FilmService {
+    private static final int DEFAULT_STATS_DAYS = 30;
+
     private final FilmStorage filmStorage;
     private final UserStorage userStorage;
+    private final EdgeWriter edgeWriter;
+    private final ReadCache readCache;
+    private final FilmLikeStats likeStats;
+    private final ApplicationEventPublisher events;
 
     public Film createFilm(Film film) {
-        return filmStorage.createFilm(film);
+        Film created = filmStorage.createFilm(film);
+        events.publishEvent(new FilmChangedEvent(created.getId()));
+        return created;
     }
 
     public Film updateFilm(Film film) {
         requireFilm(film.getId());
 
-        return filmStorage.updateFilm(film);
-
+        Film updated = filmStorage.updateFilm(film);
+        events.publishEvent(new FilmChangedEvent(updated.getId()));
+        return updated;
     }
 
     public Collection<Film> getAllFilms() {
         return filmStorage.getAllFilms();
     }
 
+    public List<Film> getFilmsPage(long afterId, int limit) {
+        return filmStorage.getFilms(afterId, limit);
+    }
+
     public void addUserLike(long filmId, long userId) {
         requireUser(userId);
 
-        requireFilm(filmId).getLikedUser().add(userId);
+        requireFilm(filmId);
+        edgeWriter.setLike(filmId, userId, true);
     }
 
     public void removeUserLike(long filmId, long userId) {
         requireUser(userId);
 
-        requireFilm(filmId).getLikedUser().remove(userId);
+        requireFilm(filmId);
+        edgeWriter.setLike(filmId, userId, false);
     }
 
     public List<Film> getPopularFilms(int count) {
-        return filmStorage.getAllFilms().stream()
-                .sorted(Comparator.comparingInt(
-                        (Film film) -> film.getLikedUser().size()
-                ).reversed())
-                .limit(count)
-                .collect(Collectors.toList());
+        return readCache.popularFilms(count, () -> filmStorage.getPopularFilms(count));
+    }
+
+    // Приближённый топ дёшев сам по себе и в кэш не кладётся
+    public List<Film> getApproxPopularFilms(int count) {
+        return filmStorage.getApproxPopularFilms(count);
+    }
+
+    public List<Film> getTrendingFilms(TrendWindow window, int count) {
+        return filmStorage.getTrendingFilms(window, count);
+    }
+
+    public List<Film> searchFilms(String query, int limit) {
+        return filmStorage.searchFilms(query, limit);
+    }
+
+    // Оценка уникальных лайкнувших за период включительно; по умолчанию – последние 30 дней
+    public FilmLikerStats getLikerStats(long filmId, LocalDate from, LocalDate to) {
+        requireFilm(filmId);
+        LocalDate end = to == null ? likeStats.today() : to;
+        LocalDate start = from == null ? end.minusDays(DEFAULT_STATS_DAYS - 1) : from;
+        if (start.isAfter(end)) {
+            throw new ValidationException("from не может быть позже to");
+        }
+        return likeStats.uniqueLikers(filmId, start, end);
+    }
+
+    public List<Film> getLikedFilms(long userId, long afterId, int limit) {
+        requireUser(userId);
+        return filmStorage.getLikedFilms(userId, afterId, limit);
+    }
+
+    public List<Film> getRecommendations(long userId, int limit) {
+        requireUser(userId);
+        return filmStorage.getFilmRecommendations(userId, limit);
     }
 
     private Film requireFilm(long filmId) {
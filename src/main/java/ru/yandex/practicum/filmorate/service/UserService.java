@@ -1,22 +1,31 @@
 package ru.yandex.practicum.filmorate.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.cache.ReadCache;
+import ru.yandex.practicum.filmorate.service.edge.EdgeWriter;
+import ru.yandex.practicum.filmorate.service.event.UserUpdatedEvent;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
 import java.util.Collection;
-import java.util.Optional;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Validated
+@Timed("filmorate.service")
 public class UserService {
     private final UserStorage storage;
+    private final EdgeWriter edgeWriter;
+    private final ReadCache readCache;
+    private final ApplicationEventPublisher events;
 
     public User createUser(User user) {
         return storage.createUser(user);
@@ -24,40 +33,46 @@ public class UserService {
 
     public User updateUser(User user) {
         requireUser(user.getId());
-        return storage.updateUser(user);
+        User updated = storage.updateUser(user);
+        events.publishEvent(new UserUpdatedEvent(updated));
+        return updated;
     }
 
     public Collection<User> getAllUsers() {
         return storage.getAllUsers();
     }
 
+    public List<User> getUsersPage(long afterId, int limit) {
+        return storage.getUsers(afterId, limit);
+    }
+
     public Set<User> getFriends(long userId) {
-        return requireUser(userId)
-                .getFriends().stream()
-                .map(storage::getUserById)
-                .flatMap(Optional::stream)
-                .collect(Collectors.toSet());
+        requireUser(userId);
+        return new LinkedHashSet<>(readCache.friends(userId, () -> storage.getFriends(userId)));
     }
 
     public void addFriend(long userId, long friendId) {
-        requireUser(userId).getFriends().add(friendId);
-        requireUser(friendId).getFriends().add(userId);
+        requireUser(userId);
+        requireUser(friendId);
+        edgeWriter.setFriendship(userId, friendId, true);
     }
 
     public void removeFriend(long userId, long friendId) {
-        requireUser(userId).getFriends().remove(friendId);
-        requireUser(friendId).getFriends().remove(userId);
+        requireUser(userId);
+        requireUser(friendId);
+        edgeWriter.setFriendship(userId, friendId, false);
     }
 
     public Set<User> getMutualFriends(long userId, long friendId) {
-        Set<Long> friendsUser = requireUser(userId).getFriends();
+        requireUser(userId);
+        requireUser(friendId);
+        return new LinkedHashSet<>(readCache.mutualFriends(userId, friendId,
+                () -> storage.getCommonFriends(userId, friendId)));
+    }
 
-        return requireUser(friendId)
-                .getFriends().stream()
-                .filter(x -> !friendsUser.add(x))
-                .map(storage::getUserById)
-                .flatMap(Optional::stream)
-                .collect(Collectors.toSet());
+    public List<User> getRecommendations(long userId, int limit) {
+        requireUser(userId);
+        return readCache.recommendations(userId, limit, () -> storage.getFriendRecommendations(userId, limit));
     }
 
     private User requireUser(long userId) {
@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.service.bulk;
+
+import org.springframework.http.MediaType;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+// Форматы тела массового импорта
+public enum BulkFormat {
+    NDJSON,
+    CSV;
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    public static BulkFormat of(MediaType contentType) {
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)) {
+            return NDJSON;
+        }
+        if (MediaType.parseMediaType(TEXT_CSV_VALUE).isCompatibleWith(contentType)) {
+            return CSV;
+        }
+        throw new ValidationException("Неподдерживаемый формат импорта: " + contentType);
+    }
+}
@@ -0,0 +1,22 @@
+package ru.yandex.practicum.filmorate.service.bulk;
+
+import java.util.List;
+
+/**
+ * Итог массового импорта.
+ *
+ * <p>{@code errors} держит не больше {@link BulkImportService#MAX_REPORTED_ERRORS} строк,
+ * остальные ошибки только считаются в {@code failed}, а {@code errorsTruncated} становится true.
+ *
+ * @param received        сколько строк данных прочитано
+ * @param imported        сколько из них записано в хранилище
+ * @param failed          сколько отклонено
+ * @param errors          ошибки по строкам, номер строки считается от начала тела с единицы
+ * @param errorsTruncated попали ли в отчёт не все ошибки
+ */
+public record BulkImportReport(long received, long imported, long failed, List<RowError> errors,
+                               boolean errorsTruncated) {
+
+    public record RowError(long line, String message) {
+    }
+}
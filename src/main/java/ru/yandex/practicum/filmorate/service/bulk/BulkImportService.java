@@ -0,0 +1,292 @@
+package ru.yandex.practicum.filmorate.service.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.bulk.BulkImportReport.RowError;
+import ru.yandex.practicum.filmorate.service.bulk.BulkRowReader.BulkRow;
+import ru.yandex.practicum.filmorate.service.bulk.BulkRowReader.CsvRecord;
+import ru.yandex.practicum.filmorate.service.event.FilmChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.FriendshipChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Массовый импорт фильмов, пользователей, лайков и дружб из NDJSON или CSV.
+ *
+ * <p>Тело читается потоком и обрабатывается пачками по {@link #CHUNK_SIZE} строк: пачка
+ * валидируется параллельно, а прошедшие проверку строки уходят в хранилище одним пакетным
+ * вызовом, так что id выдаются сразу на всю пачку. Ошибочные строки не прерывают импорт
+ * и попадают в отчёт с номером строки.
+ *
+ * <p>Лайки и дружбы пишутся в хранилище напрямую, минуя очередь отложенной записи: они и так
+ * идут пачками. Фильмы и пользователи, на которые ссылается ребро, должны уже существовать.
+ * Поэтому рёбра импортируются только своими строками: фильм с непустым {@code likedUser} или
+ * пользователь с непустым {@code friends} отклоняются – иначе такие рёбра обошли бы проверку
+ * ссылок и события {@link LikeChangedEvent}/{@link FriendshipChangedEvent}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Timed("filmorate.service")
+public class BulkImportService {
+    static final int CHUNK_SIZE = 4096;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    // Меньшие пачки валидируются в вызывающем потоке: распараллеливание дороже самой проверки
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ApplicationEventPublisher events;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    public BulkImportReport importFilms(InputStream body, BulkFormat format) throws IOException {
+        BulkRowReader<Film> rows = format == BulkFormat.CSV
+                ? BulkRowReader.csv(body, BulkImportService::filmOf)
+                : BulkRowReader.ndjson(body, objectMapper.readerFor(Film.class));
+        return importRows(rows, this::writeFilms);
+    }
+
+    public BulkImportReport importUsers(InputStream body, BulkFormat format) throws IOException {
+        BulkRowReader<User> rows = format == BulkFormat.CSV
+                ? BulkRowReader.csv(body, BulkImportService::userOf)
+                : BulkRowReader.ndjson(body, objectMapper.readerFor(User.class));
+        return importRows(rows, this::writeUsers);
+    }
+
+    public BulkImportReport importLikes(InputStream body, BulkFormat format) throws IOException {
+        BulkRowReader<LikeRow> rows = format == BulkFormat.CSV
+                ? BulkRowReader.csv(body, row -> new LikeRow(row.getLong("filmId"), row.getLong("userId")))
+                : BulkRowReader.ndjson(body, objectMapper.readerFor(LikeRow.class));
+        return importRows(rows, this::writeLikes);
+    }
+
+    public BulkImportReport importFriendships(InputStream body, BulkFormat format) throws IOException {
+        BulkRowReader<FriendshipRow> rows = format == BulkFormat.CSV
+                ? BulkRowReader.csv(body, row -> new FriendshipRow(row.getLong("userId"), row.getLong("friendId")))
+                : BulkRowReader.ndjson(body, objectMapper.readerFor(FriendshipRow.class));
+        return importRows(rows, this::writeFriendships);
+    }
+
+    private <T> BulkImportReport importRows(BulkRowReader<T> rows, ChunkWriter<T> writer) throws IOException {
+        Report report = new Report();
+        List<BulkRow<T>> chunk = new ArrayList<>(CHUNK_SIZE);
+        BulkRow<T> row;
+        while ((row = rows.next()) != null) {
+            chunk.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                writer.write(validate(chunk, report), report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writer.write(validate(chunk, report), report);
+        }
+
+        log.info("importRows() – received={}, imported={}, failed={}",
+                report.received, report.imported, report.failed);
+        return report.build();
+    }
+
+    // Отклонённые строки сразу уходят в отчёт, остальные возвращаются в исходном порядке
+    private <T> List<BulkRow<T>> validate(List<BulkRow<T>> chunk, Report report) {
+        String[] errors = new String[chunk.size()];
+        IntStream indexes = IntStream.range(0, chunk.size());
+        if (chunk.size() >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> errors[i] = check(chunk.get(i)));
+
+        report.received += chunk.size();
+        List<BulkRow<T>> valid = new ArrayList<>(chunk.size());
+        for (int i = 0; i < errors.length; i++) {
+            if (errors[i] == null) {
+                valid.add(chunk.get(i));
+            } else {
+                report.reject(chunk.get(i).line(), errors[i]);
+            }
+        }
+        return valid;
+    }
+
+    private <T> String check(BulkRow<T> row) {
+        if (row.value() == null) {
+            return row.error();
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(row.value());
+        if (violations.isEmpty()) {
+            return null;
+        }
+        // Сортировка по полю, чтобы отчёт не зависел от порядка обхода ограничений
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void writeFilms(List<BulkRow<Film>> rows, Report report) {
+        List<Film> films = withoutEdges(rows, film -> !film.getLikedUser().isEmpty(),
+                "likedUser: лайки импортируются строками /import/likes", report);
+        if (films.isEmpty()) {
+            return;
+        }
+        List<Film> created = filmStorage.createFilms(films);
+        created.forEach(film -> events.publishEvent(new FilmChangedEvent(film.getId())));
+        report.imported += created.size();
+    }
+
+    private void writeUsers(List<BulkRow<User>> rows, Report report) {
+        List<User> users = withoutEdges(rows, user -> !user.getFriends().isEmpty(),
+                "friends: дружбы импортируются строками /import/friendships", report);
+        if (users.isEmpty()) {
+            return;
+        }
+        report.imported += userStorage.createUsers(users).size();
+    }
+
+    private void writeLikes(List<BulkRow<LikeRow>> rows, Report report) {
+        List<Long> filmIds = new ArrayList<>(rows.size());
+        List<Long> userIds = new ArrayList<>(rows.size());
+        for (BulkRow<LikeRow> row : rows) {
+            filmIds.add(row.value().filmId());
+            userIds.add(row.value().userId());
+        }
+        LongPredicate filmExists = existing(filmStorage.getFilmsByIds(filmIds), Film::getId);
+        LongPredicate userExists = existing(userStorage.getUsersByIds(userIds), User::getId);
+
+        List<EdgeChange> changes = new ArrayList<>(rows.size());
+        for (BulkRow<LikeRow> row : rows) {
+            LikeRow like = row.value();
+            if (!filmExists.test(like.filmId())) {
+                report.reject(row.line(), "Фильм с id " + like.filmId() + " не найден");
+            } else if (!userExists.test(like.userId())) {
+                report.reject(row.line(), "Пользователь с id " + like.userId() + " не найден");
+            } else {
+                changes.add(new EdgeChange(like.filmId(), like.userId(), true));
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        filmStorage.applyLikes(changes);
+        changes.forEach(change -> events.publishEvent(new LikeChangedEvent(change.from(), change.to(), true)));
+        report.imported += changes.size();
+    }
+
+    private void writeFriendships(List<BulkRow<FriendshipRow>> rows, Report report) {
+        List<Long> userIds = new ArrayList<>(rows.size() * 2);
+        for (BulkRow<FriendshipRow> row : rows) {
+            userIds.add(row.value().userId());
+            userIds.add(row.value().friendId());
+        }
+        LongPredicate userExists = existing(userStorage.getUsersByIds(userIds), User::getId);
+
+        List<EdgeChange> changes = new ArrayList<>(rows.size());
+        for (BulkRow<FriendshipRow> row : rows) {
+            FriendshipRow friendship = row.value();
+            if (!userExists.test(friendship.userId())) {
+                report.reject(row.line(), "Пользователь с id " + friendship.userId() + " не найден");
+            } else if (!userExists.test(friendship.friendId())) {
+                report.reject(row.line(), "Пользователь с id " + friendship.friendId() + " не найден");
+            } else {
+                changes.add(new EdgeChange(friendship.userId(), friendship.friendId(), true));
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        userStorage.applyFriendships(changes);
+        changes.forEach(change -> events.publishEvent(new FriendshipChangedEvent(change.from(), change.to())));
+        report.imported += changes.size();
+    }
+
+    // Все концы рёбер пачки проверяются одним пакетным чтением, а не запросом на каждый id
+    private static <T> LongPredicate existing(List<T> found, ToLongFunction<T> id) {
+        LongHashSet ids = new LongHashSet(found.size());
+        for (T entity : found) {
+            ids.add(id.applyAsLong(entity));
+        }
+        return ids::contains;
+    }
+
+    // Значения строк без встроенных рёбер; строки с рёбрами уходят в отчёт
+    private static <T> List<T> withoutEdges(List<BulkRow<T>> rows, Predicate<T> hasEdges, String error,
+                                            Report report) {
+        List<T> values = new ArrayList<>(rows.size());
+        for (BulkRow<T> row : rows) {
+            if (hasEdges.test(row.value())) {
+                report.reject(row.line(), error);
+            } else {
+                values.add(row.value());
+            }
+        }
+        return values;
+    }
+
+    private static Film filmOf(CsvRecord row) {
+        Film film = new Film();
+        film.setName(row.get("name"));
+        film.setDescription(row.get("description"));
+        film.setReleaseDate(row.getDate("releaseDate"));
+        film.setDuration(row.getInt("duration"));
+        return film;
+    }
+
+    private static User userOf(CsvRecord row) {
+        User user = new User();
+        user.setEmail(row.get("email"));
+        user.setLogin(row.get("login"));
+        user.setName(row.get("name"));
+        user.setBirthday(row.getDate("birthday"));
+        return user;
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        void write(List<BulkRow<T>> validRows, Report report);
+    }
+
+    // Отчёт собирается в одном потоке: параллельна только проверка строк
+    private static final class Report {
+        private final List<RowError> errors = new ArrayList<>();
+        private long received;
+        private long imported;
+        private long failed;
+
+        private void reject(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, message));
+            }
+        }
+
+        // В пачке ошибки проверки полей приходят раньше ошибок ссылок, поэтому порядок строк восстанавливаем
+        private BulkImportReport build() {
+            errors.sort(Comparator.comparingLong(RowError::line));
+            return new BulkImportReport(received, imported, failed, List.copyOf(errors), failed > errors.size());
+        }
+    }
+}
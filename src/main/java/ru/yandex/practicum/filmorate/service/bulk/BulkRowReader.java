@@ -0,0 +1,179 @@
+package ru.yandex.practicum.filmorate.service.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Потоковое чтение тела импорта по строкам.
+ *
+ * <p>Тело не собирается в памяти: каждая строка разбирается отдельно, и ошибка разбора
+ * относится только к своей строке, не обрывая импорт. Пустые строки пропускаются.
+ */
+abstract class BulkRowReader<T> {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final BufferedReader reader;
+    private long line;
+
+    private BulkRowReader(InputStream body) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    // Каждая строка – отдельный JSON-объект
+    static <T> BulkRowReader<T> ndjson(InputStream body, ObjectReader objectReader) {
+        return new BulkRowReader<>(body) {
+            @Override
+            T parse(String text) throws IOException {
+                T value;
+                try {
+                    value = objectReader.readValue(text);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException("некорректный JSON: " + e.getOriginalMessage());
+                }
+                if (value == null) {
+                    throw new IllegalArgumentException("ожидался JSON-объект");
+                }
+                return value;
+            }
+        };
+    }
+
+    /**
+     * CSV с заголовком в первой строке; колонки сопоставляются по имени, лишние игнорируются.
+     * Поля в кавычках могут содержать запятые и удвоенные кавычки, но не переводы строк.
+     */
+    static <T> BulkRowReader<T> csv(InputStream body, Function<CsvRecord, T> mapper) {
+        return new BulkRowReader<>(body) {
+            private Map<String, Integer> header;
+
+            @Override
+            T parse(String text) {
+                List<String> values = splitCsv(text);
+                if (header == null) {
+                    header = new HashMap<>();
+                    for (int i = 0; i < values.size(); i++) {
+                        header.put(values.get(i).trim(), i);
+                    }
+                    return null;
+                }
+                return mapper.apply(new CsvRecord(header, values));
+            }
+        };
+    }
+
+    // Следующая строка данных или null, когда тело закончилось
+    BulkRow<T> next() throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                T value = parse(text);
+                if (value != null) {
+                    return new BulkRow<>(line, value, null);
+                }
+            } catch (IllegalArgumentException e) {
+                return new BulkRow<>(line, null, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // null – служебная строка (заголовок), её номер не попадает в отчёт
+    abstract T parse(String text) throws IOException;
+
+    private static List<String> splitCsv(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("незакрытая кавычка");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    // value == null означает, что строку не удалось разобрать, и причина лежит в error
+    record BulkRow<T>(long line, T value, String error) {
+    }
+
+    // Строка CSV с доступом к полям по имени колонки; пустое поле читается как null
+    static final class CsvRecord {
+        private final Map<String, Integer> header;
+        private final List<String> values;
+
+        private CsvRecord(Map<String, Integer> header, List<String> values) {
+            this.header = header;
+            this.values = values;
+        }
+
+        String get(String column) {
+            Integer index = header.get(column);
+            if (index == null || index >= values.size() || values.get(index).isEmpty()) {
+                return null;
+            }
+            return values.get(index);
+        }
+
+        Long getLong(String column) {
+            String value = get(column);
+            try {
+                return value == null ? null : Long.valueOf(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + ": некорректное число '" + value + "'");
+            }
+        }
+
+        Integer getInt(String column) {
+            Long value = getLong(column);
+            if (value != null && (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)) {
+                throw new IllegalArgumentException(column + ": число вне диапазона '" + value + "'");
+            }
+            return value == null ? null : value.intValue();
+        }
+
+        LocalDate getDate(String column) {
+            String value = get(column);
+            try {
+                return value == null ? null : LocalDate.parse(value.trim());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(column + ": некорректная дата '" + value + "'");
+            }
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package ru.yandex.practicum.filmorate.service.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.event.FilmChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.FriendshipChangedEvent;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.journal.JournalCodec;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Полная выгрузка данных и её загрузка.
+ *
+ * <p>Хранилища обходятся страницами по курсору id, как при потоковой выдаче NDJSON: каталог
+ * целиком не копируется, а запись в хранилища во время выгрузки не останавливается. Поэтому
+ * выгрузка не мгновенный срез: изменения, сделанные по ходу, могут в неё попасть или нет.
+ *
+ * <p>Двоичный формат — {@code [int MAGIC][int VERSION]}, затем записи {@code [byte тип][данные]}
+ * в порядке: пользователи без друзей, фильмы с id лайкнувших, дружбы по одной на пару;
+ * в конце {@code [byte END][long crc32]} всего, что было до неё. Сущности кодируются
+ * {@link JournalCodec}, как в снимках журнала.
+ *
+ * <p>При загрузке id назначает хранилище, а ссылки лайков и дружб переводятся на новые id.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Timed("filmorate.service")
+public class DatasetDumpService {
+    private static final int MAGIC = 0x46444D50;
+    private static final int VERSION = 1;
+    private static final byte END = 0;
+    private static final byte USER = 1;
+    private static final byte FILM = 2;
+    private static final byte FRIENDSHIP = 3;
+
+    private static final int PAGE_SIZE = 4096;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] USER_PREFIX = "{\"user\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FILM_PREFIX = "{\"film\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LINE_END = "}\n".getBytes(StandardCharsets.UTF_8);
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ApplicationEventPublisher events;
+    private final ObjectMapper objectMapper;
+
+    // Двоичная выгрузка; gzip сжимает поток целиком
+    public void exportBinary(OutputStream target, boolean gzip) throws IOException {
+        OutputStream compressed = gzip ? new GZIPOutputStream(target, BUFFER_SIZE) : target;
+        // Буфер стоит перед подсчётом crc, чтобы он шёл большими кусками, а не по байту на поле
+        CheckedOutputStream checked = new CheckedOutputStream(compressed, new CRC32());
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, BUFFER_SIZE));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        forEachUserPage(page -> {
+            for (User user : page) {
+                out.writeByte(USER);
+                JournalCodec.writeUser(out, user, false);
+            }
+        });
+        forEachFilmPage(page -> {
+            for (Film film : page) {
+                out.writeByte(FILM);
+                JournalCodec.writeFilm(out, film);
+            }
+        });
+        // Каждая пара пишется один раз – со стороны меньшего id
+        forEachUserPage(page -> {
+            for (User user : page) {
+                long userId = user.getId();
+                for (long friendId : user.getFriends().toLongArray()) {
+                    if (userId < friendId) {
+                        out.writeByte(FRIENDSHIP);
+                        out.writeLong(userId);
+                        out.writeLong(friendId);
+                    }
+                }
+            }
+        });
+
+        out.writeByte(END);
+        out.flush();
+        out.writeLong(checked.getChecksum().getValue());
+        finish(out, compressed);
+    }
+
+    /**
+     * Выгрузка в NDJSON для аналитики: строки {@code {"user":{...}}} с друзьями,
+     * затем {@code {"film":{...}}} с лайками. Обратно такая выгрузка не загружается.
+     */
+    public void exportNdjson(OutputStream target, boolean gzip) throws IOException {
+        OutputStream compressed = gzip ? new GZIPOutputStream(target, BUFFER_SIZE) : target;
+        OutputStream out = new BufferedOutputStream(compressed, BUFFER_SIZE);
+        ObjectWriter writer = objectMapper.writer();
+
+        forEachUserPage(page -> {
+            for (User user : page) {
+                out.write(USER_PREFIX);
+                out.write(writer.writeValueAsBytes(user));
+                out.write(LINE_END);
+            }
+        });
+        forEachFilmPage(page -> {
+            for (Film film : page) {
+                out.write(FILM_PREFIX);
+                out.write(writer.writeValueAsBytes(film));
+                out.write(LINE_END);
+            }
+        });
+        finish(out, compressed);
+    }
+
+    /**
+     * Загружает двоичную выгрузку, сжатую gzip или нет, в текущие хранилища.
+     *
+     * <p>Сущности пишутся пачками через пакетные вставки. Контрольная сумма проверяется в конце,
+     * поэтому при повреждённом файле уже прочитанная часть остаётся в хранилищах.
+     */
+    public DumpLoadReport load(InputStream source) throws IOException {
+        long t0 = System.nanoTime();
+        CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(decompressed(source), BUFFER_SIZE), new CRC32());
+        DataInputStream in = new DataInputStream(checked);
+        if (in.readInt() != MAGIC) {
+            throw new ValidationException("Тело не является выгрузкой Filmorate");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new ValidationException("Неподдерживаемая версия выгрузки: " + version);
+        }
+
+        Loader loader = new Loader();
+        try {
+            loader.readRecords(in);
+        } catch (EOFException e) {
+            throw new ValidationException("Выгрузка оборвана до конца");
+        }
+        loader.flush();
+
+        long expected = checked.getChecksum().getValue();
+        if (in.readLong() != expected) {
+            throw new ValidationException("Контрольная сумма выгрузки не сходится");
+        }
+
+        DumpLoadReport report = loader.report(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+        log.info("load() – {}", report);
+        return report;
+    }
+
+    private void forEachUserPage(PageConsumer<User> consumer) throws IOException {
+        List<User> page = userStorage.getUsers(0, PAGE_SIZE);
+        while (!page.isEmpty()) {
+            consumer.accept(page);
+            page = userStorage.getUsers(page.get(page.size() - 1).getId(), PAGE_SIZE);
+        }
+    }
+
+    private void forEachFilmPage(PageConsumer<Film> consumer) throws IOException {
+        List<Film> page = filmStorage.getFilms(0, PAGE_SIZE);
+        while (!page.isEmpty()) {
+            consumer.accept(page);
+            page = filmStorage.getFilms(page.get(page.size() - 1).getId(), PAGE_SIZE);
+        }
+    }
+
+    // Дописывает буферы и хвост gzip, не закрывая поток ответа
+    private static void finish(OutputStream out, OutputStream compressed) throws IOException {
+        out.flush();
+        if (compressed instanceof GZIPOutputStream gzip) {
+            gzip.finish();
+            gzip.flush();
+        }
+    }
+
+    // gzip узнаём по сигнатуре 1f 8b, а не по заголовкам запроса
+    private static InputStream decompressed(InputStream source) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(source, BUFFER_SIZE);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new GZIPInputStream(buffered, BUFFER_SIZE);
+        }
+        return buffered;
+    }
+
+    @FunctionalInterface
+    private interface PageConsumer<T> {
+        void accept(List<T> page) throws IOException;
+    }
+
+    // Состояние одной загрузки: накопленные пачки, соответствие id и счётчики
+    private final class Loader {
+        private final IdMapping userIds = new IdMapping();
+        private final List<User> users = new ArrayList<>(PAGE_SIZE);
+        private final List<Film> films = new ArrayList<>(PAGE_SIZE);
+        private final List<EdgeChange> friendships = new ArrayList<>(PAGE_SIZE);
+        private long loadedUsers;
+        private long loadedFilms;
+        private long loadedLikes;
+        private long loadedFriendships;
+
+        // Разбирает записи до END; полные пачки сразу уходят в хранилища
+        private void readRecords(DataInputStream in) throws IOException {
+            byte type;
+            while ((type = in.readByte()) != END) {
+                switch (type) {
+                    case USER -> {
+                        users.add(JournalCodec.readUser(in, false));
+                        if (users.size() == PAGE_SIZE) {
+                            flushUsers();
+                        }
+                    }
+                    case FILM -> {
+                        // Фильмы ссылаются на пользователей, поэтому последняя пачка пользователей уже нужна
+                        flushUsers();
+                        films.add(remapLikes(JournalCodec.readFilm(in)));
+                        if (films.size() == PAGE_SIZE) {
+                            flushFilms();
+                        }
+                    }
+                    case FRIENDSHIP -> {
+                        flushUsers();
+                        long userId = userIds.get(in.readLong());
+                        long friendId = userIds.get(in.readLong());
+                        if (userId > 0 && friendId > 0) {
+                            friendships.add(new EdgeChange(userId, friendId, true));
+                        }
+                        if (friendships.size() == PAGE_SIZE) {
+                            flushFriendships();
+                        }
+                    }
+                    default -> throw new ValidationException("Неизвестный тип записи выгрузки: " + type);
+                }
+            }
+        }
+
+        private void flush() {
+            flushUsers();
+            flushFilms();
+            flushFriendships();
+        }
+
+        private DumpLoadReport report(long millis) {
+            return new DumpLoadReport(loadedUsers, loadedFilms, loadedLikes, loadedFriendships, millis);
+        }
+
+        private void flushUsers() {
+            if (users.isEmpty()) {
+                return;
+            }
+            List<User> created = userStorage.createUsers(users);
+            for (int i = 0; i < created.size(); i++) {
+                userIds.put(users.get(i).getId(), created.get(i).getId());
+            }
+            loadedUsers += created.size();
+            users.clear();
+        }
+
+        private void flushFilms() {
+            if (films.isEmpty()) {
+                return;
+            }
+            List<Film> created = filmStorage.createFilms(films);
+            // Лайки из выгрузки – история, а не сегодняшние лайки: как и при проигрывании журнала,
+            // LikeChangedEvent не публикуется, иначе статистика лайкнувших записала бы их все на сегодня
+            created.forEach(film -> events.publishEvent(new FilmChangedEvent(film.getId())));
+            loadedFilms += created.size();
+            films.clear();
+        }
+
+        private void flushFriendships() {
+            if (friendships.isEmpty()) {
+                return;
+            }
+            userStorage.applyFriendships(friendships);
+            friendships.forEach(change -> events.publishEvent(new FriendshipChangedEvent(change.from(), change.to())));
+            loadedFriendships += friendships.size();
+            friendships.clear();
+        }
+
+        // Лайки пользователей, которых нет в выгрузке, отбрасываются
+        private Film remapLikes(Film film) {
+            long[] likes = film.getLikedUser().toLongArray();
+            LongHashSet remapped = new LongHashSet(likes.length);
+            for (long userId : likes) {
+                long mapped = userIds.get(userId);
+                if (mapped > 0) {
+                    remapped.add(mapped);
+                }
+            }
+            film.setLikedUser(remapped);
+            loadedLikes += remapped.size();
+            return film;
+        }
+    }
+
+    /**
+     * Соответствие старых id пользователей новым.
+     *
+     * <p>Выгрузка идёт по возрастанию id, а пачки получают возрастающие новые id, поэтому
+     * соответствие хранится двумя отсортированными массивами примитивов и ищется двоичным поиском —
+     * 16 байт на пользователя вместо карты объектов.
+     */
+    private static final class IdMapping {
+        private long[] oldIds = new long[PAGE_SIZE];
+        private long[] newIds = new long[PAGE_SIZE];
+        private int size;
+
+        private void put(long oldId, long newId) {
+            if (size > 0 && oldId <= oldIds[size - 1]) {
+                throw new ValidationException("Пользователи в выгрузке не упорядочены по id");
+            }
+            if (size == oldIds.length) {
+                oldIds = Arrays.copyOf(oldIds, size * 2);
+                newIds = Arrays.copyOf(newIds, size * 2);
+            }
+            oldIds[size] = oldId;
+            newIds[size] = newId;
+            size++;
+        }
+
+        // 0, если такого пользователя в выгрузке не было
+        private long get(long oldId) {
+            int index = Arrays.binarySearch(oldIds, 0, size, oldId);
+            return index >= 0 ? newIds[index] : 0;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package ru.yandex.practicum.filmorate.service.bulk;
+
+// Итог загрузки выгрузки: сколько сущностей и рёбер записано и за сколько миллисекунд
+public record DumpLoadReport(long users, long films, long likes, long friendships, long millis) {
+}
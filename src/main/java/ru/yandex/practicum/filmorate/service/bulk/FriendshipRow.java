@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.service.bulk;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+// Строка импорта дружб: ребро симметрично, порядок userId и friendId не важен
+public record FriendshipRow(
+        @NotNull(message = "id пользователя обязателен")
+        @PositiveOrZero(message = "id пользователя не может быть отрицательным")
+        Long userId,
+
+        @NotNull(message = "id друга обязателен")
+        @PositiveOrZero(message = "id друга не может быть отрицательным")
+        Long friendId
+) {
+}
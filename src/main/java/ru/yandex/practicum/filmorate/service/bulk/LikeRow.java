@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.service.bulk;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+// Строка импорта лайков: пользователь userId лайкнул фильм filmId
+public record LikeRow(
+        @NotNull(message = "id фильма обязателен")
+        @PositiveOrZero(message = "id фильма не может быть отрицательным")
+        Long filmId,
+
+        @NotNull(message = "id пользователя обязателен")
+        @PositiveOrZero(message = "id пользователя не может быть отрицательным")
+        Long userId
+) {
+}
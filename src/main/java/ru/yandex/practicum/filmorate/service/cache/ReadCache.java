@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.service.cache;
+
+import org.springframework.context.event.EventListener;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.event.FilmChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.FriendshipChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.StorageEvent;
+import ru.yandex.practicum.filmorate.service.event.UserUpdatedEvent;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Кэш популярных фильмов, списков друзей, общих друзей и рекомендаций друзей.
+ *
+ * <p>Записи инвалидируются по {@link StorageEvent}:
+ * <ul>
+ *     <li>лайк или изменение фильма сбрасывает весь топ — любой лайк может поменять порядок;</li>
+ *     <li>дружба сбрасывает друзей и общих друзей обоих пользователей;</li>
+ *     <li>изменение пользователя сбрасывает списки, в которых он виден: его собственные
+ *     и списки всех его друзей.</li>
+ * </ul>
+ * Версии пользователей хранятся по полосам, поэтому изредка сбрасываются и соседние записи.
+ *
+ * <p>Рекомендации зависят и от дружб в двух шагах от пользователя, но сбрасываются только
+ * по его собственной версии: такие дальние изменения доходят до них не позже TTL.
+ */
+public class ReadCache {
+    private static final int USER_STRIPES = 1024;
+
+    private final VersionedCache<Integer, List<Film>> popularFilms;
+    private final VersionedCache<Long, List<User>> friends;
+    private final VersionedCache<MutualKey, List<User>> mutualFriends;
+    private final VersionedCache<RecommendationKey, List<User>> recommendations;
+
+    private final AtomicLong filmsVersion = new AtomicLong();
+    private final AtomicLongArray userVersions = new AtomicLongArray(USER_STRIPES);
+
+    public ReadCache(ReadCacheProperties properties) {
+        this.popularFilms = new VersionedCache<>(properties);
+        this.friends = new VersionedCache<>(properties);
+        this.mutualFriends = new VersionedCache<>(properties);
+        this.recommendations = new VersionedCache<>(properties);
+    }
+
+    public List<Film> popularFilms(int count, Supplier<List<Film>> loader) {
+        return popularFilms.get(count, filmsVersion.get(), () -> List.copyOf(loader.get()));
+    }
+
+    public List<User> friends(long userId, Supplier<List<User>> loader) {
+        return friends.get(userId, userVersion(userId), () -> List.copyOf(loader.get()));
+    }
+
+    // Общие друзья симметричны, поэтому (a, b) и (b, a) – одна запись
+    public List<User> mutualFriends(long userId, long otherId, Supplier<List<User>> loader) {
+        MutualKey key = new MutualKey(Math.min(userId, otherId), Math.max(userId, otherId));
+        // Версии только растут, так что сумма меняется, если изменилась любая из двух
+        long version = userVersion(userId) + userVersion(otherId);
+        return mutualFriends.get(key, version, () -> List.copyOf(loader.get()));
+    }
+
+    public List<User> recommendations(long userId, int limit, Supplier<List<User>> loader) {
+        return recommendations.get(new RecommendationKey(userId, limit), userVersion(userId),
+                () -> List.copyOf(loader.get()));
+    }
+
+    @EventListener
+    public void onStorageEvent(StorageEvent event) {
+        switch (event) {
+            case FilmChangedEvent ignored -> filmsVersion.incrementAndGet();
+            case LikeChangedEvent ignored -> filmsVersion.incrementAndGet();
+            case FriendshipChangedEvent changed -> {
+                bumpUser(changed.userId());
+                bumpUser(changed.friendId());
+            }
+            case UserUpdatedEvent updated -> {
+                bumpUser(updated.user().getId());
+                updated.user().getFriends().forEachLong(this::bumpUser);
+            }
+        }
+    }
+
+    public Stats popularFilmsStats() {
+        return popularFilms.stats();
+    }
+
+    public Stats friendsStats() {
+        return friends.stats();
+    }
+
+    public Stats mutualFriendsStats() {
+        return mutualFriends.stats();
+    }
+
+    public Stats recommendationsStats() {
+        return recommendations.stats();
+    }
+
+    private long userVersion(long userId) {
+        return userVersions.get(stripe(userId));
+    }
+
+    private void bumpUser(long userId) {
+        userVersions.incrementAndGet(stripe(userId));
+    }
+
+    private static int stripe(long userId) {
+        return Long.hashCode(userId) & (USER_STRIPES - 1);
+    }
+
+    /**
+     * Счётчики одного кэша.
+     *
+     * @param misses включая записи, найденные с устаревшей версией
+     * @param evictions вытеснения по размеру и по TTL
+     */
+    public record Stats(long hits, long misses, long evictions, long size) {
+    }
+
+    private record MutualKey(long first, long second) {
+    }
+
+    private record RecommendationKey(long userId, int limit) {
+    }
+}
@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.service.cache;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ReadCacheProperties.class)
+public class ReadCacheConfig {
+
+    @Bean
+    public ReadCache readCache(ReadCacheProperties properties) {
+        return new ReadCache(properties);
+    }
+}
@@ -0,0 +1,21 @@
+package ru.yandex.practicum.filmorate.service.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша чтения ({@code filmorate.cache.*}).
+ *
+ * @param enabled     кэшировать популярные фильмы и списки друзей
+ * @param maximumSize максимум записей в каждом из кэшей
+ * @param ttl         сколько живёт запись, даже если её не инвалидировали
+ */
+@ConfigurationProperties("filmorate.cache")
+public record ReadCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("1m") Duration ttl
+) {
+}
@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Кэш, записи которого помечены версией данных на момент начала загрузки.
+ *
+ * <p>Инвалидация – это увеличение версии, а не удаление: запись с устаревшей версией считается
+ * промахом. Поэтому загрузка, которая шла параллельно с изменением, не может оставить
+ * в кэше старое значение — оно помечено версией, прочитанной до изменения.
+ */
+final class VersionedCache<K, V> {
+    private final boolean enabled;
+    private final Cache<K, Versioned<V>> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    VersionedCache(ReadCacheProperties properties) {
+        this.enabled = properties.enabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+    }
+
+    // version нужно прочитать до вызова: загрузка видит данные не старше неё
+    V get(K key, long version, Supplier<V> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        Versioned<V> cached = cache.getIfPresent(key);
+        if (cached != null && cached.version() == version) {
+            hits.increment();
+            return cached.value();
+        }
+        misses.increment();
+        V value = loader.get();
+        cache.put(key, new Versioned<>(version, value));
+        return value;
+    }
+
+    ReadCache.Stats stats() {
+        return new ReadCache.Stats(hits.sum(), misses.sum(), cache.stats().evictionCount(), cache.estimatedSize());
+    }
+
+    private record Versioned<V>(long version, V value) {
+    }
+}
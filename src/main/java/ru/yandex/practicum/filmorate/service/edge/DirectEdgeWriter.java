@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.service.edge;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.yandex.practicum.filmorate.service.event.FriendshipChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+// Синхронная запись: изменение видно сразу после возврата из метода
+@RequiredArgsConstructor
+public class DirectEdgeWriter implements EdgeWriter {
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ApplicationEventPublisher events;
+
+    @Override
+    public void setLike(long filmId, long userId, boolean liked) {
+        if (liked) {
+            filmStorage.addLike(filmId, userId);
+        } else {
+            filmStorage.removeLike(filmId, userId);
+        }
+        events.publishEvent(new LikeChangedEvent(filmId, userId, liked));
+    }
+
+    @Override
+    public void setFriendship(long userId, long friendId, boolean friends) {
+        if (friends) {
+            userStorage.addFriend(userId, friendId);
+        } else {
+            userStorage.removeFriend(userId, friendId);
+        }
+        events.publishEvent(new FriendshipChangedEvent(userId, friendId));
+    }
+}
@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.service.edge;
+
+/**
+ * Точка записи рёбер графа: лайков фильмов и дружб.
+ *
+ * <p>Сервисы не пишут рёбра в хранилище напрямую, а передают сюда желаемое состояние ребра;
+ * реализация решает, применить его сразу или накопить и записать пачкой.
+ */
+public interface EdgeWriter {
+
+    void setLike(long filmId, long userId, boolean liked);
+
+    void setFriendship(long userId, long friendId, boolean friends);
+}
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.service.edge;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+@Configuration
+@EnableConfigurationProperties(WriteBehindProperties.class)
+public class EdgeWriterConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "filmorate.write-behind", name = "enabled", havingValue = "false",
+            matchIfMissing = true)
+    public EdgeWriter directEdgeWriter(FilmStorage filmStorage,
+                                       UserStorage userStorage,
+                                       ApplicationEventPublisher events) {
+        return new DirectEdgeWriter(filmStorage, userStorage, events);
+    }
+
+    // Пул потоков не нужен: пачки пишет один поток, закрывается вместе с контекстом
+    @Bean
+    @ConditionalOnProperty(prefix = "filmorate.write-behind", name = "enabled", havingValue = "true")
+    public WriteBehindEdgeWriter writeBehindEdgeWriter(FilmStorage filmStorage,
+                                                       UserStorage userStorage,
+                                                       WriteBehindProperties properties,
+                                                       ApplicationEventPublisher events) {
+        return new WriteBehindEdgeWriter(filmStorage, userStorage, properties, events);
+    }
+}
@@ -0,0 +1,258 @@
+package ru.yandex.practicum.filmorate.service.edge;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.yandex.practicum.filmorate.exception.WriteQueueFullException;
+import ru.yandex.practicum.filmorate.service.event.FriendshipChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.StorageEvent;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Отложенная запись рёбер с групповой фиксацией.
+ *
+ * <p>Изменения попадают в ограниченную очередь и возвращают управление сразу. Один поток-писатель
+ * собирает пачку до {@code flushSize} изменений или до истечения {@code maxLatency} с первого из них,
+ * схлопывает изменения одного ребра (последнее побеждает, так что лайк и снятие лайка в одной пачке
+ * дают одну запись) и отдаёт хранилищу одним пакетным вызовом.
+ *
+ * <p>Когда очередь заполнена, запрос ждёт до {@code offerTimeout}, а затем получает
+ * {@link WriteQueueFullException} — так перегрузка доходит до клиента, а не копится в памяти.
+ * Чтение может не видеть изменение до его сброса, не дольше {@code maxLatency} плюс время записи.
+ * События об изменениях публикуются только после записи в хранилище.
+ */
+@Slf4j
+public class WriteBehindEdgeWriter implements EdgeWriter, AutoCloseable {
+    // Как часто ожидающий писатель проверяет, не пора ли остановиться
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ApplicationEventPublisher events;
+    private final BlockingQueue<Mutation> queue;
+    private final int flushSize;
+    private final long maxLatencyNanos;
+    private final long offerTimeoutNanos;
+    private final Thread flusher;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong flushedBatches = new AtomicLong();
+    private final AtomicLong flushedChanges = new AtomicLong();
+    private final AtomicLong failedChanges = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile int maxBatchSize;
+    private volatile boolean running = true;
+
+    public WriteBehindEdgeWriter(FilmStorage filmStorage, UserStorage userStorage, WriteBehindProperties properties,
+                                 ApplicationEventPublisher events) {
+        if (properties.queueCapacity() <= 0 || properties.flushSize() <= 0) {
+            throw new IllegalArgumentException("queueCapacity и flushSize должны быть положительными");
+        }
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.events = events;
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+        this.flushSize = properties.flushSize();
+        this.maxLatencyNanos = properties.maxLatency().toNanos();
+        this.offerTimeoutNanos = properties.offerTimeout().toNanos();
+        this.flusher = new Thread(this::run, "edge-write-behind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public void setLike(long filmId, long userId, boolean liked) {
+        submit(new Mutation(Kind.LIKE, filmId, userId, liked));
+    }
+
+    @Override
+    public void setFriendship(long userId, long friendId, boolean friends) {
+        // Дружба симметрична: (a, b) и (b, a) – одно ребро, иначе они не схлопнутся
+        submit(new Mutation(Kind.FRIENDSHIP, Math.min(userId, friendId), Math.max(userId, friendId), friends));
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getFlushedBatches() {
+        return flushedBatches.get();
+    }
+
+    public long getFlushedChanges() {
+        return flushedChanges.get();
+    }
+
+    public long getFailedChanges() {
+        return failedChanges.get();
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    // Останавливает приём, дописывает всё, что уже в очереди, и дожидается писателя
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        flusher.join();
+        // Запрос мог проскочить проверку running и встать в очередь уже после последнего сброса
+        drain(new ArrayList<>(flushSize));
+    }
+
+    private void submit(Mutation mutation) {
+        if (!running) {
+            throw new IllegalStateException("Очередь записи рёбер остановлена");
+        }
+        boolean accepted;
+        try {
+            accepted = queue.offer(mutation, offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            rejected.incrementAndGet();
+            throw new WriteQueueFullException("Очередь записи переполнена, повторите запрос позже");
+        }
+        submitted.incrementAndGet();
+    }
+
+    private void run() {
+        List<Mutation> batch = new ArrayList<>(flushSize);
+        try {
+            while (running) {
+                collect(batch);
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Остановка: дописываем собранное и остаток очереди
+        drain(batch);
+    }
+
+    private void drain(List<Mutation> batch) {
+        do {
+            queue.drainTo(batch, flushSize - batch.size());
+            flush(batch);
+            batch.clear();
+        } while (!queue.isEmpty());
+    }
+
+    // Ждём первое изменение, затем добираем пачку, пока не истечёт maxLatency
+    private void collect(List<Mutation> batch) throws InterruptedException {
+        Mutation first = queue.poll(IDLE_POLL_NANOS, TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + maxLatencyNanos;
+        while (batch.size() < flushSize) {
+            queue.drainTo(batch, flushSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= flushSize || remaining <= 0 || !running) {
+                return;
+            }
+            Mutation next = queue.poll(Math.min(remaining, IDLE_POLL_NANOS), TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    private void flush(List<Mutation> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<Mutation.Key, Boolean> likes = new LinkedHashMap<>();
+        Map<Mutation.Key, Boolean> friendships = new LinkedHashMap<>();
+        for (Mutation mutation : batch) {
+            Map<Mutation.Key, Boolean> target = mutation.kind() == Kind.LIKE ? likes : friendships;
+            // Удаляем перед вставкой, чтобы ребро заняло место своего последнего изменения
+            target.remove(mutation.key());
+            target.put(mutation.key(), mutation.present());
+        }
+
+        apply(toChanges(likes), filmStorage::applyLikes,
+                change -> new LikeChangedEvent(change.from(), change.to(), change.present()));
+        apply(toChanges(friendships), userStorage::applyFriendships,
+                change -> new FriendshipChangedEvent(change.from(), change.to()));
+
+        int size = likes.size() + friendships.size();
+        lastBatchSize = size;
+        maxBatchSize = Math.max(maxBatchSize, size);
+        flushedBatches.incrementAndGet();
+        flushedChanges.addAndGet(size);
+        log.debug("flush() – {} mutations coalesced into {} edge changes", batch.size(), size);
+    }
+
+    // Если пачка целиком не записалась, пишем по одному, чтобы одно битое ребро не потеряло остальные
+    private void apply(List<EdgeChange> changes, Consumer<List<EdgeChange>> writer,
+                       Function<EdgeChange, StorageEvent> event) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            writer.accept(changes);
+            changes.forEach(change -> events.publishEvent(event.apply(change)));
+        } catch (RuntimeException batchError) {
+            log.warn("flush() – batch of {} failed, retrying one by one: {}", changes.size(), batchError.getMessage());
+            for (EdgeChange change : changes) {
+                try {
+                    writer.accept(List.of(change));
+                    events.publishEvent(event.apply(change));
+                } catch (RuntimeException e) {
+                    failedChanges.incrementAndGet();
+                    log.error("flush() – dropped {}: {}", change, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static List<EdgeChange> toChanges(Map<Mutation.Key, Boolean> edges) {
+        List<EdgeChange> changes = new ArrayList<>(edges.size());
+        edges.forEach((key, present) -> changes.add(new EdgeChange(key.from(), key.to(), present)));
+        return changes;
+    }
+
+    private enum Kind {
+        LIKE, FRIENDSHIP
+    }
+
+    private record Mutation(Kind kind, long from, long to, boolean present) {
+        Key key() {
+            return new Key(from, to);
+        }
+
+        private record Key(long from, long to) {
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.service.edge;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки отложенной записи рёбер ({@code filmorate.write-behind.*}).
+ *
+ * @param enabled       включить очередь; по умолчанию рёбра пишутся синхронно
+ * @param queueCapacity размер очереди, при заполнении запросы ждут
+ * @param flushSize     максимальное число изменений в одной пачке
+ * @param maxLatency    сколько ждать пополнения пачки после первого изменения
+ * @param offerTimeout  сколько запрос ждёт места в очереди, прежде чем получить отказ
+ */
+@ConfigurationProperties("filmorate.write-behind")
+public record WriteBehindProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("65536") int queueCapacity,
+        @DefaultValue("1000") int flushSize,
+        @DefaultValue("5ms") Duration maxLatency,
+        @DefaultValue("100ms") Duration offerTimeout
+) {
+}
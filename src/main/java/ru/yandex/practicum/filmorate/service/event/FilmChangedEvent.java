@@ -0,0 +1,5 @@
+package ru.yandex.practicum.filmorate.service.event;
+
+// Фильм создан или заменён целиком, вместе с лайками
+public record FilmChangedEvent(long filmId) implements StorageEvent {
+}
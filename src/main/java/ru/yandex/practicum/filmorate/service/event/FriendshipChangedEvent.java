@@ -0,0 +1,5 @@
+package ru.yandex.practicum.filmorate.service.event;
+
+// Дружба добавлена или удалена; затрагивает обоих пользователей
+public record FriendshipChangedEvent(long userId, long friendId) implements StorageEvent {
+}
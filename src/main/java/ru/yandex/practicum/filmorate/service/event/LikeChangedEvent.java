@@ -0,0 +1,5 @@
+package ru.yandex.practicum.filmorate.service.event;
+
+// Лайк поставлен (liked) или снят
+public record LikeChangedEvent(long filmId, long userId, boolean liked) implements StorageEvent {
+}
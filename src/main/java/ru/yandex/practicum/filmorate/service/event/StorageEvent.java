@@ -0,0 +1,11 @@
+package ru.yandex.practicum.filmorate.service.event;
+
+/**
+ * Изменение данных, уже видимое при чтении из хранилища.
+ *
+ * <p>Публикуется через {@link org.springframework.context.ApplicationEventPublisher} тем,
+ * кто применил изменение: сервисом или писателем рёбер после записи пачки.
+ */
+public sealed interface StorageEvent
+        permits FilmChangedEvent, LikeChangedEvent, FriendshipChangedEvent, UserUpdatedEvent {
+}
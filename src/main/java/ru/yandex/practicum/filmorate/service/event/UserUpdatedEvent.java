@@ -0,0 +1,7 @@
+package ru.yandex.practicum.filmorate.service.event;
+
+import ru.yandex.practicum.filmorate.model.User;
+
+// Поля пользователя изменились; user – сохранённая версия вместе с друзьями
+public record UserUpdatedEvent(User user) implements StorageEvent {
+}
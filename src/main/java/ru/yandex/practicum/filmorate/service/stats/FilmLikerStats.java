@@ -0,0 +1,11 @@
+package ru.yandex.practicum.filmorate.service.stats;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Оценка уникальных лайкнувших фильм за период и по дням, в которые лайки были
+public record FilmLikerStats(long filmId, LocalDate from, LocalDate to, long uniqueLikers, List<DailyLikers> days) {
+
+    public record DailyLikers(LocalDate date, long uniqueLikers) {
+    }
+}
@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.service.stats;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@EnableConfigurationProperties(LikeStatsProperties.class)
+public class LikeStatsConfig {
+
+    @Bean
+    public FilmLikeStats filmLikeStats() {
+        return new FilmLikeStats();
+    }
+
+    // Снимки пишутся, только если задан filmorate.like-stats.snapshot-file
+    @Bean
+    @ConditionalOnProperty(prefix = "filmorate.like-stats", name = "snapshot-file")
+    public LikeStatsSnapshots likeStatsSnapshots(FilmLikeStats stats, LikeStatsProperties properties)
+            throws IOException {
+        return new LikeStatsSnapshots(stats, Path.of(properties.snapshotFile()), properties.snapshotInterval());
+    }
+}
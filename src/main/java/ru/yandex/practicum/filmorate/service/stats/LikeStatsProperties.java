@@ -0,0 +1,19 @@
+package ru.yandex.practicum.filmorate.service.stats;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки статистики лайкнувших ({@code filmorate.like-stats.*}).
+ *
+ * @param snapshotFile     файл снимка скетчей; не задан – статистика живёт до перезапуска
+ * @param snapshotInterval период записи снимка; при остановке снимок пишется всегда
+ */
+@ConfigurationProperties("filmorate.like-stats")
+public record LikeStatsProperties(
+        String snapshotFile,
+        @DefaultValue("10m") Duration snapshotInterval
+) {
+}
@@ -0,0 +1,104 @@
+package ru.yandex.practicum.filmorate.service.stats;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Снимки {@link FilmLikeStats} в файл: загрузка при старте, запись раз в {@code interval} и при остановке.
+ *
+ * <p>Как и снимки хранилищ, файл пишется во временный, синхронизируется на диск и атомарно
+ * переименовывается, а в конце лежит CRC32 содержимого. Лайки после последнего снимка при сбое теряются:
+ * это приближённая статистика, журнал для неё не ведётся.
+ */
+@Slf4j
+public class LikeStatsSnapshots implements AutoCloseable {
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final FilmLikeStats stats;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+
+    public LikeStatsSnapshots(FilmLikeStats stats, Path file, Duration interval) throws IOException {
+        this.stats = stats;
+        this.file = file;
+        if (Files.exists(file)) {
+            load();
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-stats-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!interval.isZero()) {
+            long period = interval.toNanos();
+            scheduler.scheduleWithFixedDelay(this::saveQuietly, period, period, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void save() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = parent.resolve(file.getFileName() + ".tmp");
+        long t0 = System.nanoTime();
+
+        try (FileOutputStream output = new FileOutputStream(temp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(output, BUFFER_SIZE),
+                    new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            stats.writeTo(out);
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            output.getFD().sync();
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        log.debug("save() – {} in {} ms", file, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        save();
+    }
+
+    private void load() throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE), new CRC32());
+        try (DataInputStream in = new DataInputStream(checked)) {
+            stats.readFrom(in);
+            long expected = checked.getChecksum().getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Контрольная сумма снимка статистики не сходится: " + file);
+            }
+        }
+        log.info("load() – restored like stats from {}", file);
+    }
+
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (IOException | RuntimeException e) {
+            log.error("save() – failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.yandex.practicum.filmorate.storage;
+
+/**
+ * Итоговое состояние одного ребра графа (лайк фильма или дружба) для пакетной записи.
+ *
+ * @param from    фильм для лайка или первый пользователь для дружбы
+ * @param to      пользователь, поставивший лайк, или второй пользователь
+ * @param present должно ли ребро существовать после применения
+ */
+public record EdgeChange(long from, long to, boolean present) {
+}
@@ -0,0 +1,164 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Неизменяемые версии всего каталога хранилища для чтения без блокировок.
+ *
+ * <p>Каталог разбит на куски по {@code 2^CHUNK_BITS} соседних id. Версия – упорядоченный по id список
+ * замороженных копий, составленный из массивов-кусков. Следующая версия копирует заново только куски,
+ * в которых что-то менялось; остальные массивы и копии в них общие с прежней версией. Пока изменений нет,
+ * все запросы получают одну и ту же опубликованную версию – без копирования и без блокировок.
+ *
+ * <p>Хранилище вызывает {@link #changed} после изменения сущности, под блокировкой её полосы; запись
+ * на этом заканчивается и версию не ждёт. Версию собирает первый читатель после изменений, остальные
+ * ждут его на блокировке сборки и получают ту же версию, поэтому копии снимаются не чаще запросов
+ * каталога, сколько бы лайков ни пришло между ними. Сборка идёт в два прохода: сначала изменённые куски
+ * копируются без блокировок, затем под всеми полосами докопируются куски, изменённые за время первого
+ * прохода. Второй проход короткий, а версия – срез на его момент: все завершённые к нему записи в ней
+ * есть, а записи под блокировкой, начатые позже, – нет.
+ *
+ * <p>Копии в версии хранилище не меняет; менять их нельзя и читателям – версию делят все запросы.
+ */
+public class SnapshotCatalog<T> {
+    private static final int CHUNK_BITS = 6;
+
+    private final NavigableMap<Long, T> live;
+    private final StripedLock locks;
+    private final UnaryOperator<T> freeze;
+    private final Set<Long> dirtyChunks = ConcurrentHashMap.newKeySet();
+    // Куски последней версии по номеру; меняются только при сборке, под buildLock
+    private final TreeMap<Long, Object[]> chunks = new TreeMap<>();
+    private final ReentrantLock buildLock = new ReentrantLock();
+    private volatile Version<T> published = new Version<>(new Object[0][]);
+
+    public SnapshotCatalog(NavigableMap<Long, T> live, StripedLock locks, UnaryOperator<T> freeze) {
+        this.live = live;
+        this.locks = locks;
+        this.freeze = freeze;
+    }
+
+    public void changed(long id) {
+        dirtyChunks.add(id >> CHUNK_BITS);
+    }
+
+    public List<T> snapshot() {
+        // Сборка снимает метки до публикации, поэтому без идущей сборки пустые метки значат, что
+        // все завершённые записи уже в опубликованной версии; версия читается после обеих проверок
+        if (dirtyChunks.isEmpty() && !buildLock.isLocked()) {
+            return published;
+        }
+        Version<T> version;
+        buildLock.lock();
+        try {
+            // Пока ждали блокировку, версию мог собрать другой читатель
+            if (dirtyChunks.isEmpty()) {
+                return published;
+            }
+            copyDirtyChunks();
+            locks.lockAll();
+            try {
+                copyDirtyChunks();
+            } finally {
+                locks.unlockAll();
+            }
+            version = new Version<>(chunks.values().toArray(new Object[0][]));
+            published = version;
+            return version;
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    private void copyDirtyChunks() {
+        // Обходим снимок меток: иначе непрерывная запись продлевала бы первый проход бесконечно
+        for (Long chunk : dirtyChunks.toArray(new Long[0])) {
+            // Метка снимается до копирования: запись во время копии пометит кусок заново
+            dirtyChunks.remove(chunk);
+            Object[] copy;
+            try {
+                copy = live.subMap(chunk << CHUNK_BITS, true, (chunk + 1) << CHUNK_BITS, false)
+                        .values().stream()
+                        .map(freeze)
+                        .toArray();
+            } catch (RuntimeException e) {
+                // Кусок остаётся помеченным, и следующий читатель попробует собрать его снова
+                dirtyChunks.add(chunk);
+                throw e;
+            }
+            if (copy.length == 0) {
+                chunks.remove(chunk);
+            } else {
+                chunks.put(chunk, copy);
+            }
+        }
+    }
+
+    private static final class Version<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[][] chunks;
+        // offsets[i] – позиция первого элемента куска i, offsets[chunks.length] – размер
+        private final int[] offsets;
+
+        private Version(Object[][] chunks) {
+            this.chunks = chunks;
+            this.offsets = new int[chunks.length + 1];
+            for (int i = 0; i < chunks.length; i++) {
+                offsets[i + 1] = offsets[i] + chunks[i].length;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            Objects.checkIndex(index, size());
+            // Пустых кусков в версии нет, поэтому смещения строго возрастают
+            int chunk = Arrays.binarySearch(offsets, index);
+            chunk = chunk >= 0 ? chunk : -chunk - 2;
+            return (T) chunks[chunk][index - offsets[chunk]];
+        }
+
+        @Override
+        public int size() {
+            return offsets[chunks.length];
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<>() {
+                private int chunk;
+                private int position;
+
+                @Override
+                public boolean hasNext() {
+                    return chunk < chunks.length;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public T next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    T value = (T) chunks[chunk][position++];
+                    if (position == chunks[chunk].length) {
+                        chunk++;
+                        position = 0;
+                    }
+                    return value;
+                }
+            };
+        }
+    }
+}
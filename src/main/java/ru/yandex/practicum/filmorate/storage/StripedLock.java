@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Набор блокировок, разбитых на полосы по id сущности.
+ *
+ * <p>Операции над разными сущностями почти никогда не конкурируют за одну блокировку,
+ * поэтому хранилище масштабируется по ядрам без глобального lock.
+ */
+public class StripedLock {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public StripedLock(int concurrencyLevel) {
+        int size = concurrencyLevel <= 1 ? 1 : Integer.highestOneBit(concurrencyLevel - 1) << 1;
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    public ReentrantLock get(long id) {
+        return stripes[index(id)];
+    }
+
+    /**
+     * Захватывает полосы двух id. Полосы берутся по возрастанию индекса, поэтому встречные
+     * операции над одной парой (a, b) и (b, a) не блокируют друг друга навсегда.
+     */
+    public void lockPair(long first, long second) {
+        int a = index(first);
+        int b = index(second);
+        stripes[Math.min(a, b)].lock();
+        if (a != b) {
+            stripes[Math.max(a, b)].lock();
+        }
+    }
+
+    // Все полосы по возрастанию индекса – в том же порядке, что и lockPair, поэтому без взаимных блокировок
+    public void lockAll() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    public void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].unlock();
+        }
+    }
+
+    public void unlockPair(long first, long second) {
+        int a = index(first);
+        int b = index(second);
+        if (a != b) {
+            stripes[Math.max(a, b)].unlock();
+        }
+        stripes[Math.min(a, b)].unlock();
+    }
+
+    int index(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,453 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+import ru.yandex.practicum.filmorate.util.TextTokens;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+/**
+ * Хранилище фильмов в реляционной БД.
+ *
+ * <p>Лайки лежат в отдельной таблице рёбер {@code film_likes}, а число лайков денормализовано
+ * в {@code films.likes_count}, поэтому топ популярных — это чтение по индексу, а не GROUP BY.
+ * Лайки найденных фильмов подгружаются одним запросом на страницу, без N+1.
+ */
+@Component
+@Profile("db")
+@Slf4j
+@Timed("filmorate.storage")
+public class FilmDbStorage implements FilmStorage {
+    private static final String FILM_COLUMNS = "id, name, description, release_date, duration";
+    private static final int RECOMMENDATION_NEIGHBOURS = 50;
+    // Коллекция в IN разворачивается в отдельные параметры, поэтому длинный список режем на части
+    private static final int MAX_IN_LIST = 1000;
+    // Те же правила, что у TextTokens: нижний регистр и «ё» как «е»
+    private static final String FOLDED_NAME = "REPLACE(LOWER(name), 'ё', 'е')";
+    private static final String FOLDED_DESCRIPTION = "REPLACE(LOWER(COALESCE(description, '')), 'ё', 'е')";
+    private static final String INSERT_LIKE = """
+            INSERT INTO film_likes (film_id, user_id)
+            SELECT :filmId, :userId
+            WHERE NOT EXISTS (SELECT 1 FROM film_likes WHERE film_id = :filmId AND user_id = :userId)
+            """;
+    private static final String INSERT_FILM = """
+            INSERT INTO films (name, description, release_date, duration, likes_count)
+            VALUES (:name, :description, :release_date, :duration, :likes_count)
+            """;
+    private static final String DELETE_LIKE = "DELETE FROM film_likes WHERE film_id = :filmId AND user_id = :userId";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final SimpleJdbcInsert filmInsert;
+
+    public FilmDbStorage(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+        this.filmInsert = new SimpleJdbcInsert(jdbc.getJdbcTemplate())
+                .withTableName("films")
+                .usingColumns("name", "description", "release_date", "duration", "likes_count")
+                .usingGeneratedKeyColumns("id");
+    }
+
+    @Override
+    @Transactional
+    public Film createFilm(Film film) {
+        log.debug("createFilm() – request name={}, releaseDate={}", film.getName(), film.getReleaseDate());
+
+        long id = filmInsert.executeAndReturnKey(filmParams(film)).longValue();
+        film.setId(id);
+        insertLikes(List.of(film));
+
+        log.info("createFilm() – created id={}", id);
+        return film;
+    }
+
+    @Override
+    @Transactional
+    public List<Film> createFilms(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        // Одна пакетная вставка с возвратом ключей вместо запроса на каждый фильм
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbc.batchUpdate(INSERT_FILM,
+                films.stream().map(FilmDbStorage::filmParams).toArray(MapSqlParameterSource[]::new),
+                keys, new String[]{"id"});
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        for (int i = 0; i < films.size(); i++) {
+            films.get(i).setId(((Number) keyList.get(i).values().iterator().next()).longValue());
+        }
+        insertLikes(films);
+
+        log.info("createFilms() – created {} films", films.size());
+        return films;
+    }
+
+    @Override
+    @Transactional
+    public Film updateFilm(Film film) {
+        log.debug("updateFilm() – request id={}, name={}, releaseDate={}",
+                film.getId(), film.getName(), film.getReleaseDate());
+
+        int updated = jdbc.update("""
+                UPDATE films
+                SET name = :name, description = :description, release_date = :release_date,
+                    duration = :duration, likes_count = :likes_count
+                WHERE id = :id
+                """, filmParams(film).addValue("id", film.getId()));
+        if (updated == 0) {
+            throw new NotFoundException("Film not found");
+        }
+
+        // Набор лайков заменяется целиком, как и в памяти, но сохранившиеся лайки не переписываются:
+        // иначе их время стало бы текущим и фильм попал бы в тренды
+        LongHashSet kept = new LongHashSet(jdbc.queryForList(
+                "SELECT user_id FROM film_likes WHERE film_id = :id", Map.of("id", film.getId()), Long.class));
+        List<MapSqlParameterSource> removed = new ArrayList<>();
+        kept.forEachLong(userId -> {
+            if (!film.getLikedUser().contains(userId)) {
+                removed.add(likeParams(film.getId(), userId));
+            }
+        });
+        jdbc.batchUpdate(DELETE_LIKE, removed.toArray(MapSqlParameterSource[]::new));
+        insertLikes(List.of(film));
+        jdbc.update("UPDATE films SET likes_count = (SELECT COUNT(*) FROM film_likes WHERE film_id = :id) WHERE id = :id",
+                Map.of("id", film.getId()));
+        return film;
+    }
+
+    @Override
+    public Collection<Film> getAllFilms() {
+        List<Film> films = jdbc.query("SELECT " + FILM_COLUMNS + " FROM films ORDER BY id", this::mapFilm);
+        Map<Long, Film> byId = index(films);
+        jdbc.query("SELECT film_id, user_id FROM film_likes", rs -> {
+            Film film = byId.get(rs.getLong("film_id"));
+            if (film != null) {
+                film.getLikedUser().add(rs.getLong("user_id"));
+            }
+        });
+        return films;
+    }
+
+    @Override
+    public Optional<Film> getFilmById(Long id) {
+        List<Film> films = jdbc.query("SELECT " + FILM_COLUMNS + " FROM films WHERE id = :id",
+                Map.of("id", id), this::mapFilm);
+        return withLikes(films).stream().findFirst();
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(Collection<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, Film> byId = new HashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += MAX_IN_LIST) {
+            List<Long> part = distinct.subList(from, Math.min(distinct.size(), from + MAX_IN_LIST));
+            byId.putAll(index(withLikes(jdbc.query("SELECT " + FILM_COLUMNS + " FROM films WHERE id IN (:ids)",
+                    Map.of("ids", part), this::mapFilm))));
+        }
+
+        List<Film> result = new ArrayList<>(byId.size());
+        for (Long id : distinct) {
+            Film film = byId.get(id);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Film> getFilms(long afterId, int limit) {
+        return withLikes(jdbc.query(
+                "SELECT " + FILM_COLUMNS + " FROM films WHERE id > :afterId ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource("afterId", afterId).addValue("limit", limit),
+                this::mapFilm));
+    }
+
+    @Override
+    @Transactional
+    public void addLike(long filmId, long userId) {
+        int inserted;
+        try {
+            inserted = jdbc.update(INSERT_LIKE, likeParams(filmId, userId));
+        } catch (DuplicateKeyException e) {
+            // Параллельный запрос успел поставить тот же лайк
+            return;
+        } catch (DataIntegrityViolationException e) {
+            throw new NotFoundException("Film with id=" + filmId + " or user with id=" + userId + " not found");
+        }
+
+        if (inserted > 0) {
+            jdbc.update("UPDATE films SET likes_count = likes_count + 1 WHERE id = :filmId",
+                    likeParams(filmId, userId));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void removeLike(long filmId, long userId) {
+        int deleted = jdbc.update(DELETE_LIKE, likeParams(filmId, userId));
+
+        int updated = jdbc.update("UPDATE films SET likes_count = likes_count - :deleted WHERE id = :filmId",
+                likeParams(filmId, userId).addValue("deleted", deleted));
+        if (updated == 0) {
+            throw new NotFoundException("Film with id=" + filmId + " not found");
+        }
+    }
+
+    @Override
+    @Transactional
+    public void applyLikes(List<EdgeChange> changes) {
+        List<EdgeChange> added = new ArrayList<>();
+        List<EdgeChange> removed = new ArrayList<>();
+        for (EdgeChange change : changes) {
+            (change.present() ? added : removed).add(change);
+        }
+
+        // Вся пачка – две пакетные записи рёбер и одна пакетная правка счётчиков в одной транзакции
+        Map<Long, Integer> deltas = new HashMap<>();
+        try {
+            collectDeltas(deltas, added, jdbc.batchUpdate(INSERT_LIKE, edgeParams(added)), 1);
+            collectDeltas(deltas, removed, jdbc.batchUpdate(DELETE_LIKE, edgeParams(removed)), -1);
+        } catch (DataIntegrityViolationException e) {
+            throw new NotFoundException("Film or user of a like batch not found");
+        }
+
+        MapSqlParameterSource[] counters = deltas.entrySet().stream()
+                .filter(entry -> entry.getValue() != 0)
+                .map(entry -> new MapSqlParameterSource("filmId", entry.getKey()).addValue("delta", entry.getValue()))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbc.batchUpdate("UPDATE films SET likes_count = likes_count + :delta WHERE id = :filmId", counters);
+    }
+
+    @Override
+    public List<Film> getLikedFilms(long userId, long afterId, int limit) {
+        return withLikes(jdbc.query("""
+                SELECT f.id, f.name, f.description, f.release_date, f.duration
+                FROM film_likes l
+                JOIN films f ON f.id = l.film_id
+                WHERE l.user_id = :userId AND l.film_id > :afterId
+                ORDER BY l.film_id
+                LIMIT :limit
+                """,
+                new MapSqlParameterSource("userId", userId)
+                        .addValue("afterId", afterId)
+                        .addValue("limit", limit),
+                this::mapFilm));
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return withLikes(jdbc.query(
+                "SELECT " + FILM_COLUMNS + " FROM films ORDER BY likes_count DESC, id LIMIT :count",
+                Map.of("count", count),
+                this::mapFilm));
+    }
+
+    // Топ в БД и так читается по индексу films_popularity_idx без обхода лайков, поэтому он же и приближённый
+    @Override
+    public List<Film> getApproxPopularFilms(int count) {
+        return getPopularFilms(count);
+    }
+
+    // Считаются лайки с liked_at в окне, по индексу film_likes_time_idx
+    @Override
+    public List<Film> getTrendingFilms(TrendWindow window, int count) {
+        return withLikes(jdbc.query("""
+                SELECT f.id, f.name, f.description, f.release_date, f.duration, COUNT(*) AS recent
+                FROM film_likes l
+                JOIN films f ON f.id = l.film_id
+                WHERE l.liked_at >= DATEADD(SECOND, -:seconds, CURRENT_TIMESTAMP)
+                GROUP BY f.id, f.name, f.description, f.release_date, f.duration
+                ORDER BY recent DESC, f.id
+                LIMIT :count
+                """,
+                new MapSqlParameterSource("seconds", window.duration().toSeconds()).addValue("count", count),
+                this::mapFilm));
+    }
+
+    // Слова ищутся подстрокой; фильмы с совпадениями в названии выше, дальше – по лайкам
+    @Override
+    public List<Film> searchFilms(String query, int limit) {
+        List<String> tokens = TextTokens.tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        StringJoiner where = new StringJoiner(" AND ");
+        StringJoiner nameHits = new StringJoiner(" + ");
+        for (int i = 0; i < tokens.size(); i++) {
+            String param = ":t" + i;
+            params.addValue("t" + i, "%" + tokens.get(i) + "%");
+            where.add("(%s LIKE %s OR %s LIKE %s)".formatted(FOLDED_NAME, param, FOLDED_DESCRIPTION, param));
+            nameHits.add("CASE WHEN %s LIKE %s THEN 1 ELSE 0 END".formatted(FOLDED_NAME, param));
+        }
+        return withLikes(jdbc.query("""
+                SELECT %s
+                FROM films
+                WHERE %s
+                ORDER BY %s DESC, likes_count DESC, id
+                LIMIT :limit
+                """.formatted(FILM_COLUMNS, where, nameHits), params, this::mapFilm));
+    }
+
+    // Те же два шага, что и в памяти: соседи по общим лайкам, затем их фильмы с весом по числу общих лайков
+    @Override
+    public List<Film> getFilmRecommendations(long userId, int limit) {
+        return withLikes(jdbc.query("""
+                WITH neighbours AS (
+                    SELECT other.user_id, COUNT(*) AS overlap
+                    FROM film_likes mine
+                    JOIN film_likes other ON other.film_id = mine.film_id AND other.user_id <> :userId
+                    WHERE mine.user_id = :userId
+                    GROUP BY other.user_id
+                    ORDER BY overlap DESC, other.user_id
+                    LIMIT :neighbours
+                )
+                SELECT f.id, f.name, f.description, f.release_date, f.duration, SUM(n.overlap) AS score
+                FROM neighbours n
+                JOIN film_likes l ON l.user_id = n.user_id
+                JOIN films f ON f.id = l.film_id
+                WHERE NOT EXISTS (SELECT 1 FROM film_likes m WHERE m.user_id = :userId AND m.film_id = l.film_id)
+                GROUP BY f.id, f.name, f.description, f.release_date, f.duration
+                ORDER BY score DESC, f.id
+                LIMIT :limit
+                """,
+                new MapSqlParameterSource("userId", userId)
+                        .addValue("neighbours", RECOMMENDATION_NEIGHBOURS)
+                        .addValue("limit", limit),
+                this::mapFilm));
+    }
+
+    @Override
+    public long countFilms() {
+        return jdbc.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM films", Long.class);
+    }
+
+    @Override
+    public long countLikes() {
+        return jdbc.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM film_likes", Long.class);
+    }
+
+    @Override
+    public int maxLikes() {
+        return jdbc.getJdbcTemplate().queryForObject("SELECT COALESCE(MAX(likes_count), 0) FROM films", Integer.class);
+    }
+
+    // Все лайки фильмов пишем одной пачкой вставок; likes_count у фильмов без лайков уже 0
+    private void insertLikes(List<Film> films) {
+        List<MapSqlParameterSource> batch = new ArrayList<>();
+        List<Long> filmIds = new ArrayList<>();
+        for (Film film : films) {
+            for (long userId : film.getLikedUser().toLongArray()) {
+                batch.add(likeParams(film.getId(), userId));
+                filmIds.add(film.getId());
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        // Лайки несуществующих пользователей отбрасываем, а не валим всю запись
+        int[] counts = jdbc.batchUpdate("""
+                INSERT INTO film_likes (film_id, user_id)
+                SELECT :filmId, id FROM users
+                WHERE id = :userId
+                  AND NOT EXISTS (SELECT 1 FROM film_likes WHERE film_id = :filmId AND user_id = :userId)
+                """, batch.toArray(MapSqlParameterSource[]::new));
+
+        Map<Long, Integer> inserted = new HashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                inserted.merge(filmIds.get(i), counts[i], Integer::sum);
+            }
+        }
+        jdbc.batchUpdate("UPDATE films SET likes_count = :likes WHERE id = :id",
+                inserted.entrySet().stream()
+                        .map(entry -> new MapSqlParameterSource("likes", entry.getValue()).addValue("id", entry.getKey()))
+                        .toArray(MapSqlParameterSource[]::new));
+    }
+
+    private static void collectDeltas(Map<Long, Integer> deltas, List<EdgeChange> changes, int[] counts, int sign) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                deltas.merge(changes.get(i).from(), sign, Integer::sum);
+            }
+        }
+    }
+
+    private static MapSqlParameterSource[] edgeParams(List<EdgeChange> changes) {
+        return changes.stream()
+                .map(change -> likeParams(change.from(), change.to()))
+                .toArray(MapSqlParameterSource[]::new);
+    }
+
+    private List<Film> withLikes(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        Map<Long, Film> byId = index(films);
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+            jdbc.query("SELECT film_id, user_id FROM film_likes WHERE film_id IN (:ids)",
+                    Map.of("ids", ids.subList(from, Math.min(ids.size(), from + MAX_IN_LIST))),
+                    rs -> {
+                        byId.get(rs.getLong("film_id")).getLikedUser().add(rs.getLong("user_id"));
+                    }
+            );
+        }
+        return films;
+    }
+
+    private static Map<Long, Film> index(List<Film> films) {
+        Map<Long, Film> byId = new HashMap<>(films.size() * 2);
+        for (Film film : films) {
+            byId.put(film.getId(), film);
+        }
+        return byId;
+    }
+
+    private Film mapFilm(ResultSet rs, int rowNum) throws SQLException {
+        Film film = new Film();
+        film.setId(rs.getLong("id"));
+        film.setName(rs.getString("name"));
+        film.setDescription(rs.getString("description"));
+        Date releaseDate = rs.getDate("release_date");
+        film.setReleaseDate(releaseDate == null ? null : releaseDate.toLocalDate());
+        film.setDuration(rs.getObject("duration", Integer.class));
+        return film;
+    }
+
+    private static MapSqlParameterSource filmParams(Film film) {
+        return new MapSqlParameterSource()
+                .addValue("name", film.getName())
+                .addValue("description", film.getDescription())
+                .addValue("release_date", film.getReleaseDate())
+                .addValue("duration", film.getDuration())
+                .addValue("likes_count", 0);
+    }
+
+    private static MapSqlParameterSource likeParams(long filmId, long userId) {
+        return new MapSqlParameterSource("filmId", filmId).addValue("userId", userId);
+    }
+}
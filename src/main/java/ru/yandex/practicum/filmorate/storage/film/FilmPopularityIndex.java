@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Индекс популярности фильмов.
+ *
+ * <p>Фильмы упорядочены по числу лайков (по убыванию), при равенстве — по id (по возрастанию),
+ * что совпадает с порядком прежней полной сортировки каталога. Индекс обновляется при каждом
+ * лайке, поэтому выборка top-N стоит O(N) вместо сортировки всех фильмов.
+ *
+ * <p>Изменения одного фильма должны быть упорядочены вызывающим кодом (блокировкой фильма);
+ * чтение идёт без блокировок.
+ */
+class FilmPopularityIndex {
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingInt(Entry::likes).reversed()
+            .thenComparingLong(Entry::filmId);
+
+    private final NavigableSet<Entry> entries = new ConcurrentSkipListSet<>(ORDER);
+
+    void add(long filmId, int likes) {
+        entries.add(new Entry(filmId, likes));
+    }
+
+    void update(long filmId, int oldLikes, int newLikes) {
+        if (oldLikes == newLikes) {
+            return;
+        }
+        // Сначала добавляем новую позицию, потом убираем старую: читатель может на мгновение
+        // увидеть фильм дважды (отсекается в top), но никогда не потеряет его
+        entries.add(new Entry(filmId, newLikes));
+        entries.remove(new Entry(filmId, oldLikes));
+    }
+
+    void remove(long filmId, int likes) {
+        entries.remove(new Entry(filmId, likes));
+    }
+
+    List<Long> top(int count) {
+        List<Long> result = new ArrayList<>(Math.min(count, 1024));
+        Set<Long> seen = new HashSet<>();
+        Iterator<Entry> iterator = entries.iterator();
+
+        while (result.size() < count && iterator.hasNext()) {
+            long filmId = iterator.next().filmId();
+            if (seen.add(filmId)) {
+                result.add(filmId);
+            }
+        }
+        return result;
+    }
+
+    // Обходит фильмы от популярных к непопулярным, пока visitor возвращает true; фильм может встретиться дважды
+    void forEach(Visitor visitor) {
+        for (Entry entry : entries) {
+            if (!visitor.visit(entry.filmId(), entry.likes())) {
+                return;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface Visitor {
+        boolean visit(long filmId, int likes);
+    }
+
+    private record Entry(long filmId, int likes) {
+    }
+}
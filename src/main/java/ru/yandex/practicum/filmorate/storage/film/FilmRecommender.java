@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.util.LongCounter;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
+import java.time.Duration;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.LongFunction;
+
+/**
+ * Рекомендации фильмов коллаборативной фильтрацией по графу лайков.
+ *
+ * <p>Два шага:
+ * <ol>
+ *     <li>соседи – до {@code NEIGHBOURS} пользователей с наибольшим числом общих лайков;</li>
+ *     <li>каждый фильм соседа, который пользователь ещё не лайкал, получает вес, равный числу
+ *     общих лайков с этим соседом; в ответ идут фильмы с наибольшей суммой.</li>
+ * </ol>
+ * Оба шага раскладываются на задачи fork-join пула. Задачи перестают брать новую работу, когда
+ * истёк бюджет времени (первому шагу отведена половина), и ответ строится по уже посчитанному –
+ * у пользователя, лайкнувшего самые популярные фильмы, он приближённый, зато время ответа ограничено.
+ */
+@Slf4j
+class FilmRecommender {
+    private static final int NEIGHBOURS = 50;
+    // Меньше стольких ключей задача считает сама, не деля работу дальше
+    private static final int LEAF_SIZE = 16;
+
+    private final LongFunction<Film> films;
+    private final UserLikesIndex likes;
+    private final long budgetNanos;
+
+    FilmRecommender(LongFunction<Film> films, UserLikesIndex likes, Duration budget) {
+        this.films = films;
+        this.likes = likes;
+        this.budgetNanos = budget.toNanos();
+    }
+
+    // id рекомендованных фильмов по убыванию веса, при равенстве – по id
+    long[] recommend(long userId, int limit) {
+        LongHashSet liked = likes.films(userId);
+        if (liked == null || liked.isEmpty()) {
+            return new long[0];
+        }
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+
+        long[] likedIds = liked.toLongArray();
+        LongCounter overlaps = new ScoreTask(likedIds, 0, likedIds.length, start + budgetNanos / 2, (filmId, scores) -> {
+            Film film = films.apply(filmId);
+            if (film != null) {
+                for (long otherId : film.getLikedUser().toLongArray()) {
+                    if (otherId != userId) {
+                        scores.increment(otherId);
+                    }
+                }
+            }
+        }).invoke();
+
+        long[] neighbours = overlaps.topKeys(NEIGHBOURS);
+        LongCounter weights = new ScoreTask(neighbours, 0, neighbours.length, deadline, (neighbourId, scores) -> {
+            int weight = overlaps.get(neighbourId);
+            for (long filmId : likes.filmIds(neighbourId)) {
+                if (!liked.contains(filmId)) {
+                    scores.add(filmId, weight);
+                }
+            }
+        }).invoke();
+
+        if (System.nanoTime() > deadline) {
+            log.debug("recommend() – time budget exhausted for userId={}", userId);
+        }
+        return weights.topKeys(limit);
+    }
+
+    @FunctionalInterface
+    private interface KeyScorer {
+        void score(long key, LongCounter scores);
+    }
+
+    // Делит массив ключей пополам, пока кусок не станет меньше LEAF_SIZE, и сливает счётчики половин
+    private static final class ScoreTask extends RecursiveTask<LongCounter> {
+        private final long[] keys;
+        private final int from;
+        private final int to;
+        private final long deadline;
+        private final KeyScorer scorer;
+
+        private ScoreTask(long[] keys, int from, int to, long deadline, KeyScorer scorer) {
+            this.keys = keys;
+            this.from = from;
+            this.to = to;
+            this.deadline = deadline;
+            this.scorer = scorer;
+        }
+
+        @Override
+        protected LongCounter compute() {
+            if (to - from <= LEAF_SIZE) {
+                LongCounter scores = new LongCounter();
+                for (int i = from; i < to && System.nanoTime() <= deadline; i++) {
+                    scorer.score(keys[i], scores);
+                }
+                return scores;
+            }
+            int middle = (from + to) >>> 1;
+            ScoreTask left = new ScoreTask(keys, from, middle, deadline, scorer);
+            left.fork();
+            LongCounter right = new ScoreTask(keys, middle, to, deadline, scorer).compute();
+            LongCounter merged = left.join();
+            // Сливаем меньший счётчик в больший
+            if (merged.size() < right.size()) {
+                right.addAll(merged);
+                return right;
+            }
+            merged.addAll(right);
+            return merged;
+        }
+    }
+}
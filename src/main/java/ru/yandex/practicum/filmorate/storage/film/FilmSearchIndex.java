@@ -0,0 +1,198 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.util.LongCounter;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+import ru.yandex.practicum.filmorate.util.TextTokens;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Полнотекстовый индекс по названию и описанию фильмов.
+ *
+ * <p>Словарь – упорядоченная карта слово → id фильмов, поэтому все слова с заданным префиксом
+ * лежат одним отрезком карты: последнее слово запроса ищется и как префикс (автодополнение),
+ * остальные – только целиком. Название и описание индексируются отдельно, совпадение в названии
+ * и целым словом весит больше.
+ *
+ * <p>Изменения одного фильма упорядочивает вызывающий код (блокировкой фильма). Опустевшие
+ * наборы из словаря не удаляются, чтобы не потерять параллельную вставку другого фильма.
+ */
+class FilmSearchIndex {
+    private static final int NAME_EXACT = 4;
+    private static final int NAME_PREFIX = 2;
+    private static final int DESCRIPTION_EXACT = 2;
+    private static final int DESCRIPTION_PREFIX = 1;
+    // Сколько слов словаря раскрывает префикс последнего слова запроса
+    private static final int MAX_PREFIX_TERMS = 64;
+
+    private final ConcurrentNavigableMap<String, LongHashSet> nameTerms = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<String, LongHashSet> descriptionTerms = new ConcurrentSkipListMap<>();
+
+    void add(Film film) {
+        for (String term : terms(film.getName())) {
+            nameTerms.computeIfAbsent(term, t -> new LongHashSet()).add(film.getId());
+        }
+        for (String term : terms(film.getDescription())) {
+            descriptionTerms.computeIfAbsent(term, t -> new LongHashSet()).add(film.getId());
+        }
+    }
+
+    void remove(Film film) {
+        for (String term : terms(film.getName())) {
+            removePosting(nameTerms, term, film.getId());
+        }
+        for (String term : terms(film.getDescription())) {
+            removePosting(descriptionTerms, term, film.getId());
+        }
+    }
+
+    // Разбирает запрос: для каждого слова – списки фильмов, где оно встречается, и их веса
+    Query query(String text) {
+        List<String> tokens = TextTokens.tokenize(text);
+        List<List<Posting>> perToken = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            perToken.add(postings(tokens.get(i), i == tokens.size() - 1));
+        }
+        perToken.sort(Comparator.comparingLong(FilmSearchIndex::size));
+        return new Query(perToken);
+    }
+
+    /**
+     * Итоговый ранг: вес совпадения, умноженный на {@code 1 + ln(1 + лайки)}. Точное совпадение
+     * в названии остаётся выше описания, пока лайков не на порядки больше.
+     */
+    static int rank(int match, int likes) {
+        return (int) Math.round(100 * match * (1 + Math.log1p(likes)));
+    }
+
+    private List<Posting> postings(String token, boolean prefix) {
+        List<Posting> postings = new ArrayList<>();
+        addPostings(postings, nameTerms, token, prefix, true, NAME_EXACT, NAME_PREFIX);
+        addPostings(postings, descriptionTerms, token, prefix, false, DESCRIPTION_EXACT, DESCRIPTION_PREFIX);
+        return postings;
+    }
+
+    private static void addPostings(List<Posting> postings, ConcurrentNavigableMap<String, LongHashSet> terms,
+                                    String token, boolean prefix, boolean name, int exactWeight, int prefixWeight) {
+        LongHashSet exact = terms.get(token);
+        if (exact != null) {
+            postings.add(new Posting(exact, name, exactWeight));
+        }
+        if (!prefix) {
+            return;
+        }
+        int expanded = 0;
+        for (Map.Entry<String, LongHashSet> entry : terms.subMap(token, false, token + Character.MAX_VALUE, false)
+                .entrySet()) {
+            // Опустевшие слова остаются в словаре; лимит расходуется только на живые
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            if (++expanded > MAX_PREFIX_TERMS) {
+                break;
+            }
+            postings.add(new Posting(entry.getValue(), name, prefixWeight));
+        }
+    }
+
+    // Вес слова в фильме: лучшее совпадение в названии плюс лучшее в описании
+    private static int weight(List<Posting> postings, long id) {
+        int name = 0;
+        int description = 0;
+        for (Posting posting : postings) {
+            if (posting.ids().contains(id)) {
+                if (posting.name()) {
+                    name = Math.max(name, posting.weight());
+                } else {
+                    description = Math.max(description, posting.weight());
+                }
+            }
+        }
+        return name + description;
+    }
+
+    private static long size(List<Posting> postings) {
+        long size = 0;
+        for (Posting posting : postings) {
+            size += posting.ids().size();
+        }
+        return size;
+    }
+
+    private static void removePosting(ConcurrentNavigableMap<String, LongHashSet> terms, String term, long id) {
+        LongHashSet ids = terms.get(term);
+        if (ids != null) {
+            ids.remove(id);
+        }
+    }
+
+    // Повтор слова в одном тексте не меняет вес
+    private static Iterable<String> terms(String text) {
+        return new HashSet<>(TextTokens.tokenize(text));
+    }
+
+    private record Posting(LongHashSet ids, boolean name, int weight) {
+    }
+
+    /**
+     * Разобранный запрос. Слова упорядочены по длине списков: кандидаты берутся из самого
+     * короткого, остальные слова только проверяются через {@code contains}.
+     */
+    static final class Query {
+        private final List<List<Posting>> perToken;
+
+        private Query(List<List<Posting>> perToken) {
+            this.perToken = perToken;
+        }
+
+        // Больше этого веса совпадения не бывает: каждое слово точно и в названии, и в описании
+        int maxMatch() {
+            return perToken.size() * (NAME_EXACT + DESCRIPTION_EXACT);
+        }
+
+        // Сколько фильмов придётся проверить в matchAll
+        long candidates() {
+            return perToken.isEmpty() ? 0 : size(perToken.get(0));
+        }
+
+        // Все фильмы, где встречаются все слова, с суммарным весом совпадений
+        LongCounter matchAll() {
+            LongCounter matches = new LongCounter();
+            if (perToken.isEmpty()) {
+                return matches;
+            }
+            LongCounter seen = new LongCounter();
+            for (Posting posting : perToken.get(0)) {
+                posting.ids().forEachLong(id -> {
+                    if (seen.increment(id) == 1) {
+                        int match = match(id);
+                        if (match > 0) {
+                            matches.add(id, match);
+                        }
+                    }
+                });
+            }
+            return matches;
+        }
+
+        // Вес совпадения одного фильма, 0 – если какого-то слова в нём нет
+        int match(long id) {
+            int total = 0;
+            for (List<Posting> token : perToken) {
+                int weight = weight(token, id);
+                if (weight == 0) {
+                    return 0;
+                }
+                total += weight;
+            }
+            return total;
+        }
+    }
+}
@@ -1,17 +1,60 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface FilmStorage {
 
     Film createFilm(Film film);
 
+    // Пакетная вставка: id назначаются всей пачке сразу, фильмы возвращаются в исходном порядке
+    List<Film> createFilms(List<Film> films);
+
     Film updateFilm(Film film);
 
     Collection<Film> getAllFilms();
 
     Optional<Film> getFilmById(Long id);
+
+    // Пакетное чтение: найденные фильмы в порядке запроса, повторы – один раз, неизвестные id пропускаются
+    List<Film> getFilmsByIds(Collection<Long> ids);
+
+    // Страница фильмов по возрастанию id, начиная сразу после afterId
+    List<Film> getFilms(long afterId, int limit);
+
+    void addLike(long filmId, long userId);
+
+    void removeLike(long filmId, long userId);
+
+    // Пакетное применение лайков: from – id фильма, to – id пользователя
+    void applyLikes(List<EdgeChange> changes);
+
+    // Страница фильмов, которые лайкнул пользователь, по возрастанию id, начиная сразу после afterId
+    List<Film> getLikedFilms(long userId, long afterId, int limit);
+
+    List<Film> getPopularFilms(int count);
+
+    // Приближённый топ популярных с ограниченной памятью; порядок может немного расходиться с точным
+    List<Film> getApproxPopularFilms(int count);
+
+    // Фильмы с наибольшим числом лайков за последнее окно; фильмы без лайков в окне не попадают
+    List<Film> getTrendingFilms(TrendWindow window, int count);
+
+    // Фильмы, в названии или описании которых есть все слова запроса; последнее слово – и как префикс
+    List<Film> searchFilms(String query, int limit);
+
+    // Фильмы, которые лайкали пользователи с похожими лайками и ещё не лайкал сам пользователь
+    List<Film> getFilmRecommendations(long userId, int limit);
+
+    // Размеры каталога для метрик; вызываются при каждом опросе, а не на горячем пути
+    long countFilms();
+
+    long countLikes();
+
+    // Размер самого большого набора лайков
+    int maxLikes();
 }
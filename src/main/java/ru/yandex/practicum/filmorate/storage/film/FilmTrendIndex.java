@@ -0,0 +1,192 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.util.LongCounter;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Лайки фильмов за скользящие окна {@link TrendWindow}.
+ *
+ * <p>Каждое окно – кольцо из {@code BUCKETS} корзин шириной в 1/{@code BUCKETS} окна (минута для часа),
+ * в каждой корзине – лайки фильмов за её отрезок. Сумма по кольцу лежит в отдельном счётчике и в
+ * упорядоченном {@link FilmPopularityIndex}, поэтому лайк стоит одну запись в корзину и одну
+ * перестановку в индексе, а top-N читается без сортировки. Когда время переходит в следующую корзину,
+ * самая старая вычитается из суммы целиком: окно сдвигается с точностью до ширины корзины.
+ *
+ * <p>Лайки не хранят времени, поэтому снятый лайк списывается с самой свежей корзины, где у фильма
+ * есть лайки; если в окне их нет, лайк старше окна и тренд не меняется.
+ *
+ * <p>Окна независимы, а каждое окно разбито на {@code STRIPES} полос по id фильма со своими корзинами
+ * и {@link ReentrantLock}, поэтому лайки разных фильмов почти не конкурируют. Вызывающий код держит
+ * блокировку фильма, так что порядок блокировок всегда «фильм → полоса окна».
+ *
+ * <p>Лайки, восстановленные из журнала, сюда не попадают: их время неизвестно, и старые лайки
+ * выглядели бы свежими.
+ */
+class FilmTrendIndex {
+    private static final int BUCKETS = 60;
+    private static final int STRIPES = 16;
+
+    private final Clock clock;
+    private final Map<TrendWindow, SlidingWindow> windows = new EnumMap<>(TrendWindow.class);
+
+    FilmTrendIndex(Clock clock) {
+        this.clock = clock;
+        for (TrendWindow window : TrendWindow.values()) {
+            windows.put(window, new SlidingWindow(window.duration().toMillis() / BUCKETS));
+        }
+    }
+
+    void like(long filmId) {
+        long now = clock.millis();
+        for (SlidingWindow window : windows.values()) {
+            window.like(filmId, now);
+        }
+    }
+
+    void unlike(long filmId) {
+        long now = clock.millis();
+        for (SlidingWindow window : windows.values()) {
+            window.unlike(filmId, now);
+        }
+    }
+
+    // Фильмы с лайками в окне, от самых лайкаемых; при равенстве – меньший id первым
+    List<Long> top(TrendWindow window, int count) {
+        SlidingWindow sliding = windows.get(window);
+        sliding.advance(clock.millis());
+        return sliding.ranking.top(count);
+    }
+
+    // Окно разбито на полосы по id фильма: у каждой полосы свои корзины, суммы и блокировка, общий
+    // только индекс, а изменения одного фильма упорядочены блокировкой его полосы
+    private static final class SlidingWindow {
+        private final Stripe[] stripes = new Stripe[STRIPES];
+        private final FilmPopularityIndex ranking = new FilmPopularityIndex();
+
+        private SlidingWindow(long bucketMillis) {
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new Stripe(bucketMillis, ranking);
+            }
+        }
+
+        void like(long filmId, long now) {
+            stripe(filmId).like(filmId, now);
+        }
+
+        void unlike(long filmId, long now) {
+            stripe(filmId).unlike(filmId, now);
+        }
+
+        // Полосы сдвигаются по очереди, одновременно держится не больше одной блокировки
+        void advance(long now) {
+            for (Stripe stripe : stripes) {
+                stripe.advance(now);
+            }
+        }
+
+        private Stripe stripe(long filmId) {
+            return stripes[(int) Math.floorMod(filmId, (long) STRIPES)];
+        }
+    }
+
+    private static final class Stripe {
+        private final long bucketMillis;
+        private final FilmPopularityIndex ranking;
+        // Корзина создаётся при первом лайке в её отрезке, выброшенная из окна обнуляется
+        private final LongCounter[] buckets = new LongCounter[BUCKETS];
+        private final LongCounter totals = new LongCounter();
+        private final ReentrantLock lock = new ReentrantLock();
+        // Номер текущей корзины от начала эпохи
+        private long head;
+
+        private Stripe(long bucketMillis, FilmPopularityIndex ranking) {
+            this.bucketMillis = bucketMillis;
+            this.ranking = ranking;
+        }
+
+        void like(long filmId, long now) {
+            lock.lock();
+            try {
+                shift(now);
+                int slot = slot(head);
+                if (buckets[slot] == null) {
+                    buckets[slot] = new LongCounter();
+                }
+                buckets[slot].increment(filmId);
+                change(filmId, 1);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void unlike(long filmId, long now) {
+            lock.lock();
+            try {
+                shift(now);
+                for (int age = 0; age < BUCKETS; age++) {
+                    LongCounter bucket = buckets[slot(head - age)];
+                    if (bucket != null && bucket.get(filmId) > 0) {
+                        if (bucket.add(filmId, -1) == 0) {
+                            bucket.remove(filmId);
+                        }
+                        change(filmId, -1);
+                        return;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void advance(long now) {
+            lock.lock();
+            try {
+                shift(now);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Выбрасывает корзины, вышедшие из окна; при простое дольше окна очищает все
+        private void shift(long now) {
+            long current = now / bucketMillis;
+            if (current <= head) {
+                return;
+            }
+            long steps = Math.min(current - head, BUCKETS);
+            for (long i = 1; i <= steps; i++) {
+                int slot = slot(head + i);
+                if (buckets[slot] != null) {
+                    buckets[slot].forEach((filmId, likes) -> change(filmId, -likes));
+                    buckets[slot] = null;
+                }
+            }
+            head = current;
+        }
+
+        private void change(long filmId, int delta) {
+            int oldLikes = totals.get(filmId);
+            int newLikes = oldLikes + delta;
+            if (newLikes == 0) {
+                totals.remove(filmId);
+                ranking.remove(filmId, oldLikes);
+            } else {
+                totals.add(filmId, delta);
+                if (oldLikes == 0) {
+                    ranking.add(filmId, newLikes);
+                } else {
+                    ranking.update(filmId, oldLikes, newLikes);
+                }
+            }
+        }
+
+        private static int slot(long bucket) {
+            return Math.floorMod(bucket, BUCKETS);
+        }
+    }
+}
@@ -1,59 +1,198 @@
 package ru.yandex.practicum.filmorate.storage.film;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
+import ru.yandex.practicum.filmorate.storage.SnapshotCatalog;
+import ru.yandex.practicum.filmorate.storage.StripedLock;
+import ru.yandex.practicum.filmorate.storage.id.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.id.SequenceIdGenerator;
+import ru.yandex.practicum.filmorate.util.HeavyHitters;
+import ru.yandex.practicum.filmorate.util.LongCounter;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
 
 @Component
+@Profile("!db")
+@ConditionalOnProperty(prefix = "filmorate.durability", name = "enabled", havingValue = "false",
+        matchIfMissing = true)
 @Slf4j
+@Timed("filmorate.storage")
 public class InMemoryFilmStorage implements FilmStorage {
-    private final HashMap<Long, Film> films = new HashMap<>();
+    private static final int LOCK_STRIPES = 256;
+    private static final int MAX_PAGE_PREALLOCATION = 1024;
+    private static final Duration RECOMMENDATION_BUDGET = Duration.ofMillis(50);
+    private static final int MAX_SEARCH_CANDIDATES = 20_000;
+    private static final int MAX_SEARCH_SCAN = 20_000;
+    // Приближённый топ: любой фильм с долей лайков больше 1/4096 отслеживается, оценка завышена
+    // не больше чем на 0.01% всех лайков с вероятностью 99.9%
+    private static final int APPROX_CAPACITY = 4096;
+    private static final double APPROX_EPSILON = 1e-4;
+    private static final double APPROX_DELTA = 1e-3;
+
+    // Упорядоченная по id карта – на ней же строится постраничная выдача
+    private final ConcurrentNavigableMap<Long, Film> films = new ConcurrentSkipListMap<>();
+    private final FilmPopularityIndex popularity = new FilmPopularityIndex();
+    private final HeavyHitters approxPopularity = new HeavyHitters(APPROX_CAPACITY, APPROX_EPSILON, APPROX_DELTA);
+    private final UserLikesIndex userLikes = new UserLikesIndex();
+    private final FilmSearchIndex searchIndex = new FilmSearchIndex();
+    private final FilmRecommender recommender = new FilmRecommender(films::get, userLikes, RECOMMENDATION_BUDGET);
+    private final StripedLock locks = new StripedLock(LOCK_STRIPES);
+    private final SnapshotCatalog<Film> snapshots = new SnapshotCatalog<>(films, locks, InMemoryFilmStorage::freeze);
+    // Всего лайков; меняется вместе с наборами, чтобы метрика не обходила каталог
+    private final LongAdder likeCount = new LongAdder();
+    private final FilmTrendIndex trends;
+    private final IdGenerator idGenerator;
+
+    public InMemoryFilmStorage() {
+        this(new SequenceIdGenerator());
+    }
+
+    public InMemoryFilmStorage(IdGenerator idGenerator) {
+        this(idGenerator, Clock.systemUTC());
+    }
+
+    public InMemoryFilmStorage(IdGenerator idGenerator, Clock clock) {
+        this.idGenerator = idGenerator;
+        this.trends = new FilmTrendIndex(clock);
+    }
 
     @Override
     public Film createFilm(Film film) {
-        long t0 = System.nanoTime();
-
         log.debug("createFilm() – request name={}, releaseDate={}", film.getName(), film.getReleaseDate());
-        film.setId(getNextId());
-
+        film.setId(idGenerator.nextId());
         films.put(film.getId(), film);
 
-        long ms = (System.nanoTime() - t0) / 1_000_000;
-        log.info("createFilm() – created id={} in {} ms", film.getId(), ms);
+        Lock lock = locks.get(film.getId());
+        lock.lock();
+        try {
+            popularity.add(film.getId(), film.getLikedUser().size());
+            approxPopularity.add(film.getId(), film.getLikedUser().size());
+            userLikes.addAll(film.getId(), film.getLikedUser());
+            searchIndex.add(film);
+            likeCount.add(film.getLikedUser().size());
+            snapshots.changed(film.getId());
+        } finally {
+            lock.unlock();
+        }
 
+        log.debug("createFilm() – created id={}", film.getId());
         return film;
     }
 
+    @Override
+    public List<Film> createFilms(List<Film> newFilms) {
+        long[] ids = idGenerator.nextIds(newFilms.size());
+        for (int i = 0; i < ids.length; i++) {
+            Film film = newFilms.get(i);
+            film.setId(ids[i]);
+            films.put(ids[i], film);
+
+            Lock lock = locks.get(ids[i]);
+            lock.lock();
+            try {
+                popularity.add(ids[i], film.getLikedUser().size());
+                approxPopularity.add(ids[i], film.getLikedUser().size());
+                userLikes.addAll(ids[i], film.getLikedUser());
+                searchIndex.add(film);
+                likeCount.add(film.getLikedUser().size());
+                snapshots.changed(ids[i]);
+            } finally {
+                lock.unlock();
+            }
+        }
+        log.debug("createFilms() – created {} films", ids.length);
+        return newFilms;
+    }
+
     @Override
     public Film updateFilm(Film film) {
-        long t0 = System.nanoTime();
         log.debug("updateFilm() – request id={}, name={}, releaseDate={}",
                 film.getId(), film.getName(), film.getReleaseDate());
 
+        Film oldFilm;
+        Lock lock = locks.get(film.getId());
+        lock.lock();
+        try {
+            oldFilm = films.replace(film.getId(), film);
+            if (oldFilm != null) {
+                popularity.update(film.getId(), oldFilm.getLikedUser().size(), film.getLikedUser().size());
+                approxPopularity.add(film.getId(), film.getLikedUser().size() - oldFilm.getLikedUser().size());
+                userLikes.removeAll(film.getId(), oldFilm.getLikedUser());
+                userLikes.addAll(film.getId(), film.getLikedUser());
+                searchIndex.remove(oldFilm);
+                searchIndex.add(film);
+                likeCount.add(film.getLikedUser().size() - oldFilm.getLikedUser().size());
+                snapshots.changed(film.getId());
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (oldFilm == null) {
+            throw new NotFoundException("Film not found");
+        }
+        return film;
+    }
 
-        if (films.containsKey(film.getId())) {
-            films.put(film.getId(), film);
-
-            long ms = (System.nanoTime() - t0) / 1_000_000;
-            log.info("updateUser() – updated id={} in {} ms, updateUser={}", film.getId(), ms, film);
+    // Кладёт фильм с уже назначенным id (восстановление из журнала), заменяя прежнюю версию
+    public void restoreFilm(Film film) {
+        Lock lock = locks.get(film.getId());
+        lock.lock();
+        try {
+            Film oldFilm = films.put(film.getId(), film);
+            if (oldFilm == null) {
+                popularity.add(film.getId(), film.getLikedUser().size());
+                approxPopularity.add(film.getId(), film.getLikedUser().size());
+                likeCount.add(film.getLikedUser().size());
+            } else {
+                popularity.update(film.getId(), oldFilm.getLikedUser().size(), film.getLikedUser().size());
+                approxPopularity.add(film.getId(), film.getLikedUser().size() - oldFilm.getLikedUser().size());
+                userLikes.removeAll(film.getId(), oldFilm.getLikedUser());
+                searchIndex.remove(oldFilm);
+                likeCount.add(film.getLikedUser().size() - oldFilm.getLikedUser().size());
+            }
+            userLikes.addAll(film.getId(), film.getLikedUser());
+            searchIndex.add(film);
+            snapshots.changed(film.getId());
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            return film;
+    // Лайк из журнала при восстановлении: время лайка неизвестно, поэтому тренды он не трогает
+    public void restoreLike(long filmId, long userId, boolean present) {
+        if (present) {
+            like(filmId, userId, false);
+        } else {
+            unlike(filmId, userId, false);
         }
-        throw new NotFoundException("Film not found");
     }
 
+    // Неизменяемая версия каталога на один момент; без изменений с прошлого вызова – та же самая
     @Override
     public Collection<Film> getAllFilms() {
         int size = films.size();
         log.debug("getAllUsers() – total={}", size);
 
-        return new ArrayList<>(films.values());
+        return snapshots.snapshot();
     }
 
     @Override
@@ -61,14 +200,241 @@ public class InMemoryFilmStorage implements FilmStorage {
         return Optional.ofNullable(films.get(id));
     }
 
+    @Override
+    public List<Film> getFilmsByIds(Collection<Long> ids) {
+        LongHashSet seen = new LongHashSet(ids.size());
+        List<Film> result = new ArrayList<>(ids.size());
+        for (long id : ids) {
+            Film film = films.get(id);
+            if (film != null && seen.add(id)) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Film> getFilms(long afterId, int limit) {
+        List<Film> page = new ArrayList<>(Math.min(limit, MAX_PAGE_PREALLOCATION));
+        for (Film film : films.tailMap(afterId, false).values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(film);
+        }
+        return page;
+    }
+
+    @Override
+    public void addLike(long filmId, long userId) {
+        like(filmId, userId, true);
+    }
+
+    @Override
+    public void removeLike(long filmId, long userId) {
+        unlike(filmId, userId, true);
+    }
+
+    @Override
+    public void applyLikes(List<EdgeChange> changes) {
+        for (EdgeChange change : changes) {
+            if (change.present()) {
+                addLike(change.from(), change.to());
+            } else {
+                removeLike(change.from(), change.to());
+            }
+        }
+    }
+
+    private boolean like(long filmId, long userId, boolean trending) {
+        Lock lock = locks.get(filmId);
+        lock.lock();
+        try {
+            LongHashSet likes = requireFilm(filmId).getLikedUser();
+            int oldLikes = likes.size();
+
+            if (likes.add(userId)) {
+                popularity.update(filmId, oldLikes, likes.size());
+                approxPopularity.add(filmId, 1);
+                userLikes.add(userId, filmId);
+                likeCount.increment();
+                if (trending) {
+                    trends.like(filmId);
+                }
+                snapshots.changed(filmId);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean unlike(long filmId, long userId, boolean trending) {
+        Lock lock = locks.get(filmId);
+        lock.lock();
+        try {
+            LongHashSet likes = requireFilm(filmId).getLikedUser();
+            int oldLikes = likes.size();
 
-    // Генерация нового Id
-    private long getNextId() {
-        long currentMaxId = films.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
+            if (likes.remove(userId)) {
+                popularity.update(filmId, oldLikes, likes.size());
+                approxPopularity.add(filmId, -1);
+                userLikes.remove(userId, filmId);
+                likeCount.decrement();
+                if (trending) {
+                    trends.unlike(filmId);
+                }
+                snapshots.changed(filmId);
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Набор пользователя не упорядочен, поэтому страница вырезается из отсортированной копии его id
+    @Override
+    public List<Film> getLikedFilms(long userId, long afterId, int limit) {
+        long[] ids = userLikes.filmIds(userId);
+        Arrays.sort(ids);
+        int from = Arrays.binarySearch(ids, afterId);
+        from = from >= 0 ? from + 1 : -from - 1;
+
+        List<Film> page = new ArrayList<>(Math.min(limit, ids.length - from));
+        for (int i = from; i < ids.length && page.size() < limit; i++) {
+            Film film = films.get(ids[i]);
+            if (film != null) {
+                page.add(film);
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return popularity.top(count).stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Фильмы без лайков в приближённый топ не попадают; топ длиннее ёмкости сводки строится точно
+    @Override
+    public List<Film> getApproxPopularFilms(int count) {
+        if (count > approxPopularity.capacity()) {
+            return getPopularFilms(count);
+        }
+        return resolve(approxPopularity.top(count));
+    }
+
+    @Override
+    public List<Film> getTrendingFilms(TrendWindow window, int count) {
+        return trends.top(window, count).stream()
+                .map(films::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Если самое редкое слово запроса встречается не больше чем в {@code MAX_SEARCH_CANDIDATES} фильмах,
+     * ранжируются все совпадения. Иначе (слова вроде «the» или «и») фильмы проверяются от популярных
+     * к непопулярным: обход останавливается, когда даже идеальное совпадение у следующего фильма
+     * не обгонит отобранные, или после {@code MAX_SEARCH_SCAN} проверенных фильмов – тогда ответ
+     * приближённый, но время не зависит от размера каталога.
+     */
+    @Override
+    public List<Film> searchFilms(String text, int limit) {
+        FilmSearchIndex.Query query = searchIndex.query(text);
+        LongCounter ranked = new LongCounter();
+        if (query.candidates() <= MAX_SEARCH_CANDIDATES) {
+            query.matchAll().forEach((id, match) -> {
+                Film film = films.get(id);
+                if (film != null) {
+                    ranked.add(id, FilmSearchIndex.rank(match, film.getLikedUser().size()));
+                }
+            });
+        } else {
+            searchByPopularity(query, limit, ranked);
+        }
+        return resolve(ranked.topKeys(limit));
+    }
+
+    private void searchByPopularity(FilmSearchIndex.Query query, int limit, LongCounter ranked) {
+        // Худший из limit лучших рангов – на вершине
+        PriorityQueue<Integer> best = new PriorityQueue<>();
+        int[] scanned = {0};
+        popularity.forEach((id, likes) -> {
+            if (best.size() == limit && FilmSearchIndex.rank(query.maxMatch(), likes) <= best.peek()) {
+                return false;
+            }
+            int match = query.match(id);
+            // Индекс популярности мог на миг вернуть фильм дважды
+            if (match > 0 && ranked.get(id) == 0) {
+                int rank = FilmSearchIndex.rank(match, likes);
+                ranked.add(id, rank);
+                best.add(rank);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            return ++scanned[0] < MAX_SEARCH_SCAN;
+        });
+    }
+
+    @Override
+    public List<Film> getFilmRecommendations(long userId, int limit) {
+        return resolve(recommender.recommend(userId, limit));
+    }
+
+    @Override
+    public long countFilms() {
+        return films.size();
+    }
+
+    @Override
+    public long countLikes() {
+        return likeCount.sum();
+    }
+
+    @Override
+    public int maxLikes() {
+        return getPopularFilms(1).stream()
+                .mapToInt(film -> film.getLikedUser().size())
+                .findFirst()
                 .orElse(0);
-        return ++currentMaxId;
+    }
+
+    // Ид без записи в хранилище пропускаем
+    private List<Film> resolve(long[] ids) {
+        List<Film> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Film film = films.get(id);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    private Film requireFilm(long filmId) {
+        Film film = films.get(filmId);
+        if (film == null) {
+            throw new NotFoundException("Film with id=" + filmId + " not found");
+        }
+        return film;
+    }
+
+    // Копия для версии каталога: живой набор лайков продолжает меняться
+    private static Film freeze(Film film) {
+        Film copy = new Film();
+        copy.setId(film.getId());
+        copy.setName(film.getName());
+        copy.setDescription(film.getDescription());
+        copy.setReleaseDate(film.getReleaseDate());
+        copy.setDuration(film.getDuration());
+        copy.setLikedUser(film.getLikedUser());
+        return copy;
     }
 }
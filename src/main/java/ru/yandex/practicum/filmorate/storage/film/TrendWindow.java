@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+
+import java.time.Duration;
+
+// Окна трендов: лайки за последний час, сутки и неделю
+public enum TrendWindow {
+    HOUR("1h", Duration.ofHours(1)),
+    DAY("24h", Duration.ofDays(1)),
+    WEEK("7d", Duration.ofDays(7));
+
+    private final String param;
+    private final Duration duration;
+
+    TrendWindow(String param, Duration duration) {
+        this.param = param;
+        this.duration = duration;
+    }
+
+    public Duration duration() {
+        return duration;
+    }
+
+    public static TrendWindow of(String param) {
+        for (TrendWindow window : values()) {
+            if (window.param.equals(param)) {
+                return window;
+            }
+        }
+        throw new ValidationException("Неподдерживаемое окно трендов: " + param + ", допустимы 1h, 24h и 7d");
+    }
+}
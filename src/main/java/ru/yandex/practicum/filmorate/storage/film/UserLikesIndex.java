@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Обратный индекс лайков: пользователь → фильмы, которые он лайкнул.
+ *
+ * <p>Прямое направление лежит в {@code Film.likedUser}. Индекс меняется под той же блокировкой фильма,
+ * что и его лайки, поэтому для каждого фильма оба направления согласованы; чтение идёт без блокировок.
+ * Опустевшие наборы не удаляются: иначе лайк другого фильма, идущий под другой блокировкой,
+ * мог бы попасть в уже выброшенный набор.
+ */
+class UserLikesIndex {
+    private static final long[] NO_FILMS = new long[0];
+
+    private final ConcurrentMap<Long, LongHashSet> filmsByUser = new ConcurrentHashMap<>();
+
+    void add(long userId, long filmId) {
+        filmsByUser.computeIfAbsent(userId, id -> new LongHashSet()).add(filmId);
+    }
+
+    void remove(long userId, long filmId) {
+        LongHashSet films = filmsByUser.get(userId);
+        if (films != null) {
+            films.remove(filmId);
+        }
+    }
+
+    void addAll(long filmId, LongHashSet users) {
+        users.forEachLong(userId -> add(userId, filmId));
+    }
+
+    void removeAll(long filmId, LongHashSet users) {
+        users.forEachLong(userId -> remove(userId, filmId));
+    }
+
+    // Живой набор фильмов пользователя; null, если он ничего не лайкал
+    LongHashSet films(long userId) {
+        return filmsByUser.get(userId);
+    }
+
+    long[] filmIds(long userId) {
+        LongHashSet films = filmsByUser.get(userId);
+        return films == null ? NO_FILMS : films.toLongArray();
+    }
+}
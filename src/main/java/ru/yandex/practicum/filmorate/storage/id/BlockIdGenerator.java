@@ -0,0 +1,61 @@
+package ru.yandex.practicum.filmorate.storage.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Генератор, который берёт id из общего источника диапазонами и раздаёт их локально.
+ *
+ * <p>Обращение к источнику происходит раз в {@code blockSize} вставок, поэтому несколько узлов
+ * могут делить одну последовательность без конфликтов. В пределах узла id возрастают монотонно.
+ */
+public class BlockIdGenerator implements IdGenerator {
+    private final IdBlockSource source;
+    private final int blockSize;
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    private volatile Block block = new Block(0, 0);
+
+    public BlockIdGenerator(IdBlockSource source, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize должен быть положительным");
+        }
+        this.source = source;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public long nextId() {
+        while (true) {
+            Block current = block;
+            long id = current.next.getAndIncrement();
+            if (id < current.end) {
+                return id;
+            }
+            refill(current);
+        }
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // Пока ждали блокировку, диапазон мог обновить другой поток
+            if (block == exhausted) {
+                long start = source.reserve(blockSize);
+                block = new Block(start, start + blockSize);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.storage.id;
+
+/**
+ * Общий для нескольких узлов источник диапазонов id (например, последовательность в БД).
+ */
+@FunctionalInterface
+public interface IdBlockSource {
+
+    /**
+     * Резервирует диапазон из {@code size} id.
+     *
+     * @param size размер диапазона
+     * @return первый id зарезервированного диапазона
+     */
+    long reserve(int size);
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.storage.id;
+
+/**
+ * Источник id для новых сущностей хранилища.
+ *
+ * <p>Реализации выдают строго возрастающие id за O(1) и безопасны для вызова из нескольких потоков.
+ */
+public interface IdGenerator {
+
+    long nextId();
+
+    // Пачка id для пакетной вставки; реализации могут выдать её за одно обращение
+    default long[] nextIds(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = nextId();
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.storage.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Атомарная последовательность id внутри одного процесса
+public class SequenceIdGenerator implements IdGenerator, IdBlockSource {
+    private final AtomicLong lastId;
+
+    public SequenceIdGenerator() {
+        this(0);
+    }
+
+    public SequenceIdGenerator(long lastId) {
+        this.lastId = new AtomicLong(lastId);
+    }
+
+    @Override
+    public long nextId() {
+        return lastId.incrementAndGet();
+    }
+
+    // Пачка – один сдвиг счётчика, id в ней идут подряд
+    @Override
+    public long[] nextIds(int count) {
+        long first = reserve(count);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = first + i;
+        }
+        return ids;
+    }
+
+    @Override
+    public long reserve(int size) {
+        return lastId.getAndAdd(size) + 1;
+    }
+
+    // Сдвигает последовательность за уже занятый id, например после восстановления данных
+    public void advanceTo(long id) {
+        lastId.accumulateAndGet(id, Math::max);
+    }
+}
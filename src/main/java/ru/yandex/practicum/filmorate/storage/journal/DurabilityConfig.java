@@ -0,0 +1,36 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Хранилища в памяти с журналом вместо обычных, если filmorate.durability.enabled=true
+@Configuration
+@Profile("!db")
+@ConditionalOnProperty(prefix = "filmorate.durability", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(DurabilityProperties.class)
+public class DurabilityConfig {
+
+    @Bean
+    public StorageJournal storageJournal(DurabilityProperties properties) throws IOException {
+        return new StorageJournal(Path.of(properties.directory()),
+                properties.syncInterval(), properties.snapshotInterval());
+    }
+
+    @Bean
+    public FilmStorage filmStorage(StorageJournal journal) {
+        return journal.filmStorage();
+    }
+
+    @Bean
+    public UserStorage userStorage(StorageJournal journal) {
+        return journal.userStorage();
+    }
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки журнала хранилищ в памяти ({@code filmorate.durability.*}).
+ *
+ * @param enabled          писать журнал и восстанавливать данные при старте
+ * @param directory        каталог сегментов журнала и снимков
+ * @param syncInterval     период группового fsync; 0 — fsync на каждую запись
+ * @param snapshotInterval период снимков; 0 — только по явному вызову
+ */
+@ConfigurationProperties("filmorate.durability")
+public record DurabilityProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("./data/journal") String directory,
+        @DefaultValue("10ms") Duration syncInterval,
+        @DefaultValue("10m") Duration snapshotInterval
+) {
+}
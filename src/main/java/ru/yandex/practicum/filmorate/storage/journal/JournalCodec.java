@@ -0,0 +1,134 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Двоичный формат записей журнала и снимков.
+ *
+ * <p>Числа пишутся в big-endian фиксированной длины, строки — длиной и байтами UTF-8
+ * (длина -1 означает null), даты — номером дня от эпохи. Тем же форматом сущности пишет
+ * выгрузка данных, поэтому чтение и запись фильма и пользователя открыты.
+ */
+public final class JournalCodec {
+    static final byte FILM = 1;
+    static final byte USER = 2;
+    static final byte LIKE = 3;
+    static final byte FRIENDSHIP = 4;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int NO_DURATION = Integer.MIN_VALUE;
+
+    private JournalCodec() {
+    }
+
+    public static void writeFilm(DataOutput out, Film film) throws IOException {
+        out.writeLong(film.getId());
+        writeString(out, film.getName());
+        writeString(out, film.getDescription());
+        writeDate(out, film.getReleaseDate());
+        out.writeInt(film.getDuration() == null ? NO_DURATION : film.getDuration());
+        writeIds(out, film.getLikedUser());
+    }
+
+    public static Film readFilm(DataInput in) throws IOException {
+        Film film = new Film();
+        film.setId(in.readLong());
+        film.setName(readString(in));
+        film.setDescription(readString(in));
+        film.setReleaseDate(readDate(in));
+        int duration = in.readInt();
+        film.setDuration(duration == NO_DURATION ? null : duration);
+        readIds(in, film.getLikedUser());
+        return film;
+    }
+
+    // Журнал пишет пользователя без друзей: дружбы идут отдельными записями
+    public static void writeUser(DataOutput out, User user, boolean withFriends) throws IOException {
+        out.writeLong(user.getId());
+        writeString(out, user.getEmail());
+        writeString(out, user.getLogin());
+        writeString(out, user.getName());
+        writeDate(out, user.getBirthday());
+        if (withFriends) {
+            writeIds(out, user.getFriends());
+        }
+    }
+
+    public static User readUser(DataInput in, boolean withFriends) throws IOException {
+        User user = new User();
+        user.setId(in.readLong());
+        user.setEmail(readString(in));
+        user.setLogin(readString(in));
+        user.setName(readString(in));
+        user.setBirthday(readDate(in));
+        if (withFriends) {
+            readIds(in, user.getFriends());
+        }
+        return user;
+    }
+
+    static void writeEdge(DataOutput out, byte type, long from, long to, boolean present) throws IOException {
+        out.writeByte(type);
+        out.writeLong(from);
+        out.writeLong(to);
+        out.writeBoolean(present);
+    }
+
+    // Набор id пишется одним блоком: по вызову на каждый long поток тратит больше, чем сама запись
+    private static void writeIds(DataOutput out, LongHashSet ids) throws IOException {
+        long[] values = ids.toLongArray();
+        out.writeInt(values.length);
+        byte[] bytes = new byte[values.length * Long.BYTES];
+        ByteBuffer.wrap(bytes).asLongBuffer().put(values);
+        out.write(bytes);
+    }
+
+    private static void readIds(DataInput in, LongHashSet target) throws IOException {
+        int count = in.readInt();
+        byte[] bytes = new byte[count * Long.BYTES];
+        in.readFully(bytes);
+        LongBuffer values = ByteBuffer.wrap(bytes).asLongBuffer();
+        for (int i = 0; i < count; i++) {
+            target.add(values.get(i));
+        }
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutput out, LocalDate date) throws IOException {
+        out.writeLong(date == null ? NO_DATE : date.toEpochDay());
+    }
+
+    private static LocalDate readDate(DataInput in) throws IOException {
+        long epochDay = in.readLong();
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
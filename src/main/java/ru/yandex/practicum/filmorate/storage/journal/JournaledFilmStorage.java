@@ -0,0 +1,135 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.TrendWindow;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Хранилище фильмов в памяти, каждое изменение которого попадает в журнал
+@RequiredArgsConstructor
+@Timed("filmorate.storage")
+class JournaledFilmStorage implements FilmStorage {
+    private final InMemoryFilmStorage films;
+    private final WriteAheadLog wal;
+
+    @Override
+    public Film createFilm(Film film) {
+        return wal.append(() -> films.createFilm(film), JournaledFilmStorage::writeFilm);
+    }
+
+    @Override
+    public List<Film> createFilms(List<Film> newFilms) {
+        return wal.appendAll(() -> films.createFilms(newFilms), JournaledFilmStorage::writeFilm);
+    }
+
+    @Override
+    public Film updateFilm(Film film) {
+        return wal.append(() -> films.updateFilm(film), JournaledFilmStorage::writeFilm);
+    }
+
+    @Override
+    public Collection<Film> getAllFilms() {
+        return films.getAllFilms();
+    }
+
+    @Override
+    public Optional<Film> getFilmById(Long id) {
+        return films.getFilmById(id);
+    }
+
+    @Override
+    public List<Film> getFilmsByIds(Collection<Long> ids) {
+        return films.getFilmsByIds(ids);
+    }
+
+    @Override
+    public List<Film> getFilms(long afterId, int limit) {
+        return films.getFilms(afterId, limit);
+    }
+
+    @Override
+    public void addLike(long filmId, long userId) {
+        wal.append(() -> {
+            films.addLike(filmId, userId);
+            return null;
+        }, (ignored, out) -> JournalCodec.writeEdge(out, JournalCodec.LIKE, filmId, userId, true));
+    }
+
+    @Override
+    public void removeLike(long filmId, long userId) {
+        wal.append(() -> {
+            films.removeLike(filmId, userId);
+            return null;
+        }, (ignored, out) -> JournalCodec.writeEdge(out, JournalCodec.LIKE, filmId, userId, false));
+    }
+
+    // Пачка применяется и журналируется за один захват журнала, по записи на ребро. Если пачка
+    // упала посередине, в журнал не попадает ничего: отложенная запись повторит её по одному ребру
+    @Override
+    public void applyLikes(List<EdgeChange> changes) {
+        wal.appendAll(() -> {
+            films.applyLikes(changes);
+            return changes;
+        }, (change, out) -> JournalCodec.writeEdge(out, JournalCodec.LIKE, change.from(), change.to(),
+                change.present()));
+    }
+
+    @Override
+    public List<Film> getLikedFilms(long userId, long afterId, int limit) {
+        return films.getLikedFilms(userId, afterId, limit);
+    }
+
+    @Override
+    public List<Film> getPopularFilms(int count) {
+        return films.getPopularFilms(count);
+    }
+
+    @Override
+    public List<Film> getApproxPopularFilms(int count) {
+        return films.getApproxPopularFilms(count);
+    }
+
+    @Override
+    public List<Film> getTrendingFilms(TrendWindow window, int count) {
+        return films.getTrendingFilms(window, count);
+    }
+
+    @Override
+    public List<Film> searchFilms(String query, int limit) {
+        return films.searchFilms(query, limit);
+    }
+
+    @Override
+    public List<Film> getFilmRecommendations(long userId, int limit) {
+        return films.getFilmRecommendations(userId, limit);
+    }
+
+    @Override
+    public long countFilms() {
+        return films.countFilms();
+    }
+
+    @Override
+    public long countLikes() {
+        return films.countLikes();
+    }
+
+    @Override
+    public int maxLikes() {
+        return films.maxLikes();
+    }
+
+    private static void writeFilm(Film film, DataOutput out) throws IOException {
+        out.writeByte(JournalCodec.FILM);
+        JournalCodec.writeFilm(out, film);
+    }
+}
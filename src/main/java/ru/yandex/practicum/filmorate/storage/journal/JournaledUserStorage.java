@@ -0,0 +1,114 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Хранилище пользователей в памяти, каждое изменение которого попадает в журнал
+@RequiredArgsConstructor
+@Timed("filmorate.storage")
+class JournaledUserStorage implements UserStorage {
+    private final InMemoryUserStorage users;
+    private final WriteAheadLog wal;
+
+    @Override
+    public User createUser(User user) {
+        return wal.append(() -> users.createUser(user), JournaledUserStorage::writeUser);
+    }
+
+    @Override
+    public List<User> createUsers(List<User> newUsers) {
+        return wal.appendAll(() -> users.createUsers(newUsers), JournaledUserStorage::writeUser);
+    }
+
+    @Override
+    public User updateUser(User user) {
+        return wal.append(() -> users.updateUser(user), JournaledUserStorage::writeUser);
+    }
+
+    @Override
+    public Collection<User> getAllUsers() {
+        return users.getAllUsers();
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        return users.getUserById(id);
+    }
+
+    @Override
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        return users.getUsersByIds(ids);
+    }
+
+    @Override
+    public List<User> getUsers(long afterId, int limit) {
+        return users.getUsers(afterId, limit);
+    }
+
+    @Override
+    public void addFriend(long userId, long friendId) {
+        wal.append(() -> {
+            users.addFriend(userId, friendId);
+            return null;
+        }, (ignored, out) -> JournalCodec.writeEdge(out, JournalCodec.FRIENDSHIP, userId, friendId, true));
+    }
+
+    @Override
+    public void removeFriend(long userId, long friendId) {
+        wal.append(() -> {
+            users.removeFriend(userId, friendId);
+            return null;
+        }, (ignored, out) -> JournalCodec.writeEdge(out, JournalCodec.FRIENDSHIP, userId, friendId, false));
+    }
+
+    // Пачка применяется и журналируется за один захват журнала, по записи на ребро. Если пачка
+    // упала посередине, в журнал не попадает ничего: отложенная запись повторит её по одному ребру
+    @Override
+    public void applyFriendships(List<EdgeChange> changes) {
+        wal.appendAll(() -> {
+            users.applyFriendships(changes);
+            return changes;
+        }, (change, out) -> JournalCodec.writeEdge(out, JournalCodec.FRIENDSHIP, change.from(), change.to(),
+                change.present()));
+    }
+
+    @Override
+    public List<User> getFriends(long userId) {
+        return users.getFriends(userId);
+    }
+
+    @Override
+    public List<User> getCommonFriends(long userId, long otherId) {
+        return users.getCommonFriends(userId, otherId);
+    }
+
+    @Override
+    public long countUsers() {
+        return users.countUsers();
+    }
+
+    @Override
+    public List<User> getFriendRecommendations(long userId, int limit) {
+        return users.getFriendRecommendations(userId, limit);
+    }
+
+    @Override
+    public long countFriendships() {
+        return users.countFriendships();
+    }
+
+    private static void writeUser(User user, DataOutput out) throws IOException {
+        out.writeByte(JournalCodec.USER);
+        JournalCodec.writeUser(out, user, false);
+    }
+}
@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Снимок всех фильмов и пользователей в файле {@code snapshot-<lsn>.bin}.
+ *
+ * <p>lsn — номер первой записи журнала, которой в снимке может не быть: восстановление
+ * читает снимок и проигрывает журнал начиная с этого номера. Файл пишется во временный,
+ * синхронизируется на диск и атомарно переименовывается, поэтому снимок либо цел, либо отсутствует.
+ */
+final class SnapshotFile {
+    private static final int MAGIC = 0x46534E50;
+    private static final int VERSION = 1;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private SnapshotFile() {
+    }
+
+    static void write(Path directory, long lsn, Collection<Film> films, Collection<User> users) throws IOException {
+        Path target = directory.resolve(PREFIX + String.format("%020d", lsn) + SUFFIX);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, BUFFER_SIZE), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(lsn);
+
+            out.writeInt(films.size());
+            for (Film film : films) {
+                JournalCodec.writeFilm(out, film);
+            }
+            out.writeInt(users.size());
+            for (User user : users) {
+                JournalCodec.writeUser(out, user, true);
+            }
+
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static Optional<Path> latest(Path directory) throws IOException {
+        return snapshots(directory).stream().max(Comparator.comparingLong(SnapshotFile::lsn));
+    }
+
+    // Читает снимок, отдавая сущности потребителям; возвращает lsn, с которого проигрывать журнал
+    static long read(Path file, Consumer<Film> films, Consumer<User> users) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE), new CRC32());
+        try (DataInputStream in = new DataInputStream(checked)) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Неизвестный формат снимка " + file);
+            }
+            long lsn = in.readLong();
+
+            int filmCount = in.readInt();
+            for (int i = 0; i < filmCount; i++) {
+                films.accept(JournalCodec.readFilm(in));
+            }
+            int userCount = in.readInt();
+            for (int i = 0; i < userCount; i++) {
+                users.accept(JournalCodec.readUser(in, true));
+            }
+
+            long expected = checked.getChecksum().getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Контрольная сумма снимка не сходится: " + file);
+            }
+            return lsn;
+        }
+    }
+
+    static void deleteOlderThan(Path directory, long lsn) throws IOException {
+        for (Path snapshot : snapshots(directory)) {
+            if (lsn(snapshot) < lsn) {
+                Files.deleteIfExists(snapshot);
+            }
+        }
+    }
+
+    private static List<Path> snapshots(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .toList();
+        }
+    }
+
+    private static long lsn(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
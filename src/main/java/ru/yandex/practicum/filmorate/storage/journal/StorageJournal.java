@@ -0,0 +1,249 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.id.SequenceIdGenerator;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Хранилища в памяти, переживающие перезапуск.
+ *
+ * <p>При открытии загружается последний снимок и проигрываются записи журнала после него,
+ * затем каждое изменение хранилищ дописывается в журнал. Раз в {@code syncInterval} журнал
+ * сбрасывается на диск одним fsync, раз в {@code snapshotInterval} пишется новый снимок,
+ * а покрытые им сегменты журнала удаляются.
+ *
+ * <p>Снимок пишется без остановки записи: в него могут попасть изменения после его lsn,
+ * но проигрывание журнала идемпотентно (фильм и пользователь заменяются целиком,
+ * рёбра ставятся и снимаются), поэтому результат совпадает с состоянием до сбоя.
+ */
+@Slf4j
+public class StorageJournal implements AutoCloseable {
+    // Сколько сущностей копируется для снимка за один захват блокировки журнала
+    private static final int SNAPSHOT_CHUNK = 4096;
+
+    private final Path directory;
+    private final InMemoryFilmStorage films;
+    private final InMemoryUserStorage users;
+    private final WriteAheadLog wal;
+    private final FilmStorage filmStorage;
+    private final UserStorage userStorage;
+    private final ScheduledExecutorService scheduler;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    private final long recoveredRecords;
+    private final long recoveryMillis;
+    private long snapshotLsn;
+
+    public StorageJournal(Path directory, Duration syncInterval, Duration snapshotInterval) throws IOException {
+        this(directory, syncInterval, snapshotInterval, Clock.systemUTC());
+    }
+
+    public StorageJournal(Path directory, Duration syncInterval, Duration snapshotInterval, Clock clock)
+            throws IOException {
+        long t0 = System.nanoTime();
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        SequenceIdGenerator filmIds = new SequenceIdGenerator();
+        SequenceIdGenerator userIds = new SequenceIdGenerator();
+        this.films = new InMemoryFilmStorage(filmIds, clock);
+        this.users = new InMemoryUserStorage(userIds);
+
+        Optional<Path> snapshot = SnapshotFile.latest(directory);
+        long fromLsn = snapshot.isPresent() ? SnapshotFile.read(snapshot.get(), films::restoreFilm, users::restoreUser) : 0;
+        long nextLsn = WriteAheadLog.replay(directory, fromLsn, this::applyRecord);
+
+        films.getAllFilms().forEach(film -> filmIds.advanceTo(film.getId()));
+        users.getAllUsers().forEach(user -> userIds.advanceTo(user.getId()));
+
+        this.snapshotLsn = fromLsn;
+        this.recoveredRecords = nextLsn - fromLsn;
+        this.recoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+        log.info("StorageJournal() – recovered snapshot={}, records={} in {} ms",
+                snapshot.map(Path::getFileName).orElse(null), recoveredRecords, recoveryMillis);
+
+        this.wal = new WriteAheadLog(directory, nextLsn, syncInterval.isZero());
+        this.filmStorage = new JournaledFilmStorage(films, wal);
+        this.userStorage = new JournaledUserStorage(users, wal);
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "storage-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!syncInterval.isZero()) {
+            long period = syncInterval.toNanos();
+            scheduler.scheduleWithFixedDelay(this::syncQuietly, period, period, TimeUnit.NANOSECONDS);
+        }
+        if (!snapshotInterval.isZero()) {
+            long period = snapshotInterval.toNanos();
+            scheduler.scheduleWithFixedDelay(this::snapshotQuietly, period, period, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public FilmStorage filmStorage() {
+        return filmStorage;
+    }
+
+    public UserStorage userStorage() {
+        return userStorage;
+    }
+
+    public WriteAheadLog getWal() {
+        return wal;
+    }
+
+    public long getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+    public long getRecoveryMillis() {
+        return recoveryMillis;
+    }
+
+    public void sync() throws IOException {
+        wal.sync();
+    }
+
+    /**
+     * Пишет снимок и удаляет покрытые им сегменты журнала и старые снимки.
+     *
+     * <p>Если с прошлого снимка журнал не пополнялся, ничего не делает.
+     */
+    public void snapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            if (wal.getNextLsn() == snapshotLsn) {
+                return;
+            }
+            long t0 = System.nanoTime();
+            long lsn = wal.rotate();
+            List<Film> filmCopies = copyInChunks(films.getAllFilms(), StorageJournal::copyFilm);
+            List<User> userCopies = copyInChunks(users.getAllUsers(), StorageJournal::copyUser);
+            SnapshotFile.write(directory, lsn, filmCopies, userCopies);
+
+            WriteAheadLog.deleteSegmentsBefore(directory, lsn);
+            SnapshotFile.deleteOlderThan(directory, lsn);
+            snapshotLsn = lsn;
+            log.info("snapshot() – lsn={}, films={}, users={} in {} ms", lsn, filmCopies.size(), userCopies.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        wal.close();
+    }
+
+    private void applyRecord(DataInput in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case JournalCodec.FILM -> films.restoreFilm(JournalCodec.readFilm(in));
+            case JournalCodec.USER -> users.restoreUserFields(JournalCodec.readUser(in, false));
+            case JournalCodec.LIKE -> applyEdge(in, films::restoreLike);
+            case JournalCodec.FRIENDSHIP -> applyEdge(in, users::restoreFriendship);
+            default -> throw new IOException("Неизвестный тип записи журнала: " + type);
+        }
+    }
+
+    private static void applyEdge(DataInput in, EdgeOperation operation) throws IOException {
+        long from = in.readLong();
+        long to = in.readLong();
+        boolean present = in.readBoolean();
+        try {
+            operation.apply(from, to, present);
+        } catch (NotFoundException e) {
+            // В журнал попадают только удавшиеся изменения, так что это след ручной правки файлов
+            log.warn("applyRecord() – skipped edge {}->{}: {}", from, to, e.getMessage());
+        }
+    }
+
+    // Живые объекты меняются параллельно, поэтому снимок пишется из копий, снятых под блокировкой журнала
+    private <T> List<T> copyInChunks(Collection<T> live, UnaryOperator<T> copy) {
+        List<T> copies = new ArrayList<>(live.size());
+        Iterator<T> iterator = live.iterator();
+        while (iterator.hasNext()) {
+            wal.locked(() -> {
+                for (int i = 0; i < SNAPSHOT_CHUNK && iterator.hasNext(); i++) {
+                    copies.add(copy.apply(iterator.next()));
+                }
+                return null;
+            });
+        }
+        return copies;
+    }
+
+    private static Film copyFilm(Film film) {
+        Film copy = new Film();
+        copy.setId(film.getId());
+        copy.setName(film.getName());
+        copy.setDescription(film.getDescription());
+        copy.setReleaseDate(film.getReleaseDate());
+        copy.setDuration(film.getDuration());
+        film.getLikedUser().forEachLong(copy.getLikedUser()::add);
+        return copy;
+    }
+
+    private static User copyUser(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setEmail(user.getEmail());
+        copy.setLogin(user.getLogin());
+        copy.setName(user.getName());
+        copy.setBirthday(user.getBirthday());
+        user.getFriends().forEachLong(copy.getFriends()::add);
+        return copy;
+    }
+
+    private void syncQuietly() {
+        try {
+            wal.sync();
+        } catch (IOException e) {
+            log.error("sync() – failed: {}", e.getMessage());
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("snapshot() – failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface EdgeOperation {
+        void apply(long from, long to, boolean present);
+    }
+}
@@ -0,0 +1,372 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал упреждающей записи на {@link FileChannel}.
+ *
+ * <p>Журнал разбит на сегменты {@code wal-<lsn>.log}, где lsn — порядковый номер первой записи
+ * сегмента. Запись — {@code [int длина][int crc32][данные]}. Изменение хранилища и его запись
+ * в журнал выполняются под одной блокировкой, поэтому порядок записей совпадает с порядком
+ * изменений в памяти.
+ *
+ * <p>Записи копятся в буфере и уходят в файл пачками; {@link #sync()} сбрасывает буфер
+ * и вызывает fsync один раз на всю накопленную пачку. Если {@code syncEveryWrite} включён,
+ * fsync выполняется на каждую запись.
+ */
+@Slf4j
+public class WriteAheadLog implements AutoCloseable {
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
+    private final Path directory;
+    private final boolean syncEveryWrite;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final RecordBuffer record = new RecordBuffer();
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+
+    private final AtomicLong appendedRecords = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+
+    private ByteBuffer pending = ByteBuffer.allocate(FLUSH_THRESHOLD * 2);
+    private FileChannel channel;
+    private long nextLsn;
+
+    public WriteAheadLog(Path directory, long nextLsn, boolean syncEveryWrite) throws IOException {
+        this.directory = directory;
+        this.syncEveryWrite = syncEveryWrite;
+        this.nextLsn = nextLsn;
+        Files.createDirectories(directory);
+        this.channel = openSegment(nextLsn);
+    }
+
+    /**
+     * Выполняет изменение и дописывает в журнал его запись.
+     *
+     * <p>Если изменение бросило исключение, в журнал ничего не попадает.
+     */
+    public <T> T append(Supplier<T> mutation, RecordWriter<T> writer) {
+        lock.lock();
+        try {
+            T result = mutation.get();
+            record.reset();
+            writer.write(result, recordOut);
+            enqueue();
+            nextLsn++;
+            appendedRecords.incrementAndGet();
+            flushIfNeeded();
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать журнал", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Выполняет пакетное изменение и дописывает по записи на каждый его результат.
+     *
+     * <p>Вся пачка проходит под одним захватом блокировки, а проигрывается как отдельные записи.
+     */
+    public <T> List<T> appendAll(Supplier<List<T>> mutation, RecordWriter<T> writer) {
+        lock.lock();
+        try {
+            List<T> results = mutation.get();
+            for (T result : results) {
+                record.reset();
+                writer.write(result, recordOut);
+                enqueue();
+                nextLsn++;
+            }
+            appendedRecords.addAndGet(results.size());
+            flushIfNeeded();
+            return results;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать журнал", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Групповой fsync: всё, что накопилось с прошлого вызова, фиксируется одним force
+    public void sync() throws IOException {
+        FileChannel current;
+        lock.lock();
+        try {
+            writePending();
+            current = channel;
+        } finally {
+            lock.unlock();
+        }
+        // force не держит блокировку: запись новых изменений в это время продолжается
+        try {
+            current.force(false);
+            syncs.incrementAndGet();
+        } catch (ClosedChannelException e) {
+            // Сегмент закрыли rotate() или close(), и они уже сделали fsync сами
+        }
+    }
+
+    /**
+     * Закрывает текущий сегмент и начинает новый.
+     *
+     * @return lsn первой записи нового сегмента: всё до него уже лежит в закрытых сегментах
+     */
+    public long rotate() throws IOException {
+        lock.lock();
+        try {
+            writePending();
+            channel.force(false);
+            channel.close();
+            channel = openSegment(nextLsn);
+            return nextLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Выполняет действие, пока запись в журнал и изменения хранилищ стоят
+    public <T> T locked(Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getNextLsn() {
+        lock.lock();
+        try {
+            return nextLsn;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAppendedRecords() {
+        return appendedRecords.get();
+    }
+
+    public long getWrittenBytes() {
+        return writtenBytes.get();
+    }
+
+    public long getSyncs() {
+        return syncs.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel.isOpen()) {
+                writePending();
+                channel.force(false);
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Проигрывает записи начиная с сегмента {@code fromLsn}.
+     *
+     * <p>Оборванная последняя запись последнего сегмента (сбой посреди записи) отрезается;
+     * повреждение в середине журнала считается ошибкой.
+     *
+     * @return lsn, с которого продолжится запись
+     */
+    public static long replay(Path directory, long fromLsn, RecordHandler handler) throws IOException {
+        List<Path> segments = segmentsFrom(directory, fromLsn);
+        long lsn = fromLsn;
+        byte[] payload = new byte[256];
+        CRC32 crc = new CRC32();
+
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            long start = segmentLsn(segment);
+            if (start != lsn) {
+                throw new IllegalStateException("Журнал неполон: ожидался сегмент с lsn=" + lsn + ", найден " + segment);
+            }
+
+            long size = Files.size(segment);
+            long validBytes = 0;
+            boolean torn = false;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment), 1 << 20))) {
+                while (true) {
+                    int first = in.read();
+                    if (first < 0) {
+                        break;
+                    }
+                    int length;
+                    try {
+                        length = (first << 24) | (in.readUnsignedByte() << 16)
+                                | (in.readUnsignedByte() << 8) | in.readUnsignedByte();
+                        int checksum = in.readInt();
+                        // Мусорная длина после сбоя не должна приводить к огромному выделению памяти
+                        if (length < 0 || validBytes + HEADER_BYTES + length > size) {
+                            torn = true;
+                            break;
+                        }
+                        if (payload.length < length) {
+                            payload = new byte[Math.max(length, payload.length * 2)];
+                        }
+                        in.readFully(payload, 0, length);
+                        crc.reset();
+                        crc.update(payload, 0, length);
+                        if ((int) crc.getValue() != checksum) {
+                            torn = true;
+                            break;
+                        }
+                    } catch (EOFException e) {
+                        torn = true;
+                        break;
+                    }
+                    handler.handle(new DataInputStream(new ByteArrayInputStream(payload, 0, length)));
+                    validBytes += HEADER_BYTES + length;
+                    lsn++;
+                }
+            }
+
+            if (torn) {
+                if (i != segments.size() - 1) {
+                    throw new IllegalStateException("Повреждена запись lsn=" + lsn + " в середине журнала " + segment);
+                }
+                log.warn("replay() – truncating torn tail of {} at {} bytes", segment, validBytes);
+                try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    channel.truncate(validBytes);
+                }
+            }
+        }
+        return lsn;
+    }
+
+    // Сегменты целиком до lsn уже покрыты снимком
+    public static void deleteSegmentsBefore(Path directory, long lsn) throws IOException {
+        for (Path segment : segments(directory)) {
+            if (segmentLsn(segment) < lsn) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    private void enqueue() {
+        int length = record.size();
+        crc.reset();
+        crc.update(record.buffer(), 0, length);
+
+        if (pending.remaining() < HEADER_BYTES + length) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + HEADER_BYTES + length));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        pending.putInt(length);
+        pending.putInt((int) crc.getValue());
+        pending.put(record.buffer(), 0, length);
+    }
+
+    private void flushIfNeeded() throws IOException {
+        if (syncEveryWrite) {
+            writePending();
+            channel.force(false);
+            syncs.incrementAndGet();
+        } else if (pending.position() >= FLUSH_THRESHOLD) {
+            writePending();
+        }
+    }
+
+    private void writePending() throws IOException {
+        pending.flip();
+        while (pending.hasRemaining()) {
+            writtenBytes.addAndGet(channel.write(pending));
+        }
+        pending.clear();
+    }
+
+    private FileChannel openSegment(long lsn) throws IOException {
+        // Сегмент с тем же lsn мог остаться пустым после прошлого запуска – начинаем его заново
+        return FileChannel.open(directory.resolve(segmentName(lsn)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static List<Path> segmentsFrom(Path directory, long fromLsn) throws IOException {
+        return segments(directory).stream()
+                .filter(segment -> segmentLsn(segment) >= fromLsn)
+                .toList();
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted((a, b) -> Long.compare(segmentLsn(a), segmentLsn(b)))
+                    .toList();
+        }
+    }
+
+    private static String segmentName(long lsn) {
+        return SEGMENT_PREFIX + String.format("%020d", lsn) + SEGMENT_SUFFIX;
+    }
+
+    private static long segmentLsn(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    @FunctionalInterface
+    public interface RecordWriter<T> {
+        void write(T result, DataOutput out) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void handle(DataInput in) throws IOException;
+    }
+
+    // ByteArrayOutputStream с доступом к внутреннему массиву, чтобы не копировать запись
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+        private RecordBuffer() {
+            super(256);
+        }
+
+        private byte[] buffer() {
+            return buf;
+        }
+    }
+}
@@ -1,69 +1,123 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
+import ru.yandex.practicum.filmorate.storage.SnapshotCatalog;
+import ru.yandex.practicum.filmorate.storage.StripedLock;
+import ru.yandex.practicum.filmorate.storage.id.IdGenerator;
+import ru.yandex.practicum.filmorate.storage.id.SequenceIdGenerator;
+import ru.yandex.practicum.filmorate.util.LongCounter;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
 
 @Component
+@Profile("!db")
+@ConditionalOnProperty(prefix = "filmorate.durability", name = "enabled", havingValue = "false",
+        matchIfMissing = true)
 @Slf4j
+@Timed("filmorate.storage")
 public class InMemoryUserStorage implements UserStorage {
-    private final Map<Long, User> users = new HashMap<>();
+    private static final int LOCK_STRIPES = 256;
+    private static final int MAX_PAGE_PREALLOCATION = 1024;
+    // Сколько рёбер второго уровня просматривает один запрос рекомендаций
+    private static final int RECOMMENDATION_WORK_BUDGET = 100_000;
 
-    @Override
-    public User createUser(User user) {
-        long t0 = System.nanoTime();
-
-        log.debug("createUser() – request login={}, email={}", user.getLogin(), user.getEmail());
+    private final ConcurrentNavigableMap<Long, User> users = new ConcurrentSkipListMap<>();
+    private final StripedLock locks = new StripedLock(LOCK_STRIPES);
+    private final SnapshotCatalog<User> snapshots = new SnapshotCatalog<>(users, locks, InMemoryUserStorage::freeze);
+    // Записей в наборах друзей (по две на дружбу); меняется вместе с наборами, чтобы метрика не обходила каталог
+    private final LongAdder friendEntries = new LongAdder();
+    private final IdGenerator idGenerator;
 
-        User newUser = new User();
+    public InMemoryUserStorage() {
+        this(new SequenceIdGenerator());
+    }
 
-        newUser.setId(getNextId());
+    public InMemoryUserStorage(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
 
-        newUser.setEmail(user.getEmail());
-        newUser.setLogin(user.getLogin());
-        newUser.setName(user.getName());
-        newUser.setBirthday(user.getBirthday());
+    @Override
+    public User createUser(User user) {
+        log.debug("createUser() – request login={}, email={}", user.getLogin(), user.getEmail());
 
+        User newUser = copyOf(user, idGenerator.nextId());
         users.put(newUser.getId(), newUser);
+        // Новая запись кладётся в карту целиком, поэтому блокировка полосы ей не нужна
+        snapshots.changed(newUser.getId());
 
-        long ms = (System.nanoTime() - t0) / 1_000_000;
-        log.info("createUser() – created id={} in {} ms", newUser.getId(), ms);
-
+        log.debug("createUser() – created id={}", newUser.getId());
         return newUser;
     }
 
+    @Override
+    public List<User> createUsers(List<User> newUsers) {
+        long[] ids = idGenerator.nextIds(newUsers.size());
+        List<User> created = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            User newUser = copyOf(newUsers.get(i), ids[i]);
+            users.put(newUser.getId(), newUser);
+            snapshots.changed(newUser.getId());
+            created.add(newUser);
+        }
+        log.debug("createUsers() – created {} users", ids.length);
+        return created;
+    }
+
     @Override
     public User updateUser(User user) {
-        long t0 = System.nanoTime();
         log.debug("updateUser() – request id={}, login={}, email={}",
                 user.getId(), user.getLogin(), user.getEmail());
 
-        if (users.containsKey(user.getId())) {
-            User oldUser = users.get(user.getId());
-
-            oldUser.setEmail(user.getEmail());
-            oldUser.setLogin(user.getLogin());
-            oldUser.setName(user.getName());
-            oldUser.setBirthday(user.getBirthday());
-
-            long ms = (System.nanoTime() - t0) / 1_000_000;
-            log.info("updateUser() – updated id={} in {} ms, updateUser={}", user.getId(), ms, oldUser);
-
+        User oldUser = update(user);
+        if (oldUser != null) {
             return oldUser;
         }
         log.warn("updateUser() – not found id={}", user.getId());
         throw new NotFoundException("User with id=" + user.getId() + " not found");
     }
 
+    // Кладёт пользователя с уже назначенным id и друзьями (восстановление из журнала)
+    public void restoreUser(User user) {
+        User oldUser = users.put(user.getId(), user);
+        friendEntries.add(user.getFriends().size() - (oldUser == null ? 0 : oldUser.getFriends().size()));
+        snapshots.changed(user.getId());
+    }
+
+    // Запись пользователя из журнала не несёт друзей: существующему меняются только поля
+    public void restoreUserFields(User user) {
+        if (update(user) == null) {
+            restoreUser(user);
+        }
+    }
+
+    // Ребро дружбы из журнала при восстановлении
+    public void restoreFriendship(long userId, long friendId, boolean present) {
+        if (present) {
+            befriend(userId, friendId);
+        } else {
+            unfriend(userId, friendId);
+        }
+    }
+
+    // Неизменяемая версия каталога на один момент; без изменений с прошлого вызова – та же самая
     @Override
     public Collection<User> getAllUsers() {
         int size = users.size();
         log.debug("getAllUsers() – total={}", size);
 
-        return new ArrayList<>(users.values());
+        return snapshots.snapshot();
     }
 
     @Override
@@ -71,13 +125,204 @@ public class InMemoryUserStorage implements UserStorage {
         return Optional.ofNullable(users.get(id));
     }
 
-    // Генерация нового Id
-    private long getNextId() {
-        long currentMaxId = users.keySet()
-                .stream()
-                .mapToLong(id -> id)
-                .max()
-                .orElse(0);
-        return ++currentMaxId;
+    @Override
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        LongHashSet seen = new LongHashSet(ids.size());
+        List<User> result = new ArrayList<>(ids.size());
+        for (long id : ids) {
+            User user = users.get(id);
+            if (user != null && seen.add(id)) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<User> getUsers(long afterId, int limit) {
+        List<User> page = new ArrayList<>(Math.min(limit, MAX_PAGE_PREALLOCATION));
+        for (User user : users.tailMap(afterId, false).values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(user);
+        }
+        return page;
+    }
+
+    // Обе стороны дружбы меняются под полосами обоих пользователей: встречные add и remove
+    // одной пары не оставят ребро только у одного из них
+    @Override
+    public void addFriend(long userId, long friendId) {
+        befriend(userId, friendId);
+    }
+
+    @Override
+    public void removeFriend(long userId, long friendId) {
+        unfriend(userId, friendId);
+    }
+
+    @Override
+    public void applyFriendships(List<EdgeChange> changes) {
+        for (EdgeChange change : changes) {
+            if (change.present()) {
+                befriend(change.from(), change.to());
+            } else {
+                unfriend(change.from(), change.to());
+            }
+        }
+    }
+
+    private User update(User user) {
+        Lock lock = locks.get(user.getId());
+        lock.lock();
+        try {
+            User oldUser = users.get(user.getId());
+            if (oldUser != null) {
+                oldUser.setEmail(user.getEmail());
+                oldUser.setLogin(user.getLogin());
+                oldUser.setName(user.getName());
+                oldUser.setBirthday(user.getBirthday());
+                snapshots.changed(oldUser.getId());
+            }
+            return oldUser;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void befriend(long userId, long friendId) {
+        User user = requireUser(userId);
+        User friend = requireUser(friendId);
+
+        locks.lockPair(userId, friendId);
+        try {
+            if (user.getFriends().add(friendId)) {
+                friendEntries.increment();
+            }
+            if (friend.getFriends().add(userId)) {
+                friendEntries.increment();
+            }
+            snapshots.changed(userId);
+            snapshots.changed(friendId);
+        } finally {
+            locks.unlockPair(userId, friendId);
+        }
+    }
+
+    private void unfriend(long userId, long friendId) {
+        User user = requireUser(userId);
+        User friend = requireUser(friendId);
+
+        locks.lockPair(userId, friendId);
+        try {
+            if (user.getFriends().remove(friendId)) {
+                friendEntries.decrement();
+            }
+            if (friend.getFriends().remove(userId)) {
+                friendEntries.decrement();
+            }
+            snapshots.changed(userId);
+            snapshots.changed(friendId);
+        } finally {
+            locks.unlockPair(userId, friendId);
+        }
+    }
+
+    @Override
+    public List<User> getFriends(long userId) {
+        return resolve(requireUser(userId).getFriends().toLongArray());
+    }
+
+    @Override
+    public List<User> getCommonFriends(long userId, long otherId) {
+        LongHashSet userFriends = requireUser(userId).getFriends();
+        LongHashSet otherFriends = requireUser(otherId).getFriends();
+
+        return resolve(userFriends.intersection(otherFriends));
+    }
+
+    /**
+     * Обход в ширину на два уровня: каждый друг друга, которого нет среди друзей, получает
+     * по очку за каждого общего друга. Обход останавливается, когда просмотрено
+     * {@code RECOMMENDATION_WORK_BUDGET} рёбер, поэтому у пользователя с тысячами друзей,
+     * у которых свои тысячи, счёт приближённый, зато время ответа ограничено.
+     */
+    @Override
+    public List<User> getFriendRecommendations(long userId, int limit) {
+        LongHashSet friends = requireUser(userId).getFriends();
+        LongCounter mutualFriends = new LongCounter();
+        int budget = RECOMMENDATION_WORK_BUDGET;
+
+        for (long friendId : friends.toLongArray()) {
+            User friend = users.get(friendId);
+            if (friend == null) {
+                continue;
+            }
+            long[] candidates = friend.getFriends().toLongArray();
+            int visited = Math.min(candidates.length, budget);
+            for (int i = 0; i < visited; i++) {
+                long candidate = candidates[i];
+                if (candidate != userId && !friends.contains(candidate)) {
+                    mutualFriends.increment(candidate);
+                }
+            }
+            budget -= visited;
+            if (budget == 0) {
+                log.debug("getFriendRecommendations() – work budget exhausted for id={}", userId);
+                break;
+            }
+        }
+        return resolve(mutualFriends.topKeys(limit));
+    }
+
+    @Override
+    public long countUsers() {
+        return users.size();
+    }
+
+    @Override
+    public long countFriendships() {
+        return friendEntries.sum() / 2;
+    }
+
+    // Ид без записи в хранилище (например, после гонки с удалением) пропускаем
+    private List<User> resolve(long[] ids) {
+        List<User> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            User user = users.get(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    // Копия для версии каталога: живые поля и друзья продолжают меняться
+    private static User freeze(User user) {
+        User copy = copyOf(user, user.getId());
+        copy.setFriends(user.getFriends());
+        return copy;
+    }
+
+    // Друзья в новую запись не переносятся: дружба появляется только через addFriend
+    private static User copyOf(User user, long id) {
+        User newUser = new User();
+
+        newUser.setId(id);
+
+        newUser.setEmail(user.getEmail());
+        newUser.setLogin(user.getLogin());
+        newUser.setName(user.getName());
+        newUser.setBirthday(user.getBirthday());
+        return newUser;
+    }
+
+    private User requireUser(long id) {
+        User user = users.get(id);
+        if (user == null) {
+            throw new NotFoundException("User with id=" + id + " not found");
+        }
+        return user;
     }
 }
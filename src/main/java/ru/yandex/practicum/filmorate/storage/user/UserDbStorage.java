@@ -0,0 +1,307 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Хранилище пользователей в реляционной БД.
+ *
+ * <p>Дружба хранится в таблице рёбер {@code friendships} двумя строками на пару,
+ * поэтому и список друзей, и общие друзья считаются одним запросом по индексу.
+ */
+@Component
+@Profile("db")
+@Slf4j
+@Timed("filmorate.storage")
+public class UserDbStorage implements UserStorage {
+    private static final String USER_COLUMNS = "u.id, u.email, u.login, u.name, u.birthday";
+    // Коллекция в IN разворачивается в отдельные параметры, поэтому длинный список режем на части
+    private static final int MAX_IN_LIST = 1000;
+    private static final String INSERT_USER = """
+            INSERT INTO users (email, login, name, birthday)
+            VALUES (:email, :login, :name, :birthday)
+            """;
+    private static final String MERGE_FRIENDSHIP = """
+            MERGE INTO friendships (user_id, friend_id)
+            KEY (user_id, friend_id)
+            VALUES (:userId, :friendId)
+            """;
+    private static final String DELETE_FRIENDSHIP =
+            "DELETE FROM friendships WHERE user_id = :userId AND friend_id = :friendId";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final SimpleJdbcInsert userInsert;
+
+    public UserDbStorage(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+        this.userInsert = new SimpleJdbcInsert(jdbc.getJdbcTemplate())
+                .withTableName("users")
+                .usingColumns("email", "login", "name", "birthday")
+                .usingGeneratedKeyColumns("id");
+    }
+
+    @Override
+    public User createUser(User user) {
+        log.debug("createUser() – request login={}, email={}", user.getLogin(), user.getEmail());
+
+        User newUser = copyOf(user);
+        newUser.setId(userInsert.executeAndReturnKey(userParams(newUser)).longValue());
+
+        log.info("createUser() – created id={}", newUser.getId());
+        return newUser;
+    }
+
+    @Override
+    @Transactional
+    public List<User> createUsers(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        List<User> created = users.stream().map(UserDbStorage::copyOf).toList();
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbc.batchUpdate(INSERT_USER,
+                created.stream().map(UserDbStorage::userParams).toArray(MapSqlParameterSource[]::new),
+                keys, new String[]{"id"});
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        for (int i = 0; i < created.size(); i++) {
+            created.get(i).setId(((Number) keyList.get(i).values().iterator().next()).longValue());
+        }
+
+        log.info("createUsers() – created {} users", created.size());
+        return created;
+    }
+
+    @Override
+    public User updateUser(User user) {
+        log.debug("updateUser() – request id={}, login={}, email={}",
+                user.getId(), user.getLogin(), user.getEmail());
+
+        int updated = jdbc.update("""
+                UPDATE users
+                SET email = :email, login = :login, name = :name, birthday = :birthday
+                WHERE id = :id
+                """, userParams(user).addValue("id", user.getId()));
+        if (updated == 0) {
+            log.warn("updateUser() – not found id={}", user.getId());
+            throw new NotFoundException("User with id=" + user.getId() + " not found");
+        }
+        return getUserById(user.getId()).orElseThrow();
+    }
+
+    @Override
+    public Collection<User> getAllUsers() {
+        List<User> users = jdbc.query("SELECT " + USER_COLUMNS + " FROM users u ORDER BY u.id", this::mapUser);
+        Map<Long, User> byId = index(users);
+        jdbc.query("SELECT user_id, friend_id FROM friendships", rs -> {
+            User user = byId.get(rs.getLong("user_id"));
+            if (user != null) {
+                user.getFriends().add(rs.getLong("friend_id"));
+            }
+        });
+        return users;
+    }
+
+    @Override
+    public Optional<User> getUserById(Long id) {
+        return withFriends(jdbc.query("SELECT " + USER_COLUMNS + " FROM users u WHERE u.id = :id",
+                Map.of("id", id), this::mapUser)).stream().findFirst();
+    }
+
+    @Override
+    public List<User> getUsersByIds(Collection<Long> ids) {
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, User> byId = new HashMap<>(distinct.size() * 2);
+        for (int from = 0; from < distinct.size(); from += MAX_IN_LIST) {
+            List<Long> part = distinct.subList(from, Math.min(distinct.size(), from + MAX_IN_LIST));
+            byId.putAll(index(withFriends(jdbc.query("SELECT " + USER_COLUMNS + " FROM users u WHERE u.id IN (:ids)",
+                    Map.of("ids", part), this::mapUser))));
+        }
+
+        List<User> result = new ArrayList<>(byId.size());
+        for (Long id : distinct) {
+            User user = byId.get(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<User> getUsers(long afterId, int limit) {
+        return withFriends(jdbc.query(
+                "SELECT " + USER_COLUMNS + " FROM users u WHERE u.id > :afterId ORDER BY u.id LIMIT :limit",
+                new MapSqlParameterSource("afterId", afterId).addValue("limit", limit),
+                this::mapUser));
+    }
+
+    @Override
+    @Transactional
+    public void addFriend(long userId, long friendId) {
+        // Обе стороны ребра уходят в БД одной пачкой
+        try {
+            jdbc.batchUpdate(MERGE_FRIENDSHIP, edge(userId, friendId));
+        } catch (DataIntegrityViolationException e) {
+            throw new NotFoundException("User with id=" + userId + " or id=" + friendId + " not found");
+        }
+    }
+
+    @Override
+    @Transactional
+    public void removeFriend(long userId, long friendId) {
+        jdbc.batchUpdate(DELETE_FRIENDSHIP, edge(userId, friendId));
+    }
+
+    @Override
+    @Transactional
+    public void applyFriendships(List<EdgeChange> changes) {
+        List<MapSqlParameterSource> merged = new ArrayList<>();
+        List<MapSqlParameterSource> deleted = new ArrayList<>();
+        for (EdgeChange change : changes) {
+            (change.present() ? merged : deleted).addAll(List.of(edge(change.from(), change.to())));
+        }
+
+        try {
+            jdbc.batchUpdate(MERGE_FRIENDSHIP, merged.toArray(MapSqlParameterSource[]::new));
+        } catch (DataIntegrityViolationException e) {
+            throw new NotFoundException("User of a friendship batch not found");
+        }
+        jdbc.batchUpdate(DELETE_FRIENDSHIP, deleted.toArray(MapSqlParameterSource[]::new));
+    }
+
+    @Override
+    public List<User> getFriends(long userId) {
+        return withFriends(jdbc.query("""
+                SELECT %s
+                FROM friendships f
+                JOIN users u ON u.id = f.friend_id
+                WHERE f.user_id = :userId
+                ORDER BY u.id
+                """.formatted(USER_COLUMNS), Map.of("userId", userId), this::mapUser));
+    }
+
+    @Override
+    public List<User> getCommonFriends(long userId, long otherId) {
+        return withFriends(jdbc.query("""
+                SELECT %s
+                FROM friendships a
+                JOIN friendships b ON b.friend_id = a.friend_id AND b.user_id = :otherId
+                JOIN users u ON u.id = a.friend_id
+                WHERE a.user_id = :userId
+                ORDER BY u.id
+                """.formatted(USER_COLUMNS),
+                new MapSqlParameterSource("userId", userId).addValue("otherId", otherId),
+                this::mapUser));
+    }
+
+    @Override
+    public List<User> getFriendRecommendations(long userId, int limit) {
+        return withFriends(jdbc.query("""
+                SELECT %s, COUNT(*) AS mutual
+                FROM friendships a
+                JOIN friendships b ON b.user_id = a.friend_id
+                JOIN users u ON u.id = b.friend_id
+                WHERE a.user_id = :userId
+                  AND b.friend_id <> :userId
+                  AND NOT EXISTS (SELECT 1 FROM friendships c WHERE c.user_id = :userId AND c.friend_id = b.friend_id)
+                GROUP BY %s
+                ORDER BY mutual DESC, u.id
+                LIMIT :limit
+                """.formatted(USER_COLUMNS, USER_COLUMNS),
+                new MapSqlParameterSource("userId", userId).addValue("limit", limit),
+                this::mapUser));
+    }
+
+    @Override
+    public long countUsers() {
+        return jdbc.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM users", Long.class);
+    }
+
+    @Override
+    public long countFriendships() {
+        // Каждая пара лежит двумя строками
+        return jdbc.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM friendships", Long.class) / 2;
+    }
+
+    private List<User> withFriends(List<User> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        Map<Long, User> byId = index(users);
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+            jdbc.query("SELECT user_id, friend_id FROM friendships WHERE user_id IN (:ids)",
+                    Map.of("ids", ids.subList(from, Math.min(ids.size(), from + MAX_IN_LIST))),
+                    rs -> {
+                        byId.get(rs.getLong("user_id")).getFriends().add(rs.getLong("friend_id"));
+                    }
+            );
+        }
+        return users;
+    }
+
+    private static Map<Long, User> index(List<User> users) {
+        Map<Long, User> byId = new HashMap<>(users.size() * 2);
+        for (User user : users) {
+            byId.put(user.getId(), user);
+        }
+        return byId;
+    }
+
+    private User mapUser(ResultSet rs, int rowNum) throws SQLException {
+        User user = new User();
+        user.setId(rs.getLong("id"));
+        user.setEmail(rs.getString("email"));
+        user.setLogin(rs.getString("login"));
+        user.setName(rs.getString("name"));
+        Date birthday = rs.getDate("birthday");
+        user.setBirthday(birthday == null ? null : birthday.toLocalDate());
+        return user;
+    }
+
+    private static User copyOf(User user) {
+        User newUser = new User();
+        newUser.setEmail(user.getEmail());
+        newUser.setLogin(user.getLogin());
+        newUser.setName(user.getName());
+        newUser.setBirthday(user.getBirthday());
+        return newUser;
+    }
+
+    private static MapSqlParameterSource userParams(User user) {
+        return new MapSqlParameterSource()
+                .addValue("email", user.getEmail())
+                .addValue("login", user.getLogin())
+                .addValue("name", user.getName())
+                .addValue("birthday", user.getBirthday());
+    }
+
+    private static MapSqlParameterSource[] edge(long userId, long friendId) {
+        return new MapSqlParameterSource[]{
+                new MapSqlParameterSource("userId", userId).addValue("friendId", friendId),
+                new MapSqlParameterSource("userId", friendId).addValue("friendId", userId)
+        };
+    }
+}
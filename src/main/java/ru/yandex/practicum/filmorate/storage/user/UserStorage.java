@@ -1,16 +1,47 @@
 package ru.yandex.practicum.filmorate.storage.user;
 
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserStorage {
     User createUser(User user);
 
+    // Пакетная вставка: id назначаются всей пачке сразу, пользователи возвращаются в исходном порядке
+    List<User> createUsers(List<User> users);
+
     User updateUser(User user);
 
     Collection<User> getAllUsers();
 
     Optional<User> getUserById(Long id);
+
+    // Пакетное чтение: найденные пользователи в порядке запроса, повторы – один раз, неизвестные id пропускаются
+    List<User> getUsersByIds(Collection<Long> ids);
+
+    // Страница пользователей по возрастанию id, начиная сразу после afterId
+    List<User> getUsers(long afterId, int limit);
+
+    // Дружба симметрична: ребро добавляется и удаляется сразу в обе стороны
+    void addFriend(long userId, long friendId);
+
+    void removeFriend(long userId, long friendId);
+
+    // Пакетное применение дружб, каждое ребро симметрично
+    void applyFriendships(List<EdgeChange> changes);
+
+    List<User> getFriends(long userId);
+
+    List<User> getCommonFriends(long userId, long otherId);
+
+    // Друзья друзей, которые ещё не в друзьях, по убыванию числа общих друзей, при равенстве – по id
+    List<User> getFriendRecommendations(long userId, int limit);
+
+    long countUsers();
+
+    // Число пар друзей, каждое симметричное ребро считается один раз
+    long countFriendships();
 }
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch: приближённые счётчики по ключам {@code long} в памяти фиксированного размера.
+ *
+ * <p>Таблица {@code depth × width}: ключ попадает в одну ячейку каждой строки, оценка – минимум по строкам.
+ * Пока истинные счётчики неотрицательны (уменьшение не уводит ключ ниже нуля), оценка не меньше
+ * истинной и с вероятностью {@code 1 − δ} превышает её не больше чем на {@code ε·N}, где N – сумма
+ * всех счётчиков. Для этого {@code width = ⌈e/ε⌉} (с округлением до степени двойки),
+ * {@code depth = ⌈ln(1/δ)⌉}.
+ *
+ * <p>Потокобезопасен: ячейки меняются атомарно, без блокировок.
+ */
+public class CountMinSketch {
+    private final int depth;
+    private final int width;
+    private final long[] seeds;
+    private final AtomicLongArray cells;
+    private final AtomicLong total = new AtomicLong();
+
+    public CountMinSketch(double epsilon, double delta) {
+        if (epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("epsilon и delta должны быть в интервале (0, 1)");
+        }
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        this.width = Integer.highestOneBit((int) Math.ceil(Math.E / epsilon) - 1) << 1;
+        this.seeds = new long[depth];
+        for (int row = 0; row < depth; row++) {
+            seeds[row] = mix(0x9E3779B97F4A7C15L * (row + 1));
+        }
+        this.cells = new AtomicLongArray(depth * width);
+    }
+
+    public void add(long key, long delta) {
+        for (int row = 0; row < depth; row++) {
+            cells.addAndGet(cell(row, key), delta);
+        }
+        total.addAndGet(delta);
+    }
+
+    public long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, cells.get(cell(row, key)));
+        }
+        return estimate;
+    }
+
+    // Сумма всех счётчиков – N в оценке погрешности
+    public long total() {
+        return total.get();
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    private int cell(int row, long key) {
+        return row * width + (int) (mix(key ^ seeds[row]) & (width - 1));
+    }
+
+    // Финальное перемешивание MurmurHash3: соседние id расходятся по разным ячейкам
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,215 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Приближённый топ ключей по сумме весов в памяти фиксированного размера.
+ *
+ * <p>Кандидатов держит Space-Saving: {@code capacity} отслеживаемых ключей, новый ключ вытесняет
+ * ключ с наименьшим счётчиком и наследует этот счётчик. Любой ключ с весом больше {@code N/capacity}
+ * гарантированно отслеживается. Оценка ключа – минимум из его счётчика Space-Saving и оценки
+ * {@link CountMinSketch}: обе – верхние границы истинного веса.
+ *
+ * <p>Отрицательный вес (снятый лайк) вычитается из скетча и из счётчика отслеживаемого ключа;
+ * вытеснение происходит только при положительных весах. Пока вес ключа не уходит ниже нуля,
+ * оценки остаются верхними границами.
+ *
+ * <p>Ключи разложены по {@code SHARDS} независимым сводкам со своими {@link ReentrantLock}, чтобы запись
+ * не упиралась в одну блокировку; скетч обновляется без блокировок.
+ */
+public class HeavyHitters {
+    private static final int SHARDS = 16;
+    private static final Comparator<Candidate> ORDER = Comparator
+            .comparingLong(Candidate::estimate).reversed()
+            .thenComparingLong(Candidate::key);
+
+    private final CountMinSketch sketch;
+    private final Summary[] shards = new Summary[SHARDS];
+    private final int capacity;
+
+    public HeavyHitters(int capacity, double epsilon, double delta) {
+        int perShard = Math.max(1, (capacity + SHARDS - 1) / SHARDS);
+        this.capacity = perShard * SHARDS;
+        this.sketch = new CountMinSketch(epsilon, delta);
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Summary(perShard);
+        }
+    }
+
+    public void add(long key, long weight) {
+        if (weight == 0) {
+            return;
+        }
+        sketch.add(key, weight);
+        shards[shard(key)].add(key, weight);
+    }
+
+    public long estimate(long key) {
+        long tracked = shards[shard(key)].count(key);
+        long estimate = sketch.estimate(key);
+        return tracked == Long.MIN_VALUE ? estimate : Math.min(tracked, estimate);
+    }
+
+    /**
+     * Не больше {@code count} ключей с наибольшей оценкой, при равенстве – меньший ключ первым.
+     * Ключи с нулевой оценкой не возвращаются.
+     */
+    public long[] top(int count) {
+        List<Candidate> candidates = new ArrayList<>(capacity);
+        for (Summary shard : shards) {
+            shard.forEach((key, tracked) -> {
+                long estimate = Math.min(tracked, sketch.estimate(key));
+                if (estimate > 0) {
+                    candidates.add(new Candidate(key, estimate));
+                }
+            });
+        }
+        candidates.sort(ORDER);
+        return candidates.stream()
+                .limit(count)
+                .mapToLong(Candidate::key)
+                .toArray();
+    }
+
+    // Сколько ключей отслеживается; топ длиннее этого не строится
+    public int capacity() {
+        return capacity;
+    }
+
+    // Сумма весов – N в гарантиях
+    public long total() {
+        return sketch.total();
+    }
+
+    private static int shard(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 60) & (SHARDS - 1);
+    }
+
+    private record Candidate(long key, long estimate) {
+    }
+
+    @FunctionalInterface
+    private interface SummaryConsumer {
+        void accept(long key, long count);
+    }
+
+    /**
+     * Одна сводка Space-Saving: двоичная куча по счётчику (минимум в корне) и индекс
+     * ключ → позиция в куче + 1 в {@link LongCounter}. Обновление – O(log capacity).
+     */
+    private static final class Summary {
+        private final long[] keys;
+        private final long[] counts;
+        private final LongCounter positions;
+        private final ReentrantLock lock = new ReentrantLock();
+        private int size;
+
+        private Summary(int capacity) {
+            this.keys = new long[capacity];
+            this.counts = new long[capacity];
+            this.positions = new LongCounter(capacity);
+        }
+
+        void add(long key, long weight) {
+            lock.lock();
+            try {
+                addUnlocked(key, weight);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Счётчик отслеживаемого ключа или Long.MIN_VALUE
+        long count(long key) {
+            lock.lock();
+            try {
+                int position = positions.get(key);
+                return position > 0 ? counts[position - 1] : Long.MIN_VALUE;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void forEach(SummaryConsumer action) {
+            lock.lock();
+            try {
+                for (int i = 0; i < size; i++) {
+                    action.accept(keys[i], counts[i]);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void addUnlocked(long key, long weight) {
+            int position = positions.get(key);
+            if (position > 0) {
+                int index = position - 1;
+                counts[index] += weight;
+                if (weight > 0) {
+                    siftDown(index);
+                } else {
+                    siftUp(index);
+                }
+            } else if (weight < 0) {
+                // Неотслеживаемый ключ уже учтён в наследуемых счётчиках – вычесть не из чего
+                return;
+            } else if (size < keys.length) {
+                keys[size] = key;
+                counts[size] = weight;
+                positions.add(key, size + 1);
+                siftUp(size++);
+            } else {
+                positions.remove(keys[0]);
+                keys[0] = key;
+                counts[0] += weight;
+                positions.add(key, 1);
+                siftDown(0);
+            }
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (counts[parent] <= counts[index]) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && counts[child + 1] < counts[child]) {
+                    child++;
+                }
+                if (counts[index] <= counts[child]) {
+                    return;
+                }
+                swap(index, child);
+                index = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long key = keys[a];
+            long count = counts[a];
+            keys[a] = keys[b];
+            counts[a] = counts[b];
+            keys[b] = key;
+            counts[b] = count;
+            // Позиции хранятся со сдвигом на единицу, поэтому достаточно прибавить разницу индексов
+            positions.add(keys[a], a - b);
+            positions.add(keys[b], b - a);
+        }
+    }
+}
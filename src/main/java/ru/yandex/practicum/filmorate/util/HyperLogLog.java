@@ -0,0 +1,227 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * HyperLogLog: оценка числа различных значений {@code long} в памяти фиксированного размера.
+ *
+ * <p>{@code m = 2^precision} регистров по байту, стандартная ошибка {@code 1.04/√m}
+ * (2.3% при точности 11 и 2 КБ регистров). Пока отличных от нуля регистров мало, они хранятся
+ * разреженно – парами «регистр, ранг» в {@code int}, не больше {@code m/8} пар (до {@code m/2} байт),
+ * поэтому малые множества занимают сотни байт. Оценка для малых множеств – линейный подсчёт
+ * по пустым регистрам; 64-битный хеш делает поправку для больших множеств ненужной.
+ *
+ * <p>Скетчи одной точности объединяются поэлементным максимумом: результат – оценка объединения
+ * множеств. Методы потокобезопасны: регистры меняются и копируются под {@link ReentrantLock} скетча,
+ * а запись в поток идёт из копии, уже без блокировки.
+ */
+public class HyperLogLog {
+    public static final int DEFAULT_PRECISION = 11;
+    private static final int MIN_PRECISION = 7;
+    private static final int MAX_PRECISION = 16;
+
+    private final int precision;
+    private final int registerCount;
+    private final ReentrantLock lock = new ReentrantLock();
+    private byte[] registers;
+    private int[] sparse;
+    private int sparseSize;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Точность HyperLogLog должна быть от 7 до 16: " + precision);
+        }
+        this.precision = precision;
+        this.registerCount = 1 << precision;
+        this.sparse = new int[8];
+    }
+
+    public void add(long value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        // Сторожевой бит ограничивает ранг значением 64 - precision + 1
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        lock.lock();
+        try {
+            setRegister(index, rank);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Добавляет в этот скетч все значения другого; другой не меняется
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Объединяются только скетчи одной точности");
+        }
+        int[] entries = other.entries();
+        lock.lock();
+        try {
+            for (int entry : entries) {
+                setRegister(entry >>> 8, entry & 0xFF);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        lock.lock();
+        try {
+            if (registers == null) {
+                zeros = registerCount - sparseSize;
+                sum = zeros;
+                for (int i = 0; i < sparseSize; i++) {
+                    sum += Math.scalb(1.0, -(sparse[i] & 0xFF));
+                }
+            } else {
+                for (byte register : registers) {
+                    sum += Math.scalb(1.0, -register);
+                    if (register == 0) {
+                        zeros++;
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        double alpha = 0.7213 / (1 + 1.079 / registerCount);
+        double estimate = alpha * registerCount * registerCount / sum;
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            estimate = registerCount * Math.log((double) registerCount / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    // Байты регистров: разреженные пары или плотный массив
+    public int sizeInBytes() {
+        lock.lock();
+        try {
+            return registers == null ? sparseSize * Integer.BYTES : registers.length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Регистры копируются под блокировкой, а пишутся без неё: медленный поток не задерживает add
+    public void writeTo(DataOutput out) throws IOException {
+        byte[] dense;
+        int[] pairs;
+        lock.lock();
+        try {
+            dense = registers == null ? null : registers.clone();
+            pairs = registers == null ? Arrays.copyOf(sparse, sparseSize) : null;
+        } finally {
+            lock.unlock();
+        }
+        out.writeByte(precision);
+        out.writeBoolean(dense != null);
+        if (dense != null) {
+            out.write(dense);
+        } else {
+            out.writeInt(pairs.length);
+            for (int pair : pairs) {
+                out.writeInt(pair);
+            }
+        }
+    }
+
+    public static HyperLogLog readFrom(DataInput in) throws IOException {
+        HyperLogLog sketch = new HyperLogLog(in.readByte());
+        if (in.readBoolean()) {
+            sketch.registers = new byte[sketch.registerCount];
+            in.readFully(sketch.registers);
+            sketch.sparse = null;
+        } else {
+            int size = in.readInt();
+            if (size < 0 || size > sketch.sparseLimit()) {
+                throw new IOException("Повреждённый скетч: " + size + " разреженных регистров");
+            }
+            sketch.sparse = new int[Math.max(8, size)];
+            for (int i = 0; i < size; i++) {
+                sketch.sparse[i] = in.readInt();
+            }
+            sketch.sparseSize = size;
+        }
+        return sketch;
+    }
+
+    // Ненулевые регистры парами (регистр << 8 | ранг)
+    private int[] entries() {
+        lock.lock();
+        try {
+            if (registers == null) {
+                return Arrays.copyOf(sparse, sparseSize);
+            }
+            int[] entries = new int[registerCount];
+            int count = 0;
+            for (int index = 0; index < registerCount; index++) {
+                if (registers[index] != 0) {
+                    entries[count++] = index << 8 | registers[index];
+                }
+            }
+            return Arrays.copyOf(entries, count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void setRegister(int index, int rank) {
+        if (registers != null) {
+            if (registers[index] < rank) {
+                registers[index] = (byte) rank;
+            }
+            return;
+        }
+        for (int i = 0; i < sparseSize; i++) {
+            if (sparse[i] >>> 8 == index) {
+                if ((sparse[i] & 0xFF) < rank) {
+                    sparse[i] = index << 8 | rank;
+                }
+                return;
+            }
+        }
+        if (sparseSize == sparseLimit()) {
+            densify();
+            registers[index] = (byte) rank;
+            return;
+        }
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, sparse.length * 2);
+        }
+        sparse[sparseSize++] = index << 8 | rank;
+    }
+
+    private void densify() {
+        registers = new byte[registerCount];
+        for (int i = 0; i < sparseSize; i++) {
+            registers[sparse[i] >>> 8] = (byte) (sparse[i] & 0xFF);
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    private int sparseLimit() {
+        return registerCount / 8;
+    }
+
+    // Финальное перемешивание MurmurHash3: последовательные id дают независимые биты
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,219 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.Arrays;
+
+/**
+ * Счётчики по ключам {@code long} без упаковки: ключи и значения лежат в параллельных массивах
+ * с открытой адресацией (линейное пробирование, заполнение до 3/4).
+ *
+ * <p>Не потокобезопасен – рассчитан на один запрос. Ключ {@code Long.MIN_VALUE} занят под пустую ячейку.
+ */
+public class LongCounter {
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] counts;
+    private int size;
+
+    public LongCounter() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongCounter(int expectedSize) {
+        allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize * 4 / 3)) << 1));
+    }
+
+    // Увеличивает счётчик ключа на единицу и возвращает новое значение
+    public int increment(long key) {
+        return add(key, 1);
+    }
+
+    public int add(long key, int delta) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Ключ Long.MIN_VALUE не поддерживается");
+        }
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            return counts[slot] += delta;
+        }
+        keys[slot] = key;
+        counts[slot] = delta;
+        if (++size > keys.length / 4 * 3) {
+            grow();
+        }
+        return delta;
+    }
+
+    // Прибавляет счётчики другого набора (слияние частичных результатов)
+    public void addAll(LongCounter other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != EMPTY) {
+                add(other.keys[i], other.counts[i]);
+            }
+        }
+    }
+
+    public void forEach(EntryConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                action.accept(keys[i], counts[i]);
+            }
+        }
+    }
+
+    public int get(long key) {
+        int slot = slot(key);
+        return keys[slot] == key ? counts[slot] : 0;
+    }
+
+    // Удаляет ключ и возвращает его прежний счётчик (0, если ключа не было)
+    public int remove(long key) {
+        int slot = slot(key);
+        if (keys[slot] != key) {
+            return 0;
+        }
+        int count = counts[slot];
+        shiftBack(slot);
+        size--;
+        return count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Не больше {@code limit} ключей с наибольшими счётчиками, при равенстве – меньший ключ первым.
+     *
+     * <p>Отбор идёт через кучу из {@code limit} ячеек, поэтому весь набор не сортируется.
+     */
+    public long[] topKeys(int limit) {
+        int capacity = Math.min(limit, size);
+        if (capacity <= 0) {
+            return new long[0];
+        }
+        // Вершина кучи – худший из отобранных
+        int[] heap = new int[capacity];
+        int heapSize = 0;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == EMPTY) {
+                continue;
+            }
+            if (heapSize < capacity) {
+                heap[heapSize] = slot;
+                siftUp(heap, heapSize++);
+            } else if (better(slot, heap[0])) {
+                heap[0] = slot;
+                siftDown(heap, heapSize);
+            }
+        }
+        long[] result = new long[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            result[i] = keys[heap[0]];
+            heap[0] = heap[i];
+            siftDown(heap, i);
+        }
+        return result;
+    }
+
+    private boolean better(int slot, int other) {
+        return counts[slot] > counts[other] || counts[slot] == counts[other] && keys[slot] < keys[other];
+    }
+
+    private void siftUp(int[] heap, int index) {
+        int slot = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(heap[parent], slot)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    private void siftDown(int[] heap, int heapSize) {
+        int index = 0;
+        int slot = heap[0];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && better(heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!better(slot, heap[child])) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = slot;
+    }
+
+    // Удаление без «надгробий», как в LongHashSet: сдвигаем назад ключи, попавшие дальше своего слота
+    private void shiftBack(int hole) {
+        int mask = keys.length - 1;
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            long current = keys[index];
+            if (current == EMPTY) {
+                break;
+            }
+            int home = home(current, mask);
+            boolean movable = hole <= index
+                    ? home <= hole || home > index
+                    : home <= hole && home > index;
+            if (movable) {
+                keys[hole] = current;
+                counts[hole] = counts[index];
+                hole = index;
+            }
+        }
+        keys[hole] = EMPTY;
+        counts[hole] = 0;
+    }
+
+    // Ячейка ключа или первая пустая на его пути
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = home(key, mask);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int home(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        counts = new int[capacity];
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int count);
+    }
+}
@@ -0,0 +1,378 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongConsumer;
+
+/**
+ * Потокобезопасное множество примитивных {@code long} с открытой адресацией.
+ *
+ * <p>Значения лежат прямо в массиве {@code long[]} (линейное пробирование, заполнение до 3/4),
+ * поэтому ребро графа лайков или дружбы занимает 8–16 байт вместо ~48 байт у {@code HashSet<Long>}.
+ * Для совместимости множество реализует {@code Set<Long>} и сериализуется в JSON так же, как обычное.
+ *
+ * <p>Запись идёт под блокировкой на запись, чтение — оптимистично без блокировки.
+ * Итератор обходит снимок значений на момент своего создания.
+ */
+public class LongHashSet extends AbstractSet<Long> {
+    // Long.MIN_VALUE занят под пустую ячейку и хранится отдельным флагом
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final long[] NO_VALUES = new long[0];
+    private static final int MIN_CAPACITY = 4;
+
+    private final StampedLock lock = new StampedLock();
+
+    private long[] table = NO_VALUES;
+    private int size;
+    private boolean containsEmptyKey;
+
+    public LongHashSet() {
+    }
+
+    public LongHashSet(int expectedSize) {
+        if (expectedSize > 0) {
+            table = newTable(capacityFor(expectedSize));
+        }
+    }
+
+    // Копия другого LongHashSet – это копия его таблицы, без пересчёта хешей
+    public LongHashSet(Collection<Long> values) {
+        if (values instanceof LongHashSet other) {
+            long stamp = other.lock.readLock();
+            try {
+                table = other.table.length == 0 ? NO_VALUES : other.table.clone();
+                size = other.size;
+                containsEmptyKey = other.containsEmptyKey;
+            } finally {
+                other.lock.unlockRead(stamp);
+            }
+            return;
+        }
+        if (!values.isEmpty()) {
+            table = newTable(capacityFor(values.size()));
+        }
+        for (Long value : values) {
+            addUnlocked(value);
+        }
+    }
+
+    public boolean contains(long value) {
+        long stamp = lock.tryOptimisticRead();
+        boolean result = containsUnlocked(value);
+        if (lock.validate(stamp)) {
+            return result;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return containsUnlocked(value);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean add(long value) {
+        long stamp = lock.writeLock();
+        try {
+            return addUnlocked(value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(long value) {
+        long stamp = lock.writeLock();
+        try {
+            return removeUnlocked(value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Снимок значений в произвольном порядке
+    public long[] toLongArray() {
+        long stamp = lock.tryOptimisticRead();
+        long[] result = copyValues();
+        if (lock.validate(stamp)) {
+            return result;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return copyValues();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Пересечение с другим множеством; оба множества не изменяются.
+     *
+     * <p>Обходится снимок меньшего множества, а членство проверяется в большем,
+     * поэтому стоимость O(min(|a|, |b|)).
+     */
+    public long[] intersection(LongHashSet other) {
+        LongHashSet smaller = size() <= other.size() ? this : other;
+        LongHashSet larger = smaller == this ? other : this;
+
+        long[] candidates = smaller.toLongArray();
+        int count = 0;
+        for (long value : candidates) {
+            if (larger.contains(value)) {
+                candidates[count++] = value;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    public void forEachLong(LongConsumer action) {
+        for (long value : toLongArray()) {
+            action.accept(value);
+        }
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int result = size;
+        if (lock.validate(stamp)) {
+            return result;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long value && contains(value.longValue());
+    }
+
+    @Override
+    public boolean add(Long value) {
+        return add(value.longValue());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Long value && remove(value.longValue());
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = NO_VALUES;
+            size = 0;
+            containsEmptyKey = false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new SnapshotIterator(toLongArray());
+    }
+
+    private boolean containsUnlocked(long value) {
+        if (value == EMPTY) {
+            return containsEmptyKey;
+        }
+        long[] t = table;
+        if (t.length == 0) {
+            return false;
+        }
+
+        int mask = t.length - 1;
+        int index = slot(value, mask);
+        // Ограничиваем число проб длиной таблицы: при оптимистичном чтении массив может меняться
+        for (int probe = 0; probe < t.length; probe++) {
+            long current = t[index];
+            if (current == value) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    private boolean addUnlocked(long value) {
+        if (value == EMPTY) {
+            if (containsEmptyKey) {
+                return false;
+            }
+            containsEmptyKey = true;
+            size++;
+            return true;
+        }
+        if (tableSize() + 1 > maxFill(table.length)) {
+            resize(capacityFor(tableSize() + 1));
+        }
+
+        long[] t = table;
+        int mask = t.length - 1;
+        int index = slot(value, mask);
+        while (t[index] != EMPTY) {
+            if (t[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        t[index] = value;
+        size++;
+        return true;
+    }
+
+    private boolean removeUnlocked(long value) {
+        if (value == EMPTY) {
+            if (!containsEmptyKey) {
+                return false;
+            }
+            containsEmptyKey = false;
+            size--;
+            return true;
+        }
+        long[] t = table;
+        if (t.length == 0) {
+            return false;
+        }
+
+        int mask = t.length - 1;
+        int index = slot(value, mask);
+        while (t[index] != value) {
+            if (t[index] == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        shiftBack(t, index, mask);
+        size--;
+        return true;
+    }
+
+    // Удаление без «надгробий»: сдвигаем назад элементы, которые попали дальше своего слота
+    private static void shiftBack(long[] t, int hole, int mask) {
+        int index = hole;
+        while (true) {
+            index = (index + 1) & mask;
+            long current = t[index];
+            if (current == EMPTY) {
+                break;
+            }
+            int home = slot(current, mask);
+            boolean movable = hole <= index
+                    ? home <= hole || home > index
+                    : home <= hole && home > index;
+            if (movable) {
+                t[hole] = current;
+                hole = index;
+            }
+        }
+        t[hole] = EMPTY;
+    }
+
+    private void resize(int capacity) {
+        long[] old = table;
+        long[] t = newTable(capacity);
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value != EMPTY) {
+                int index = slot(value, mask);
+                while (t[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                t[index] = value;
+            }
+        }
+        table = t;
+    }
+
+    private long[] copyValues() {
+        long[] t = table;
+        boolean withEmptyKey = containsEmptyKey;
+        long[] result = new long[Math.min(size, t.length + 1)];
+        int count = 0;
+
+        if (withEmptyKey && count < result.length) {
+            result[count++] = EMPTY;
+        }
+        for (long value : t) {
+            if (value != EMPTY && count < result.length) {
+                result[count++] = value;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private int tableSize() {
+        return containsEmptyKey ? size - 1 : size;
+    }
+
+    private static int slot(long value, int mask) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int maxFill(int capacity) {
+        return capacity - (capacity >>> 2);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (maxFill(capacity) < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static long[] newTable(int capacity) {
+        long[] t = new long[capacity];
+        Arrays.fill(t, EMPTY);
+        return t;
+    }
+
+    private final class SnapshotIterator implements Iterator<Long> {
+        private final long[] values;
+        private int next;
+        private boolean canRemove;
+
+        private SnapshotIterator(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public Long next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            canRemove = true;
+            return values[next++];
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            canRemove = false;
+            LongHashSet.this.remove(values[next - 1]);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разбиение текста на слова для поиска.
+ *
+ * <p>Слово – непрерывная последовательность букв и цифр любого алфавита, поэтому русский и английский
+ * текст режутся одинаково. Слова приводятся к нижнему регистру, «ё» заменяется на «е»:
+ * запросы «Ёжик» и «ежик» находят одно и то же.
+ */
+public final class TextTokens {
+    private TextTokens() {
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                token.appendCodePoint(fold(codePoint));
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static int fold(int codePoint) {
+        int lower = Character.toLowerCase(codePoint);
+        return lower == 'ё' ? 'е' : lower;
+    }
+}
@@ -0,0 +1,43 @@
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email    VARCHAR(255) NOT NULL,
+    login    VARCHAR(255) NOT NULL,
+    name     VARCHAR(255),
+    birthday DATE
+);
+
+CREATE TABLE IF NOT EXISTS films (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(255) NOT NULL,
+    description  VARCHAR(200),
+    release_date DATE,
+    duration     INTEGER,
+    -- Денормализованный счётчик лайков: топ фильмов читается по индексу без GROUP BY
+    likes_count  INTEGER      NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS films_popularity_idx ON films (likes_count DESC, id);
+
+CREATE TABLE IF NOT EXISTS film_likes (
+    film_id  BIGINT                   NOT NULL REFERENCES films (id) ON DELETE CASCADE,
+    user_id  BIGINT                   NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    liked_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (film_id, user_id)
+);
+
+-- Базы, созданные до появления трендов: прежним лайкам достаётся время миграции
+ALTER TABLE film_likes ADD COLUMN IF NOT EXISTS liked_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS film_likes_user_idx ON film_likes (user_id);
+
+-- Тренды читают только лайки за последнее окно
+CREATE INDEX IF NOT EXISTS film_likes_time_idx ON film_likes (liked_at);
+
+-- Дружба симметрична и хранится двумя строками: (a, b) и (b, a)
+CREATE TABLE IF NOT EXISTS friendships (
+    user_id   BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    friend_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    PRIMARY KEY (user_id, friend_id)
+);
+
+CREATE INDEX IF NOT EXISTS friendships_friend_idx ON friendships (friend_id);
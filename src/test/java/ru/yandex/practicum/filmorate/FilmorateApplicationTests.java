@@ -1,13 +1,26 @@
 package ru.yandex.practicum.filmorate;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 class FilmorateApplicationTests {
+    @Autowired
+    ApplicationContext context;
 
     @Test
     void contextLoads() {
     }
 
+    @Test
+    void inMemoryProfileStartsWithoutDatabase() {
+        assertThat(context.getBeanNamesForType(DataSource.class)).isEmpty();
+    }
+
 }
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.controller.bulk;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.service.bulk.BulkFormat;
+import ru.yandex.practicum.filmorate.service.bulk.BulkImportReport;
+import ru.yandex.practicum.filmorate.service.bulk.BulkImportService;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = BulkImportController.class)
+class BulkImportControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BulkImportService bulkImportService;
+
+    @Test
+    @DisplayName("POST /import/films с телом CSV возвращает HTTP-ответ со статусом 200 и отчётом по строкам")
+    void importFilms_ReturnsReport() throws Exception {
+        when(bulkImportService.importFilms(any(), eq(BulkFormat.CSV))).thenReturn(new BulkImportReport(2, 1, 1,
+                List.of(new BulkImportReport.RowError(3, "name: name не должно состоять из пробелов")), false));
+
+        mockMvc.perform(post("/import/films")
+                        .contentType("text/csv")
+                        .content("name,releaseDate,duration\nfilm,2000-01-01,100\n,2000-01-01,100\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    @DisplayName("POST /import/likes с телом JSON возвращает HTTP-ответ со статусом 415")
+    void importLikes_ReturnsUnsupportedMediaType_WhenBodyIsJson() throws Exception {
+        mockMvc.perform(post("/import/likes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"filmId\":1,\"userId\":1}]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(bulkImportService);
+    }
+}
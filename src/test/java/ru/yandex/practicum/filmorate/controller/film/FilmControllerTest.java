@@ -8,23 +8,30 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.stats.FilmLikerStats;
+import ru.yandex.practicum.filmorate.storage.film.TrendWindow;
 
 import java.time.LocalDate;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = FilmController.class)
@@ -72,6 +79,115 @@ class FilmControllerTest {
         verifyNoInteractions(filmService);
     }
 
+    @Test
+    @DisplayName("GET /films/popular возвращает HTTP-ответ со статусом 400, если count больше 1000")
+    void getPopularFilms_ReturnsBadRequestWhenCountTooLarge() throws Exception {
+        mockMvc.perform(get("/films/popular").param("count", "1001"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.count").value("count не может быть больше 1000"));
+
+        verifyNoInteractions(filmService);
+    }
+
+
+    @Test
+    @DisplayName("GET /films/popular?approx=true возвращает HTTP-ответ со статусом 200 OK и приближённый топ")
+    void getPopularFilms_UsesApproxPathWhenRequested() throws Exception {
+        Film film = new Film();
+        film.setId(4L);
+        film.setName("Approx");
+
+        when(filmService.getApproxPopularFilms(3)).thenReturn(List.of(film));
+
+        mockMvc.perform(get("/films/popular").param("count", "3").param("approx", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Approx"));
+
+        verify(filmService, never()).getPopularFilms(3);
+    }
+
+    @Test
+    @DisplayName("GET /films/trending?window=1h возвращает HTTP-ответ со статусом 200 OK и фильмы за последний час")
+    void getTrendingFilms_ReturnsOkWithFilmsForWindow() throws Exception {
+        Film film = new Film();
+        film.setId(3L);
+        film.setName("Trending");
+
+        when(filmService.getTrendingFilms(TrendWindow.HOUR, 10)).thenReturn(List.of(film));
+
+        mockMvc.perform(get("/films/trending").param("window", "1h"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Trending"));
+    }
+
+    @Test
+    @DisplayName("GET /films/trending с неизвестным окном возвращает HTTP-ответ со статусом 400")
+    void getTrendingFilms_ReturnsBadRequestWhenWindowUnknown() throws Exception {
+        mockMvc.perform(get("/films/trending").param("window", "2h"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(filmService);
+    }
+
+    @Test
+    @DisplayName("GET /films/trending возвращает HTTP-ответ со статусом 400, если count больше 1000")
+    void getTrendingFilms_ReturnsBadRequestWhenCountTooLarge() throws Exception {
+        mockMvc.perform(get("/films/trending").param("count", "1001"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.count").value("count не может быть больше 1000"));
+
+        verifyNoInteractions(filmService);
+    }
+
+    @Test
+    @DisplayName("GET /films/popular и /films/trending принимают count, равный 1000")
+    void getPopularAndTrendingFilms_AcceptCountAtLimit() throws Exception {
+        when(filmService.getPopularFilms(1000)).thenReturn(List.of());
+        when(filmService.getTrendingFilms(TrendWindow.DAY, 1000)).thenReturn(List.of());
+
+        mockMvc.perform(get("/films/popular").param("count", "1000"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/films/trending").param("count", "1000"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("GET /films/{id}/stats/likers возвращает HTTP-ответ со статусом 200 и оценку за период")
+    void getLikerStats_ReturnsOkWithEstimate() throws Exception {
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 7);
+        when(filmService.getLikerStats(3L, from, to)).thenReturn(new FilmLikerStats(3L, from, to, 42,
+                List.of(new FilmLikerStats.DailyLikers(from, 42))));
+
+        mockMvc.perform(get("/films/3/stats/likers").param("from", "2024-03-01").param("to", "2024-03-07"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.uniqueLikers").value(42))
+                .andExpect(jsonPath("$.days[0].date").value("2024-03-01"));
+    }
+
+    @Test
+    @DisplayName("GET /films/search?q= возвращает HTTP-ответ со статусом 200 и найденные фильмы")
+    void searchFilms_ReturnsOkWithMatches() throws Exception {
+        Film film = new Film();
+        film.setId(7L);
+        film.setName("The Matrix");
+
+        when(filmService.searchFilms("matr", 20)).thenReturn(List.of(film));
+
+        mockMvc.perform(get("/films/search").param("q", "matr"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("The Matrix"));
+    }
+
+    @Test
+    @DisplayName("GET /films/search?q= с пустым запросом возвращает HTTP-ответ со статусом 400 и описанием ошибки 'q не может быть пустым'")
+    void searchFilms_ReturnsBadRequestWhenQueryBlank() throws Exception {
+        mockMvc.perform(get("/films/search").param("q", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.q").value("q не может быть пустым"));
+
+        verifyNoInteractions(filmService);
+    }
 
     @Test
     @DisplayName("POST /films возвращает HTTP-ответ со статусом 200 и созданный film обратно")
@@ -249,6 +365,65 @@ class FilmControllerTest {
         verifyNoMoreInteractions(filmService);
     }
 
+    @Test
+    @DisplayName("GET /films?after=&limit= возвращает HTTP-ответ со статусом 200 и страницей фильмов после курсора")
+    void getAllFilms_ReturnsPageWhenCursorGiven() throws Exception {
+        Film film = new Film();
+        film.setId(43L);
+        film.setName("Next Film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+
+        when(filmService.getFilmsPage(42L, 1)).thenReturn(List.of(film));
+
+        mockMvc.perform(get("/films").param("after", "42").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(43));
+
+        verify(filmService).getFilmsPage(42L, 1);
+        verifyNoMoreInteractions(filmService);
+    }
+
+    @Test
+    @DisplayName("GET /films?limit=0 возвращает HTTP-ответ со статусом 400 и описанием ошибки 'limit должен быть положительным'")
+    void getAllFilms_ReturnsBadRequestWhenLimitNotPositive() throws Exception {
+        mockMvc.perform(get("/films").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.limit").value("limit должен быть положительным"));
+
+        verifyNoInteractions(filmService);
+    }
+
+    @Test
+    @DisplayName("GET /films c Accept: application/x-ndjson отдаёт фильмы построчно, читая хранилище страницами")
+    void streamAllFilms_WritesNdjsonPageByPage() throws Exception {
+        Film first = new Film();
+        first.setId(1L);
+        first.setName("First");
+        Film second = new Film();
+        second.setId(2L);
+        second.setName("Second");
+
+        when(filmService.getFilmsPage(0L, 500)).thenReturn(List.of(first, second));
+        when(filmService.getFilmsPage(2L, 500)).thenReturn(List.of());
+
+        MvcResult result = mockMvc.perform(get("/films").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], Film.class).getName()).isEqualTo("First");
+        assertThat(objectMapper.readValue(lines[1], Film.class).getName()).isEqualTo("Second");
+        verify(filmService, never()).getAllFilms();
+    }
+
     @Test
     @DisplayName("PUT /films/{id}/like/{userId} возвращает HTTP-ответ со статусом 200")
     void addUserLike_ReturnsOkAndDelegatesToService() throws Exception {
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.controller.user;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.util.List;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = FilmRecommendationsController.class)
+class FilmRecommendationsControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private FilmService filmService;
+
+    @Test
+    @DisplayName("GET /users/{id}/film-recommendations?limit=3 возвращает HTTP-ответ со статусом 200 и рекомендованные фильмы")
+    void getFilmRecommendations_ReturnsOkWithPayload() throws Exception {
+        Film film = new Film();
+        film.setId(8L);
+        film.setName("Recommended");
+
+        when(filmService.getRecommendations(1L, 3)).thenReturn(List.of(film));
+
+        mockMvc.perform(get("/users/{id}/film-recommendations", 1L).param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Recommended"));
+    }
+
+    @Test
+    @DisplayName("GET /users/{id}/film-recommendations возвращает HTTP-ответ со статусом 400, если id отрицательный")
+    void getFilmRecommendations_ReturnsBadRequestWhenIdNegative() throws Exception {
+        mockMvc.perform(get("/users/{id}/film-recommendations", -1L))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.id").value("id пользователя не может быть отрицательным"));
+
+        verifyNoInteractions(filmService);
+    }
+}
@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.controller.user;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.util.List;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = LikedFilmsController.class)
+class LikedFilmsControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private FilmService filmService;
+
+    @Test
+    @DisplayName("GET /users/{id}/likes?after= возвращает HTTP-ответ со статусом 200 и страницу лайкнутых фильмов после курсора")
+    void getLikedFilms_ReturnsPageAfterCursor() throws Exception {
+        Film film = new Film();
+        film.setId(21L);
+        film.setName("Liked");
+
+        when(filmService.getLikedFilms(1L, 20L, 100)).thenReturn(List.of(film));
+
+        mockMvc.perform(get("/users/{id}/likes", 1L).param("after", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(21));
+    }
+
+    @Test
+    @DisplayName("GET /users/{id}/likes?limit=5000 возвращает HTTP-ответ со статусом 400 и описанием ошибки 'limit не может быть больше 1000'")
+    void getLikedFilms_ReturnsBadRequestWhenLimitTooLarge() throws Exception {
+        mockMvc.perform(get("/users/{id}/likes", 1L).param("limit", "5000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.limit").value("limit не может быть больше 1000"));
+
+        verifyNoInteractions(filmService);
+    }
+}
@@ -8,21 +8,26 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.time.LocalDate;
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = UserController.class)
@@ -136,5 +141,77 @@ class UserControllerTest {
         verify(userService).getAllUsers();
     }
 
+    @Test
+    @DisplayName("GET /users?after=&limit= возвращает HTTP-ответ со статусом 200 и страницей пользователей после курсора")
+    void getAllUsers_ReturnsPageWhenCursorGiven() throws Exception {
+        User user = new User();
+        user.setId(11L);
+        user.setLogin("next");
+
+        when(userService.getUsersPage(10L, 100)).thenReturn(List.of(user));
+
+        mockMvc.perform(get("/users").param("after", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(11));
+
+        verify(userService).getUsersPage(10L, 100);
+        verify(userService, never()).getAllUsers();
+    }
+
+    @Test
+    @DisplayName("GET /users?limit=5000 возвращает HTTP-ответ со статусом 400 и описанием ошибки 'limit не может быть больше 1000'")
+    void getAllUsers_ReturnsBadRequestWhenLimitTooLarge() throws Exception {
+        mockMvc.perform(get("/users").param("limit", "5000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.limit").value("limit не может быть больше 1000"));
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("GET /users/{id}/recommendations возвращает HTTP-ответ со статусом 200 и рекомендованных пользователей")
+    void getRecommendations_ReturnsOkWithPayload() throws Exception {
+        User user = new User();
+        user.setId(4L);
+        user.setLogin("recommended");
+
+        when(userService.getRecommendations(1L, 10)).thenReturn(List.of(user));
+
+        mockMvc.perform(get("/users/{id}/recommendations", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].login").value("recommended"));
+    }
+
+    @Test
+    @DisplayName("GET /users/{id}/recommendations?limit=500 возвращает HTTP-ответ со статусом 400 и описанием ошибки 'limit не может быть больше 100'")
+    void getRecommendations_ReturnsBadRequestWhenLimitTooLarge() throws Exception {
+        mockMvc.perform(get("/users/{id}/recommendations", 1L).param("limit", "500"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.limit").value("limit не может быть больше 100"));
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("GET /users c Accept: application/x-ndjson отдаёт пользователей построчно")
+    void streamAllUsers_WritesNdjson() throws Exception {
+        User user = new User();
+        user.setId(3L);
+        user.setLogin("streamed");
+
+        when(userService.getUsersPage(0L, 500)).thenReturn(List.of(user));
+        when(userService.getUsersPage(3L, 500)).thenReturn(List.of());
+
+        MvcResult result = mockMvc.perform(get("/users").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"login\":\"streamed\"")));
+
+        verify(userService).getUsersPage(3L, 500);
+    }
+
 
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void scrapeContainsTimersGaugesAndCacheCounters() throws Exception {
+        User user = new User();
+        user.setEmail("metrics@example.com");
+        user.setLogin("metrics");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        User created = userService.createUser(user);
+        userService.getFriends(created.getId());
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .contains("filmorate_service_seconds_bucket{")
+                .containsPattern("filmorate_service_seconds\\{.*method=\"createUser\",quantile=\"0.99\"")
+                .containsPattern("filmorate_storage_seconds_count\\{.*method=\"createUser\"")
+                .containsPattern("filmorate_catalogue_users [1-9]")
+                .contains("filmorate_edges{type=\"friendship\"")
+                .contains("filmorate_cache_requests_total{cache=\"friends\",result=\"miss\"");
+    }
+}
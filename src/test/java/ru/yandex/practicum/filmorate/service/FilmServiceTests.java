@@ -4,16 +4,26 @@ package ru.yandex.practicum.filmorate.service;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.ApplicationEventPublisher;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.yandex.practicum.filmorate.exception.FilmNotFoundException;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.cache.ReadCache;
+import ru.yandex.practicum.filmorate.service.cache.ReadCacheProperties;
+import ru.yandex.practicum.filmorate.service.edge.EdgeWriter;
+import ru.yandex.practicum.filmorate.service.event.FilmChangedEvent;
+import ru.yandex.practicum.filmorate.service.stats.FilmLikeStats;
+import ru.yandex.practicum.filmorate.service.stats.FilmLikerStats;
 import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
@@ -35,6 +45,18 @@ class FilmServiceTests {
     @Mock
     UserStorage userStorage;
 
+    @Mock
+    EdgeWriter edgeWriter;
+
+    @Mock
+    ApplicationEventPublisher events;
+
+    @Spy
+    ReadCache readCache = new ReadCache(new ReadCacheProperties(true, 100, Duration.ofMinutes(1)));
+
+    @Spy
+    FilmLikeStats likeStats = new FilmLikeStats();
+
     @InjectMocks
     FilmService filmService;
 
@@ -42,12 +64,14 @@ class FilmServiceTests {
     @Test
     void createFilmDelegatesToStorage() {
         Film film = new Film();
+        film.setId(3L);
         when(filmStorage.createFilm(film)).thenReturn(film);
 
         Film created = filmService.createFilm(film);
 
         assertThat(created).isSameAs(film);
         verify(filmStorage).createFilm(film);
+        verify(events).publishEvent(new FilmChangedEvent(3L));
     }
 
 
@@ -74,6 +98,7 @@ class FilmServiceTests {
 
         assertThat(updated).isSameAs(film);
         verify(filmStorage).updateFilm(film);
+        verify(events).publishEvent(new FilmChangedEvent(8L));
     }
 
     @Test
@@ -104,6 +129,7 @@ class FilmServiceTests {
 
         verify(userStorage).getUserById(10L);
         verify(filmStorage).getFilmById(3L);
+        verify(edgeWriter).setLike(3L, 10L, true);
     }
 
     @Test
@@ -123,6 +149,30 @@ class FilmServiceTests {
 
         assertThatThrownBy(() -> filmService.addUserLike(4L, 2L))
                 .isInstanceOf(FilmNotFoundException.class);
+
+        verify(edgeWriter, never()).setLike(4L, 2L, true);
+    }
+
+    @Test
+    void getLikerStatsDefaultsToLastThirtyDays() {
+        when(filmStorage.getFilmById(5L)).thenReturn(Optional.of(new Film()));
+        LocalDate today = likeStats.today();
+        likeStats.record(5L, 1L);
+        likeStats.record(5L, 2L);
+
+        FilmLikerStats stats = filmService.getLikerStats(5L, null, null);
+
+        assertThat(stats.from()).isEqualTo(today.minusDays(29));
+        assertThat(stats.to()).isEqualTo(today);
+        assertThat(stats.uniqueLikers()).isEqualTo(2);
+    }
+
+    @Test
+    void getLikerStatsRejectsInvertedRange() {
+        when(filmStorage.getFilmById(5L)).thenReturn(Optional.of(new Film()));
+
+        assertThatThrownBy(() -> filmService.getLikerStats(5L, LocalDate.of(2024, 2, 2), LocalDate.of(2024, 2, 1)))
+                .isInstanceOf(ValidationException.class);
     }
 
     @Test
@@ -140,6 +190,7 @@ class FilmServiceTests {
 
         verify(userStorage).getUserById(10L);
         verify(filmStorage).getFilmById(3L);
+        verify(edgeWriter).setLike(3L, 10L, false);
     }
 
 
@@ -163,20 +214,19 @@ class FilmServiceTests {
     }
 
     @Test
-    void getPopularFilmsReturnsSortedAndLimitedList() {
+    void getPopularFilmsDelegatesToStorage() {
         Film filmWithTwoLikes = new Film();
         filmWithTwoLikes.getLikedUser().addAll(List.of(1L, 2L));
 
         Film filmWithOneLike = new Film();
         filmWithOneLike.getLikedUser().add(3L);
 
-        Film filmWithoutLikes = new Film();
-
-        when(filmStorage.getAllFilms()).thenReturn(List.of(filmWithOneLike, filmWithTwoLikes, filmWithoutLikes));
+        when(filmStorage.getPopularFilms(2)).thenReturn(List.of(filmWithTwoLikes, filmWithOneLike));
 
         List<Film> result = filmService.getPopularFilms(2);
 
         assertThat(result).containsExactly(filmWithTwoLikes, filmWithOneLike);
-        verify(filmStorage).getAllFilms();
+        verify(filmStorage).getPopularFilms(2);
+        verify(filmStorage, never()).getAllFilms();
     }
 }
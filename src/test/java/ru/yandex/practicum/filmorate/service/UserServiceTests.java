@@ -2,13 +2,21 @@ package ru.yandex.practicum.filmorate.service;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.context.ApplicationEventPublisher;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.yandex.practicum.filmorate.exception.UserNotFoundException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.cache.ReadCache;
+import ru.yandex.practicum.filmorate.service.cache.ReadCacheProperties;
+import ru.yandex.practicum.filmorate.service.edge.EdgeWriter;
+import ru.yandex.practicum.filmorate.service.event.FriendshipChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.UserUpdatedEvent;
 import ru.yandex.practicum.filmorate.storage.user.UserStorage;
 
+import java.time.Duration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +27,7 @@ import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -28,6 +37,15 @@ class UserServiceTests {
     @Mock
     UserStorage userStorage;
 
+    @Mock
+    EdgeWriter edgeWriter;
+
+    @Mock
+    ApplicationEventPublisher events;
+
+    @Spy
+    ReadCache readCache = new ReadCache(new ReadCacheProperties(true, 100, Duration.ofMinutes(1)));
+
     @InjectMocks
     UserService userService;
 
@@ -66,6 +84,7 @@ class UserServiceTests {
 
         assertThat(updated).isSameAs(user);
         verify(userStorage).updateUser(user);
+        verify(events).publishEvent(new UserUpdatedEvent(user));
     }
 
     @Test
@@ -83,10 +102,9 @@ class UserServiceTests {
     }
 
     @Test
-    void getFriendsResolvesFriendEntitiesFromIds() {
+    void getFriendsDelegatesToStorageAfterExistenceCheck() {
         User user = new User();
         user.setId(1L);
-        user.getFriends().addAll(Set.of(2L, 3L));
 
         User friendOne = new User();
         friendOne.setId(2L);
@@ -95,36 +113,31 @@ class UserServiceTests {
         friendTwo.setId(3L);
 
         when(userStorage.getUserById(1L)).thenReturn(Optional.of(user));
-        when(userStorage.getUserById(2L)).thenReturn(Optional.of(friendOne));
-        when(userStorage.getUserById(3L)).thenReturn(Optional.of(friendTwo));
+        when(userStorage.getFriends(1L)).thenReturn(List.of(friendOne, friendTwo));
 
         Set<User> friends = userService.getFriends(1L);
 
-        assertThat(friends).containsExactlyInAnyOrder(friendOne, friendTwo);
+        assertThat(friends).containsExactly(friendOne, friendTwo);
         verify(userStorage).getUserById(1L);
-        verify(userStorage).getUserById(2L);
-        verify(userStorage).getUserById(3L);
+        verify(userStorage).getFriends(1L);
+        verifyNoMoreInteractions(userStorage);
     }
 
     @Test
-    void getFriendsSkipsMissingFriendEntries() {
+    void getFriendsIsServedFromCacheUntilFriendshipChanges() {
         User user = new User();
-        user.setId(4L);
-        user.getFriends().addAll(Set.of(5L, 6L));
-
-        User existingFriend = new User();
-        existingFriend.setId(5L);
-
-        when(userStorage.getUserById(4L)).thenReturn(Optional.of(user));
-        when(userStorage.getUserById(5L)).thenReturn(Optional.of(existingFriend));
-        when(userStorage.getUserById(6L)).thenReturn(Optional.empty());
+        user.setId(1L);
+        User friend = new User();
+        friend.setId(2L);
+        when(userStorage.getUserById(1L)).thenReturn(Optional.of(user));
+        when(userStorage.getFriends(1L)).thenReturn(List.of(friend));
 
-        Set<User> friends = userService.getFriends(4L);
+        userService.getFriends(1L);
+        userService.getFriends(1L);
+        readCache.onStorageEvent(new FriendshipChangedEvent(2L, 1L));
+        userService.getFriends(1L);
 
-        assertThat(friends).containsExactly(existingFriend);
-        verify(userStorage).getUserById(4L);
-        verify(userStorage).getUserById(5L);
-        verify(userStorage).getUserById(6L);
+        verify(userStorage, times(2)).getFriends(1L);
     }
 
     @Test
@@ -151,7 +164,7 @@ class UserServiceTests {
 
         userService.addFriend(user.getId(), friend.getId());
 
-        assertEquals(user.getFriends(), Set.of(2L));
+        verify(edgeWriter).setFriendship(1L, 2L, true);
     }
 
     @Test
@@ -178,26 +191,23 @@ class UserServiceTests {
 
         verify(userStorage).getUserById(1L);
         verify(userStorage).getUserById(2L);
+        verify(edgeWriter, never()).setFriendship(1L, 2L, true);
     }
 
     @Test
     void removeFriendWhenUserAndFriendExists() {
         User user = new User();
         user.setId(1L);
-        user.setFriends(new HashSet<>(Set.of(2L, 3L)));
 
         User friend = new User();
         friend.setId(2L);
 
-        User friend2 = new User();
-        friend2.setId(3L);
-
         when(userStorage.getUserById(1L)).thenReturn(Optional.of(user));
         when(userStorage.getUserById(2L)).thenReturn(Optional.of(friend));
 
         userService.removeFriend(user.getId(), friend.getId());
 
-        assertEquals(user.getFriends(), Set.of(3L));
+        verify(edgeWriter).setFriendship(1L, 2L, false);
     }
 
     @Test
@@ -231,11 +241,9 @@ class UserServiceTests {
     void getMutualFriendsWhenUserAndFriendExists() {
         User user = new User();
         user.setId(1L);
-        user.setFriends(new HashSet<>(Set.of(2L, 3L, 4L)));
 
         User friend = new User();
         friend.setId(2L);
-        friend.setFriends(new HashSet<>(Set.of(3L, 4L)));
 
         User mutualFriend1 = new User();
         mutualFriend1.setId(3L);
@@ -245,8 +253,7 @@ class UserServiceTests {
 
         when(userStorage.getUserById(1L)).thenReturn(Optional.of(user));
         when(userStorage.getUserById(2L)).thenReturn(Optional.of(friend));
-        when(userStorage.getUserById(3L)).thenReturn(Optional.of(mutualFriend1));
-        when(userStorage.getUserById(4L)).thenReturn(Optional.of(mutualFriend2));
+        when(userStorage.getCommonFriends(1L, 2L)).thenReturn(List.of(mutualFriend1, mutualFriend2));
 
         Set<User> mutualFriends = userService.getMutualFriends(user.getId(), friend.getId());
 
@@ -254,8 +261,7 @@ class UserServiceTests {
 
         verify(userStorage).getUserById(1L);
         verify(userStorage).getUserById(2L);
-        verify(userStorage).getUserById(3L);
-        verify(userStorage).getUserById(4L);
+        verify(userStorage).getCommonFriends(1L, 2L);
         verifyNoMoreInteractions(userStorage);
     }
 
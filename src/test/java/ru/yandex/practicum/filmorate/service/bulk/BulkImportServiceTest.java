@@ -0,0 +1,189 @@
+package ru.yandex.practicum.filmorate.service.bulk;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.bulk.BulkImportReport.RowError;
+import ru.yandex.practicum.filmorate.service.event.FilmChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.FriendshipChangedEvent;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BulkImportServiceTest {
+    @Mock
+    ApplicationEventPublisher events;
+
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private BulkImportService service;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+        service = new BulkImportService(filmStorage, userStorage, events,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                JsonMapper.builder().findAndAddModules().build());
+    }
+
+    @Test
+    void importFilmsFromNdjsonReportsInvalidRowsAndKeepsTheRest() throws IOException {
+        BulkImportReport report = service.importFilms(body("""
+                {"name":"first","releaseDate":"2000-01-01","duration":100}
+
+                {"name":" ","releaseDate":"2000-01-01","duration":0}
+                {"name":"broken",
+                {"name":"old","releaseDate":"1800-01-01","duration":100}
+                {"name":"second","description":"d","releaseDate":"2001-01-01","duration":90}
+                """), BulkFormat.NDJSON);
+
+        assertThat(report.received()).isEqualTo(5);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(3);
+        assertThat(report.errorsTruncated()).isFalse();
+        assertThat(report.errors()).extracting(RowError::line).containsExactly(3L, 4L, 5L);
+        assertThat(report.errors().get(0).message())
+                .isEqualTo("duration: duration должна составлять не меньше 1 минуты; name: name не должно состоять из пробелов");
+        assertThat(report.errors().get(1).message()).startsWith("некорректный JSON");
+        assertThat(filmStorage.getAllFilms()).extracting(Film::getName).containsExactly("first", "second");
+        verify(events, times(2)).publishEvent(any(FilmChangedEvent.class));
+    }
+
+    @Test
+    void importUsersFromCsvMapsColumnsByHeader() throws IOException {
+        BulkImportReport report = service.importUsers(body("""
+                login,email,birthday,name
+                first,first@mail.ru,1990-01-01,"Doe, John"
+                second,second@mail.ru,1991-02-03,
+                third,not-an-email,1990-01-01,Third
+                fourth,fourth@mail.ru,yesterday,Fourth
+                """), BulkFormat.CSV);
+
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.errors()).extracting(RowError::line).containsExactly(4L, 5L);
+        assertThat(report.errors().get(1).message()).isEqualTo("birthday: некорректная дата 'yesterday'");
+        assertThat(userStorage.getAllUsers()).extracting(User::getName).containsExactly("Doe, John", "second");
+        assertThat(userStorage.getUserById(2L).orElseThrow().getBirthday()).isEqualTo(LocalDate.of(1991, 2, 3));
+    }
+
+    @Test
+    void importRejectsLikesAndFriendsEmbeddedInFilmAndUserRows() throws IOException {
+        BulkImportReport users = service.importUsers(body("""
+                {"login":"first","email":"first@mail.ru","birthday":"1990-01-01"}
+                {"login":"second","email":"second@mail.ru","birthday":"1990-01-01","friends":[1]}
+                """), BulkFormat.NDJSON);
+        BulkImportReport films = service.importFilms(body("""
+                {"name":"liked","releaseDate":"2000-01-01","duration":100,"likedUser":[1]}
+                {"name":"plain","releaseDate":"2000-01-01","duration":100,"likedUser":[]}
+                """), BulkFormat.NDJSON);
+
+        // Рёбра идут только строками лайков и дружб – там проверяются ссылки и публикуются события
+        assertThat(users.errors()).containsExactly(
+                new RowError(2, "friends: дружбы импортируются строками /import/friendships"));
+        assertThat(films.errors()).containsExactly(
+                new RowError(1, "likedUser: лайки импортируются строками /import/likes"));
+        assertThat(userStorage.getAllUsers()).extracting(User::getLogin).containsExactly("first");
+        assertThat(userStorage.getUserById(1L).orElseThrow().getFriends()).isEmpty();
+        assertThat(filmStorage.getAllFilms()).extracting(Film::getName).containsExactly("plain");
+        assertThat(filmStorage.countLikes()).isZero();
+        verify(events).publishEvent(new FilmChangedEvent(1));
+    }
+
+    @Test
+    void importLikesSkipsRowsWithUnknownFilmOrUser() throws IOException {
+        userStorage.createUser(user("first"));
+        userStorage.createUser(user("second"));
+        filmStorage.createFilm(film("film"));
+
+        BulkImportReport report = service.importLikes(body("""
+                filmId,userId
+                1,1
+                1,2
+                2,1
+                1,3
+                1,-1
+                """), BulkFormat.CSV);
+
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.errors()).containsExactly(
+                new RowError(4, "Фильм с id 2 не найден"),
+                new RowError(5, "Пользователь с id 3 не найден"),
+                new RowError(6, "userId: id пользователя не может быть отрицательным"));
+        assertThat(filmStorage.getFilmById(1L).orElseThrow().getLikedUser()).isEqualTo(Set.of(1L, 2L));
+    }
+
+    @Test
+    void importFriendshipsLinksBothUsersAndPublishesEvents() throws IOException {
+        userStorage.createUser(user("first"));
+        userStorage.createUser(user("second"));
+
+        BulkImportReport report = service.importFriendships(body("""
+                {"userId":1,"friendId":2}
+                {"userId":1,"friendId":7}
+                """), BulkFormat.NDJSON);
+
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.errors()).containsExactly(new RowError(2, "Пользователь с id 7 не найден"));
+        assertThat(userStorage.getUserById(2L).orElseThrow().getFriends()).containsExactly(1L);
+        verify(events).publishEvent(new FriendshipChangedEvent(1, 2));
+    }
+
+    @Test
+    void importSpanningSeveralChunksCapsReportedErrors() throws IOException {
+        int rows = BulkImportService.CHUNK_SIZE * 2 + 10;
+        StringBuilder csv = new StringBuilder("name,releaseDate,duration\n");
+        for (int i = 0; i < rows; i++) {
+            // Каждая вторая строка без name
+            csv.append(i % 2 == 0 ? "film " + i : "").append(",2000-01-01,100\n");
+        }
+
+        BulkImportReport report = service.importFilms(body(csv.toString()), BulkFormat.CSV);
+
+        assertThat(report.received()).isEqualTo(rows);
+        assertThat(report.imported()).isEqualTo(rows / 2);
+        assertThat(report.failed()).isEqualTo(rows / 2);
+        assertThat(report.errors()).hasSize(BulkImportService.MAX_REPORTED_ERRORS);
+        assertThat(report.errorsTruncated()).isTrue();
+        assertThat(filmStorage.countFilms()).isEqualTo(rows / 2);
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.ru");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+}
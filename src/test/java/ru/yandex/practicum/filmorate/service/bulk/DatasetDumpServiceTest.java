@@ -0,0 +1,150 @@
+package ru.yandex.practicum.filmorate.service.bulk;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.service.stats.FilmLikeStats;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DatasetDumpServiceTest {
+    private InMemoryFilmStorage films;
+    private InMemoryUserStorage users;
+
+    @BeforeEach
+    void setUp() {
+        films = new InMemoryFilmStorage();
+        users = new InMemoryUserStorage();
+        for (String login : new String[]{"first", "second", "third"}) {
+            users.createUser(user(login));
+        }
+        users.addFriend(1, 2);
+        users.addFriend(3, 1);
+        films.createFilm(film("liked"));
+        films.createFilm(film("plain"));
+        films.addLike(1, 2);
+        films.addLike(1, 3);
+    }
+
+    @Test
+    void binaryDumpLoadsIntoAnotherStorageWithRemappedIds() throws IOException {
+        for (boolean gzip : new boolean[]{false, true}) {
+            byte[] dump = exportBinary(service(films, users), gzip);
+
+            InMemoryFilmStorage targetFilms = new InMemoryFilmStorage();
+            InMemoryUserStorage targetUsers = new InMemoryUserStorage();
+            // Уже занятый id сдвигает все id загружаемых пользователей на один
+            targetUsers.createUser(user("existing"));
+
+            DumpLoadReport report = service(targetFilms, targetUsers).load(new ByteArrayInputStream(dump));
+
+            assertThat(report.users()).isEqualTo(3);
+            assertThat(report.films()).isEqualTo(2);
+            assertThat(report.likes()).isEqualTo(2);
+            assertThat(report.friendships()).isEqualTo(2);
+            assertThat(targetUsers.getUserById(2L).orElseThrow().getLogin()).isEqualTo("first");
+            assertThat(targetUsers.getUserById(2L).orElseThrow().getFriends()).isEqualTo(Set.of(3L, 4L));
+            assertThat(targetUsers.getUserById(1L).orElseThrow().getFriends()).isEmpty();
+            assertThat(targetFilms.getPopularFilms(1)).singleElement()
+                    .satisfies(film -> assertThat(film.getLikedUser()).isEqualTo(Set.of(3L, 4L)));
+        }
+    }
+
+    @Test
+    void loadedLikesDoNotCountAsTodaysLikers() throws IOException {
+        LocalDate today = LocalDate.of(2024, 3, 1);
+        FilmLikeStats stats = new FilmLikeStats(Clock.fixed(today.atStartOfDay().toInstant(ZoneOffset.UTC),
+                ZoneOffset.UTC));
+        InMemoryFilmStorage targetFilms = new InMemoryFilmStorage();
+        InMemoryUserStorage targetUsers = new InMemoryUserStorage();
+        targetUsers.createUser(user("existing"));
+        targetFilms.createFilm(film("existing"));
+        targetFilms.addLike(1, 1);
+        stats.onLikeChanged(new LikeChangedEvent(1, 1, true));
+        DatasetDumpService target = new DatasetDumpService(targetFilms, targetUsers, event -> {
+            if (event instanceof LikeChangedEvent like) {
+                stats.onLikeChanged(like);
+            }
+        }, JsonMapper.builder().findAndAddModules().build());
+
+        DumpLoadReport report = target.load(new ByteArrayInputStream(exportBinary(service(films, users), false)));
+
+        assertThat(report.likes()).isEqualTo(2);
+        assertThat(targetFilms.getFilmById(2L).orElseThrow().getLikedUser()).hasSize(2);
+        assertThat(stats.uniqueLikers(1L, today, today).uniqueLikers()).isEqualTo(1L);
+        assertThat(stats.uniqueLikers(2L, today, today).uniqueLikers()).isZero();
+    }
+
+    @Test
+    void ndjsonDumpWritesUsersThenFilmsOnePerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service(films, users).exportNdjson(out, false);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(5);
+        assertThat(Arrays.copyOf(lines, 3)).allMatch(line -> line.startsWith("{\"user\":{"));
+        assertThat(lines[3]).startsWith("{\"film\":{").contains("\"likedUser\":[");
+    }
+
+    @Test
+    void loadRejectsCorruptedOrForeignInput() throws IOException {
+        byte[] dump = exportBinary(service(films, users), false);
+        dump[dump.length - 1] ^= 1;
+
+        assertThatThrownBy(() -> service(new InMemoryFilmStorage(), new InMemoryUserStorage())
+                .load(new ByteArrayInputStream(dump)))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Контрольная сумма");
+        assertThatThrownBy(() -> service(new InMemoryFilmStorage(), new InMemoryUserStorage())
+                .load(new ByteArrayInputStream(Arrays.copyOf(dump, dump.length / 2))))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("оборвана");
+        assertThatThrownBy(() -> service(new InMemoryFilmStorage(), new InMemoryUserStorage())
+                .load(new ByteArrayInputStream("{\"user\":{}}".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private static byte[] exportBinary(DatasetDumpService service, boolean gzip) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportBinary(out, gzip);
+        return out.toByteArray();
+    }
+
+    private static DatasetDumpService service(InMemoryFilmStorage films, InMemoryUserStorage users) {
+        return new DatasetDumpService(films, users, event -> {
+        }, JsonMapper.builder().findAndAddModules().build());
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.ru");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+}
@@ -0,0 +1,113 @@
+package ru.yandex.practicum.filmorate.service.cache;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.event.FilmChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.FriendshipChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.UserUpdatedEvent;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadCacheTest {
+    private final ReadCache cache = new ReadCache(new ReadCacheProperties(true, 100, Duration.ofMinutes(1)));
+
+    @Test
+    void popularFilmsAreCachedPerCountUntilLikeOrFilmChanges() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.popularFilms(10, () -> load(loads, List.<Film>of()));
+        cache.popularFilms(10, () -> load(loads, List.<Film>of()));
+        cache.popularFilms(5, () -> load(loads, List.<Film>of()));
+        assertThat(loads).hasValue(2);
+
+        cache.onStorageEvent(new LikeChangedEvent(1, 1, true));
+        cache.popularFilms(10, () -> load(loads, List.<Film>of()));
+        cache.onStorageEvent(new FilmChangedEvent(1));
+        cache.popularFilms(10, () -> load(loads, List.<Film>of()));
+        assertThat(loads).hasValue(4);
+
+        assertThat(cache.popularFilmsStats()).isEqualTo(new ReadCache.Stats(1, 4, 0, 2));
+    }
+
+    @Test
+    void friendshipInvalidatesOnlyBothUsers() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.friends(1, () -> load(loads, List.<User>of()));
+        cache.friends(2, () -> load(loads, List.<User>of()));
+        cache.friends(3, () -> load(loads, List.<User>of()));
+
+        cache.onStorageEvent(new FriendshipChangedEvent(1, 2));
+        cache.friends(1, () -> load(loads, List.<User>of()));
+        cache.friends(2, () -> load(loads, List.<User>of()));
+        cache.friends(3, () -> load(loads, List.<User>of()));
+
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void mutualFriendsAreSymmetricAndDroppedWhenEitherUserChanges() {
+        AtomicInteger loads = new AtomicInteger();
+        cache.mutualFriends(1, 2, () -> load(loads, List.<User>of()));
+        cache.mutualFriends(2, 1, () -> load(loads, List.<User>of()));
+        assertThat(loads).hasValue(1);
+
+        cache.onStorageEvent(new FriendshipChangedEvent(2, 7));
+        cache.mutualFriends(1, 2, () -> load(loads, List.<User>of()));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void updatedUserInvalidatesListsOfAllItsFriends() {
+        User user = new User();
+        user.setId(5L);
+        user.getFriends().add(1L);
+        user.getFriends().add(2L);
+        AtomicInteger loads = new AtomicInteger();
+        cache.friends(1, () -> load(loads, List.of(user)));
+        cache.friends(2, () -> load(loads, List.of(user)));
+        cache.mutualFriends(1, 2, () -> load(loads, List.of(user)));
+
+        cache.onStorageEvent(new UserUpdatedEvent(user));
+        cache.friends(1, () -> load(loads, List.of(user)));
+        cache.friends(2, () -> load(loads, List.of(user)));
+        cache.mutualFriends(1, 2, () -> load(loads, List.of(user)));
+
+        assertThat(loads).hasValue(6);
+    }
+
+    @Test
+    void loadRacingWithChangeIsNotServedAfterwards() {
+        AtomicInteger loads = new AtomicInteger();
+
+        // Изменение пришло, пока загрузка читала старые данные
+        cache.friends(1, () -> {
+            cache.onStorageEvent(new FriendshipChangedEvent(1, 2));
+            return load(loads, List.<User>of());
+        });
+        cache.friends(1, () -> load(loads, List.<User>of()));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        ReadCache disabled = new ReadCache(new ReadCacheProperties(false, 100, Duration.ofMinutes(1)));
+        AtomicInteger loads = new AtomicInteger();
+
+        disabled.popularFilms(10, () -> load(loads, List.<Film>of()));
+        disabled.popularFilms(10, () -> load(loads, List.<Film>of()));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private static <T> List<T> load(AtomicInteger loads, List<T> value) {
+        loads.incrementAndGet();
+        return value;
+    }
+}
@@ -0,0 +1,190 @@
+package ru.yandex.practicum.filmorate.service.edge;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.WriteQueueFullException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.event.FriendshipChangedEvent;
+import ru.yandex.practicum.filmorate.service.event.LikeChangedEvent;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
+import ru.yandex.practicum.filmorate.storage.film.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.user.UserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class WriteBehindEdgeWriterTest {
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private WriteBehindEdgeWriter writer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    @Test
+    void likeAndUnlikeInOneBatchCollapseToLastState() throws InterruptedException {
+        FilmStorage filmStorage = mock(FilmStorage.class);
+        List<List<EdgeChange>> batches = captureLikes(filmStorage);
+        // Большая задержка: всё, что отправлено до close(), уйдёт одной пачкой
+        writer = new WriteBehindEdgeWriter(filmStorage, mock(UserStorage.class),
+                properties(100, Duration.ofSeconds(10)), events::add);
+
+        writer.setLike(1L, 10L, true);
+        writer.setLike(1L, 11L, true);
+        writer.setLike(1L, 10L, false);
+        writer.setLike(1L, 10L, true);
+        writer.setLike(1L, 10L, false);
+        writer.close();
+
+        assertThat(batches).containsExactly(List.of(
+                new EdgeChange(1L, 11L, true),
+                new EdgeChange(1L, 10L, false)));
+        assertThat(writer.getSubmitted()).isEqualTo(5);
+        assertThat(writer.getFlushedChanges()).isEqualTo(2);
+    }
+
+    @Test
+    void friendshipInBothDirectionsIsOneEdge() throws InterruptedException {
+        UserStorage userStorage = mock(UserStorage.class);
+        List<List<EdgeChange>> batches = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> batches.add(List.copyOf(invocation.getArgument(0))))
+                .when(userStorage).applyFriendships(anyList());
+        writer = new WriteBehindEdgeWriter(mock(FilmStorage.class), userStorage,
+                properties(100, Duration.ofSeconds(10)), events::add);
+
+        writer.setFriendship(2L, 1L, true);
+        writer.setFriendship(1L, 2L, false);
+        writer.close();
+
+        assertThat(batches).containsExactly(List.of(new EdgeChange(1L, 2L, false)));
+    }
+
+    @Test
+    void batchIsFlushedWhenFlushSizeReached() throws InterruptedException {
+        FilmStorage filmStorage = mock(FilmStorage.class);
+        List<List<EdgeChange>> batches = captureLikes(filmStorage);
+        writer = new WriteBehindEdgeWriter(filmStorage, mock(UserStorage.class),
+                properties(3, Duration.ofSeconds(10)), events::add);
+
+        for (long userId = 1; userId <= 7; userId++) {
+            writer.setLike(1L, userId, true);
+        }
+        writer.close();
+
+        assertThat(batches).hasSize(3);
+        assertThat(batches.get(0)).hasSize(3);
+        assertThat(batches).flatMap(batch -> batch).hasSize(7);
+        assertThat(writer.getMaxBatchSize()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsWhenQueueStaysFull() throws InterruptedException {
+        FilmStorage filmStorage = mock(FilmStorage.class);
+        CountDownLatch storageEntered = new CountDownLatch(1);
+        CountDownLatch releaseStorage = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            storageEntered.countDown();
+            releaseStorage.await();
+            return null;
+        }).when(filmStorage).applyLikes(anyList());
+        writer = new WriteBehindEdgeWriter(filmStorage, mock(UserStorage.class),
+                new WriteBehindProperties(true, 2, 1, Duration.ZERO, Duration.ofMillis(10)), events::add);
+
+        writer.setLike(1L, 1L, true);
+        assertThat(storageEntered.await(5, TimeUnit.SECONDS)).isTrue();
+        writer.setLike(1L, 2L, true);
+        writer.setLike(1L, 3L, true);
+
+        assertThat(writer.getQueueDepth()).isEqualTo(2);
+        assertThatThrownBy(() -> writer.setLike(1L, 4L, true))
+                .isInstanceOf(WriteQueueFullException.class);
+        assertThat(writer.getRejected()).isEqualTo(1);
+
+        releaseStorage.countDown();
+    }
+
+    @Test
+    void failedBatchIsRetriedEdgeByEdge() throws InterruptedException {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        Film film = filmStorage.createFilm(film());
+        writer = new WriteBehindEdgeWriter(filmStorage, new InMemoryUserStorage(),
+                properties(100, Duration.ofSeconds(10)), events::add);
+
+        writer.setLike(999L, 1L, true);
+        writer.setLike(film.getId(), 1L, true);
+        writer.close();
+
+        assertThat(film.getLikedUser()).containsExactly(1L);
+        assertThat(writer.getFailedChanges()).isEqualTo(1);
+        assertThat(events).containsExactly(new LikeChangedEvent(film.getId(), 1L, true));
+    }
+
+    @Test
+    void writesReachInMemoryStorage() throws InterruptedException {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        User first = userStorage.createUser(user("first"));
+        User second = userStorage.createUser(user("second"));
+        writer = new WriteBehindEdgeWriter(new InMemoryFilmStorage(), userStorage,
+                properties(100, Duration.ofMillis(1)), events::add);
+
+        writer.setFriendship(first.getId(), second.getId(), true);
+        writer.close();
+
+        assertThat(first.getFriends()).containsExactly(second.getId());
+        assertThat(second.getFriends()).containsExactly(first.getId());
+        assertThat(events).containsExactly(new FriendshipChangedEvent(first.getId(), second.getId()));
+    }
+
+    @Test
+    void rejectsWritesAfterClose() throws InterruptedException {
+        writer = new WriteBehindEdgeWriter(mock(FilmStorage.class), mock(UserStorage.class),
+                properties(100, Duration.ofMillis(1)), events::add);
+        writer.close();
+
+        assertThatThrownBy(() -> writer.setLike(1L, 1L, true))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private static List<List<EdgeChange>> captureLikes(FilmStorage filmStorage) {
+        List<List<EdgeChange>> batches = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> batches.add(List.copyOf(invocation.getArgument(0))))
+                .when(filmStorage).applyLikes(anyList());
+        return batches;
+    }
+
+    private static WriteBehindProperties properties(int flushSize, Duration maxLatency) {
+        return new WriteBehindProperties(true, 1024, flushSize, maxLatency, Duration.ofMillis(100));
+    }
+
+    private static Film film() {
+        Film film = new Film();
+        film.setName("film");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,84 @@
+package ru.yandex.practicum.filmorate.service.stats;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.service.event.LikeChangedEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class FilmLikeStatsTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @Test
+    void countsUserOnceAcrossDaysOfRange() throws IOException {
+        FilmLikeStats stats = new FilmLikeStats(clockAt(DAY));
+        FilmLikeStats nextDay = new FilmLikeStats(clockAt(DAY.plusDays(1)));
+        for (long user = 1; user <= 100; user++) {
+            stats.record(1L, user);
+            nextDay.record(1L, user + 50);
+        }
+        merge(stats, nextDay);
+
+        FilmLikerStats range = stats.uniqueLikers(1L, DAY, DAY.plusDays(1));
+        FilmLikerStats firstDay = stats.uniqueLikers(1L, DAY, DAY);
+
+        assertThat(range.uniqueLikers()).isCloseTo(150L, within(5L));
+        assertThat(range.days()).extracting(FilmLikerStats.DailyLikers::date)
+                .containsExactly(DAY, DAY.plusDays(1));
+        assertThat(firstDay.uniqueLikers()).isCloseTo(100L, within(4L));
+        assertThat(stats.uniqueLikers(2L, DAY, DAY).uniqueLikers()).isZero();
+    }
+
+    @Test
+    void recordsLikeEventsAndIgnoresUnlikes() {
+        FilmLikeStats stats = new FilmLikeStats(clockAt(DAY));
+
+        stats.onLikeChanged(new LikeChangedEvent(1L, 10L, true));
+        stats.onLikeChanged(new LikeChangedEvent(1L, 11L, true));
+        stats.onLikeChanged(new LikeChangedEvent(1L, 12L, false));
+
+        assertThat(stats.uniqueLikers(1L, DAY, DAY).uniqueLikers()).isEqualTo(2L);
+    }
+
+    @Test
+    void snapshotsSurviveRestart(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("like-stats.bin");
+        FilmLikeStats stats = new FilmLikeStats(clockAt(DAY));
+        for (long user = 1; user <= 1_000; user++) {
+            stats.record(7L, user);
+        }
+        new LikeStatsSnapshots(stats, file, Duration.ZERO).close();
+
+        FilmLikeStats restored = new FilmLikeStats(clockAt(DAY));
+        try (LikeStatsSnapshots ignored = new LikeStatsSnapshots(restored, file, Duration.ZERO)) {
+            assertThat(restored.uniqueLikers(7L, DAY, DAY).uniqueLikers())
+                    .isEqualTo(stats.uniqueLikers(7L, DAY, DAY).uniqueLikers());
+        }
+        assertThat(Files.exists(file)).isTrue();
+    }
+
+    // Снимок одной статистики, загруженный в другую, объединяется с её скетчами
+    private static void merge(FilmLikeStats target, FilmLikeStats source) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        source.writeTo(new DataOutputStream(bytes));
+        target.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static Clock clockAt(LocalDate day) {
+        return Clock.fixed(Instant.ofEpochSecond(day.toEpochDay() * 86_400 + 3_600), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,328 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.service.cache.ReadCache;
+import ru.yandex.practicum.filmorate.service.cache.ReadCacheProperties;
+import ru.yandex.practicum.filmorate.service.edge.DirectEdgeWriter;
+import ru.yandex.practicum.filmorate.service.event.StorageEvent;
+import ru.yandex.practicum.filmorate.storage.film.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.film.TrendWindow;
+import ru.yandex.practicum.filmorate.storage.user.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryStorageStressTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+    // Читающие потоки сверяют срез через раз на десятую операцию: сравнение наборов дороже записи
+    private static final int CATALOG_READ_EVERY = 10;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void concurrentLikesAreNotLost() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            films.add(storage.createFilm(film("film " + i)));
+        }
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                long userId = (long) thread * OPERATIONS_PER_THREAD + i;
+                for (Film film : films) {
+                    storage.addLike(film.getId(), userId);
+                }
+                // Каждый второй лайк тут же отзываем – в итоге должна остаться ровно половина
+                if (i % 2 == 1) {
+                    for (Film film : films) {
+                        storage.removeLike(film.getId(), userId);
+                    }
+                }
+            }
+        });
+
+        for (Film film : films) {
+            assertThat(film.getLikedUser()).hasSize(THREADS * OPERATIONS_PER_THREAD / 2);
+        }
+        assertThat(storage.countLikes()).isEqualTo((long) films.size() * THREADS * OPERATIONS_PER_THREAD / 2);
+        assertThat(storage.getPopularFilms(films.size())).containsExactlyElementsOf(films);
+    }
+
+    @Test
+    void popularityIndexStaysConsistentUnderContention() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            films.add(storage.createFilm(film("film " + i)));
+        }
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Film film = films.get((thread * 31 + i * 7) % films.size());
+                long userId = i % 40;
+                if ((i + thread) % 3 == 0) {
+                    storage.removeLike(film.getId(), userId);
+                } else {
+                    storage.addLike(film.getId(), userId);
+                }
+            }
+        });
+
+        List<Film> expected = films.stream()
+                .sorted(Comparator.comparingInt((Film film) -> film.getLikedUser().size()).reversed()
+                        .thenComparing(Film::getId))
+                .toList();
+        assertThat(storage.getPopularFilms(films.size())).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void trendingWindowsAgreeWithFilmLikesUnderContention() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            films.add(storage.createFilm(film("film " + i)));
+        }
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Film film = films.get((thread * 31 + i * 7) % films.size());
+                long userId = i % 40;
+                if ((i + thread) % 3 == 0) {
+                    storage.removeLike(film.getId(), userId);
+                } else {
+                    storage.addLike(film.getId(), userId);
+                }
+            }
+        });
+
+        // Все лайки свежие, поэтому тренд каждого окна совпадает с популярностью фильмов с лайками
+        List<Film> expected = films.stream()
+                .filter(film -> !film.getLikedUser().isEmpty())
+                .sorted(Comparator.comparingInt((Film film) -> film.getLikedUser().size()).reversed()
+                        .thenComparing(Film::getId))
+                .toList();
+        for (TrendWindow window : TrendWindow.values()) {
+            assertThat(storage.getTrendingFilms(window, films.size())).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void likedFilmsIndexAgreesWithFilmLikesUnderContention() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            films.add(storage.createFilm(film("film " + i)));
+        }
+        int users = 30;
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Film film = films.get((thread * 13 + i * 7) % films.size());
+                long userId = 1 + (i + thread) % users;
+                if ((i + thread) % 3 == 0) {
+                    storage.removeLike(film.getId(), userId);
+                } else {
+                    storage.addLike(film.getId(), userId);
+                }
+            }
+        });
+
+        for (long userId = 1; userId <= users; userId++) {
+            long id = userId;
+            List<Film> expected = films.stream()
+                    .filter(film -> film.getLikedUser().contains(id))
+                    .toList();
+            assertThat(storage.getLikedFilms(userId, 0, films.size())).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void concurrentCreatesGetDistinctIds() throws Exception {
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage();
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        Set<Long> filmIds = ConcurrentHashMap.newKeySet();
+        Set<Long> userIds = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(thread -> {
+            for (int i = 0; i < 200; i++) {
+                filmIds.add(filmStorage.createFilm(film("film")).getId());
+                userIds.add(userStorage.createUser(user("user" + thread + "x" + i)).getId());
+            }
+        });
+
+        assertThat(filmIds).hasSize(THREADS * 200);
+        assertThat(filmStorage.getAllFilms()).hasSize(THREADS * 200);
+        assertThat(userIds).hasSize(THREADS * 200);
+        assertThat(userStorage.getAllUsers()).hasSize(THREADS * 200);
+    }
+
+    @Test
+    void concurrentFriendshipsAreNotLost() throws Exception {
+        InMemoryUserStorage storage = new InMemoryUserStorage();
+        ReadCache cache = new ReadCache(new ReadCacheProperties(true, 1000, Duration.ofMinutes(1)));
+        ApplicationEventPublisher events = event -> cache.onStorageEvent((StorageEvent) event);
+        UserService service = new UserService(storage, new DirectEdgeWriter(new InMemoryFilmStorage(), storage, events),
+                cache, events);
+        User hub = storage.createUser(user("hub"));
+        List<User> others = new ArrayList<>();
+        for (int i = 0; i < THREADS * 100; i++) {
+            others.add(storage.createUser(user("user" + i)));
+        }
+
+        runConcurrently(thread -> {
+            for (int i = thread * 100; i < (thread + 1) * 100; i++) {
+                service.addFriend(hub.getId(), others.get(i).getId());
+            }
+        });
+
+        assertThat(hub.getFriends()).hasSize(others.size());
+        assertThat(others).allMatch(other -> other.getFriends().contains(hub.getId()));
+        assertThat(service.getFriends(hub.getId())).hasSize(others.size());
+    }
+
+    @Test
+    void friendshipsStaySymmetricUnderOpposingChanges() throws Exception {
+        InMemoryUserStorage storage = new InMemoryUserStorage();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            users.add(storage.createUser(user("user" + i)));
+        }
+
+        // Все потоки идут по одним и тем же парам: чётные добавляют (a, b), нечётные удаляют (b, a).
+        // Итог каждой пары – исход гонки, и неатомарная запись оставила бы ребро только у одной стороны
+        runConcurrently(thread -> {
+            for (int round = 0; round < 50; round++) {
+                for (int i = 0; i < users.size(); i++) {
+                    long first = users.get(i).getId();
+                    long second = users.get((i + 1 + round % 3) % users.size()).getId();
+                    if (thread % 2 == 0) {
+                        storage.addFriend(first, second);
+                    } else {
+                        storage.removeFriend(second, first);
+                    }
+                }
+            }
+        });
+
+        long edges = 0;
+        for (User user : users) {
+            for (long friendId : user.getFriends().toLongArray()) {
+                assertThat(storage.getUserById(friendId).orElseThrow().getFriends().contains(user.getId()))
+                        .as("дружба %d -> %d без обратного ребра", user.getId(), friendId)
+                        .isTrue();
+                edges++;
+            }
+        }
+        assertThat(storage.countFriendships()).isEqualTo(edges / 2);
+    }
+
+    @Test
+    void catalogVersionsAreConsistentCutsUnderConcurrentLikes() throws Exception {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        for (int i = 0; i < 200; i++) {
+            storage.createFilm(film("film " + i));
+        }
+        // Первый и последний фильм лежат в разных кусках каталога
+        long first = 1;
+        long last = 200;
+
+        // Чётные потоки ставят лайк первому фильму раньше, чем последнему, и снимают в обратном порядке,
+        // поэтому в любом срезе лайкнувшие последний фильм – подмножество лайкнувших первый
+        runConcurrently(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                if (thread % 2 == 0) {
+                    long userId = (long) thread * OPERATIONS_PER_THREAD + i;
+                    storage.addLike(first, userId);
+                    storage.addLike(last, userId);
+                    if (i % 2 == 1) {
+                        storage.removeLike(last, userId);
+                        storage.removeLike(first, userId);
+                    }
+                } else if (i % CATALOG_READ_EVERY == 0) {
+                    List<Film> version = List.copyOf(storage.getAllFilms());
+                    assertThat(version).hasSize(200);
+                    LongHashSet firstLikes = version.get(0).getLikedUser();
+                    long[] lastLikes = version.get(199).getLikedUser().toLongArray();
+                    assertThat(Arrays.stream(lastLikes).allMatch(firstLikes::contains)).isTrue();
+                }
+            }
+        });
+
+        List<Film> version = List.copyOf(storage.getAllFilms());
+        assertThat(version.get(0).getLikedUser()).hasSize(THREADS / 2 * OPERATIONS_PER_THREAD / 2);
+        assertThat(version.get(199).getLikedUser()).isEqualTo(version.get(0).getLikedUser());
+    }
+
+    private void runConcurrently(ThreadTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        Collection<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int threadIndex = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(threadIndex);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnapshotCatalogTest {
+    private final ConcurrentSkipListMap<Long, String> live = new ConcurrentSkipListMap<>();
+    private final AtomicInteger freezes = new AtomicInteger();
+
+    @Test
+    void writesDoNotCopyUntilCatalogIsRead() {
+        SnapshotCatalog<String> catalog = new SnapshotCatalog<>(live, new StripedLock(4), value -> {
+            freezes.incrementAndGet();
+            return value;
+        });
+        for (long id = 1; id <= 3; id++) {
+            live.put(id, "v" + id);
+            catalog.changed(id);
+        }
+        live.put(2L, "v2'");
+        catalog.changed(2L);
+
+        assertThat(freezes).hasValue(0);
+        assertThat(catalog.snapshot()).containsExactly("v1", "v2'", "v3");
+        assertThat(freezes).hasValue(3);
+        assertThat(catalog.snapshot()).isSameAs(catalog.snapshot());
+    }
+
+    @Test
+    void failedBuildKeepsChangesForNextRead() {
+        SnapshotCatalog<String> catalog = new SnapshotCatalog<>(live, new StripedLock(4), value -> {
+            if (freezes.getAndIncrement() == 0) {
+                throw new IllegalStateException("сбой копирования");
+            }
+            return value;
+        });
+        live.put(1L, "v1");
+        catalog.changed(1L);
+
+        assertThatThrownBy(catalog::snapshot).isInstanceOf(IllegalStateException.class);
+        assertThat(catalog.snapshot()).containsExactly("v1");
+    }
+}
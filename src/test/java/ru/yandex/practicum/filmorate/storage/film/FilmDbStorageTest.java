@@ -0,0 +1,262 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
+import ru.yandex.practicum.filmorate.storage.user.UserDbStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@ActiveProfiles("db")
+@Import({FilmDbStorage.class, UserDbStorage.class})
+class FilmDbStorageTest {
+    @Autowired
+    private FilmDbStorage storage;
+
+    @Autowired
+    private UserDbStorage userStorage;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createFilmAssignsIdAndReadsBack() {
+        Film created = storage.createFilm(film("first"));
+
+        assertThat(created.getId()).isNotNull();
+        assertThat(storage.getFilmById(created.getId()))
+                .hasValueSatisfying(film -> {
+                    assertThat(film.getName()).isEqualTo("first");
+                    assertThat(film.getReleaseDate()).isEqualTo(LocalDate.of(2000, 1, 1));
+                    assertThat(film.getLikedUser()).isEmpty();
+                });
+    }
+
+    @Test
+    void getPopularFilmsOrdersByLikesThenById() {
+        long firstUser = userStorage.createUser(user("first")).getId();
+        long secondUser = userStorage.createUser(user("second")).getId();
+        Film first = storage.createFilm(film("first"));
+        Film second = storage.createFilm(film("second"));
+        Film third = storage.createFilm(film("third"));
+
+        storage.addLike(third.getId(), firstUser);
+        storage.addLike(third.getId(), secondUser);
+        storage.addLike(third.getId(), secondUser);
+        storage.addLike(second.getId(), firstUser);
+
+        assertThat(storage.getPopularFilms(10)).extracting(Film::getId)
+                .containsExactly(third.getId(), second.getId(), first.getId());
+        assertThat(storage.getPopularFilms(1).get(0).getLikedUser())
+                .isEqualTo(Set.of(firstUser, secondUser));
+
+        storage.removeLike(third.getId(), firstUser);
+        storage.removeLike(third.getId(), secondUser);
+
+        assertThat(storage.getPopularFilms(2)).extracting(Film::getId)
+                .containsExactly(second.getId(), first.getId());
+    }
+
+    @Test
+    void updateFilmReplacesFieldsAndLikes() {
+        long userId = userStorage.createUser(user("user")).getId();
+        Film film = storage.createFilm(film("before"));
+        storage.addLike(film.getId(), userId);
+
+        Film replacement = film("after");
+        replacement.setId(film.getId());
+        storage.updateFilm(replacement);
+
+        Film stored = storage.getFilmById(film.getId()).orElseThrow();
+        assertThat(stored.getName()).isEqualTo("after");
+        assertThat(stored.getLikedUser()).isEmpty();
+    }
+
+    @Test
+    void getFilmsPagesByIdCursor() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            films.add(storage.createFilm(film("film " + i)));
+        }
+
+        assertThat(storage.getFilms(0, 2)).extracting(Film::getId)
+                .containsExactly(films.get(0).getId(), films.get(1).getId());
+        assertThat(storage.getFilms(films.get(3).getId(), 10)).extracting(Film::getId)
+                .containsExactly(films.get(4).getId());
+    }
+
+    @Test
+    void getFilmsByIdsLoadsLikesInRequestOrder() {
+        long userId = userStorage.createUser(user("user")).getId();
+        Film first = storage.createFilm(film("first"));
+        Film second = storage.createFilm(film("second"));
+        storage.addLike(second.getId(), userId);
+
+        List<Film> found = storage.getFilmsByIds(List.of(second.getId(), 999L, first.getId()));
+
+        assertThat(found).extracting(Film::getId).containsExactly(second.getId(), first.getId());
+        assertThat(found.get(0).getLikedUser()).isEqualTo(Set.of(userId));
+    }
+
+    @Test
+    void applyLikesWritesBatchAndKeepsCounters() {
+        long firstUser = userStorage.createUser(user("first")).getId();
+        long secondUser = userStorage.createUser(user("second")).getId();
+        Film first = storage.createFilm(film("first"));
+        Film second = storage.createFilm(film("second"));
+        storage.addLike(first.getId(), firstUser);
+
+        storage.applyLikes(List.of(
+                new EdgeChange(first.getId(), firstUser, false),
+                new EdgeChange(second.getId(), firstUser, true),
+                new EdgeChange(second.getId(), secondUser, true),
+                new EdgeChange(first.getId(), secondUser, false)));
+
+        assertThat(storage.getPopularFilms(2)).extracting(Film::getId)
+                .containsExactly(second.getId(), first.getId());
+        assertThat(storage.getFilmById(second.getId()).orElseThrow().getLikedUser())
+                .isEqualTo(Set.of(firstUser, secondUser));
+        assertThat(storage.getFilmById(first.getId()).orElseThrow().getLikedUser()).isEmpty();
+    }
+
+    @Test
+    void createFilmsAssignsKeysInOrderAndCountsLikes() {
+        long userId = userStorage.createUser(user("user")).getId();
+        Film liked = film("liked");
+        liked.getLikedUser().add(userId);
+        liked.getLikedUser().add(999L);
+
+        List<Film> created = storage.createFilms(List.of(film("first"), liked, film("third")));
+
+        assertThat(created).extracting(Film::getName).containsExactly("first", "liked", "third");
+        assertThat(created).extracting(Film::getId).doesNotContainNull().isSorted();
+        assertThat(storage.getFilmById(created.get(1).getId()).orElseThrow().getLikedUser())
+                .isEqualTo(Set.of(userId));
+        assertThat(storage.getPopularFilms(1)).extracting(Film::getId).containsExactly(created.get(1).getId());
+        assertThat(storage.createFilms(List.of())).isEmpty();
+    }
+
+    @Test
+    void trendingFilmsCountLikesInsideWindowAndSurviveFilmUpdate() {
+        long firstUser = userStorage.createUser(user("first")).getId();
+        long secondUser = userStorage.createUser(user("second")).getId();
+        Film old = storage.createFilm(film("old"));
+        Film fresh = storage.createFilm(film("fresh"));
+        storage.createFilm(film("unliked"));
+        storage.addLike(old.getId(), firstUser);
+        storage.addLike(old.getId(), secondUser);
+        storage.addLike(fresh.getId(), firstUser);
+        jdbcTemplate.update("UPDATE film_likes SET liked_at = DATEADD(DAY, -2, CURRENT_TIMESTAMP) WHERE film_id = ?",
+                old.getId());
+
+        assertThat(storage.getTrendingFilms(TrendWindow.DAY, 10)).extracting(Film::getId)
+                .containsExactly(fresh.getId());
+        assertThat(storage.getTrendingFilms(TrendWindow.WEEK, 10)).extracting(Film::getId)
+                .containsExactly(old.getId(), fresh.getId());
+
+        // Правка фильма с теми же лайками не делает их свежими
+        Film edited = storage.getFilmById(old.getId()).orElseThrow();
+        edited.setName("old, edited");
+        storage.updateFilm(edited);
+        assertThat(storage.getTrendingFilms(TrendWindow.DAY, 10)).extracting(Film::getId)
+                .containsExactly(fresh.getId());
+        assertThat(storage.getFilmById(old.getId()).orElseThrow().getLikedUser()).hasSize(2);
+        assertThat(storage.getPopularFilms(1)).extracting(Film::getId).containsExactly(old.getId());
+    }
+
+    @Test
+    void searchFilmsPrefersNameMatchesThenLikes() {
+        long userId = userStorage.createUser(user("user")).getId();
+        Film inDescription = film("Making of");
+        inDescription.setDescription("About the Matrix");
+        inDescription = storage.createFilm(inDescription);
+        Film inName = storage.createFilm(film("The Matrix"));
+        Film liked = storage.createFilm(film("Matrix Reloaded"));
+        Film hedgehog = storage.createFilm(film("Ёжик в тумане"));
+        storage.addLike(liked.getId(), userId);
+
+        assertThat(storage.searchFilms("matrix", 10)).extracting(Film::getId)
+                .containsExactly(liked.getId(), inName.getId(), inDescription.getId());
+        assertThat(storage.searchFilms("matrix reload", 10)).extracting(Film::getId).containsExactly(liked.getId());
+        assertThat(storage.searchFilms("ежик", 10)).extracting(Film::getId).containsExactly(hedgehog.getId());
+        assertThat(storage.searchFilms("!", 10)).isEmpty();
+    }
+
+    @Test
+    void getLikedFilmsPagesByFilmId() {
+        long userId = userStorage.createUser(user("user")).getId();
+        Film first = storage.createFilm(film("first"));
+        storage.createFilm(film("skipped"));
+        Film third = storage.createFilm(film("third"));
+        storage.addLike(third.getId(), userId);
+        storage.addLike(first.getId(), userId);
+
+        assertThat(storage.getLikedFilms(userId, 0, 1)).extracting(Film::getId).containsExactly(first.getId());
+        assertThat(storage.getLikedFilms(userId, first.getId(), 10)).extracting(Film::getId)
+                .containsExactly(third.getId());
+    }
+
+    @Test
+    void getFilmRecommendationsWeighsNeighboursInSql() {
+        long user = userStorage.createUser(user("user")).getId();
+        long close = userStorage.createUser(user("close")).getId();
+        long distant = userStorage.createUser(user("distant")).getId();
+        Film a = storage.createFilm(film("a"));
+        Film b = storage.createFilm(film("b"));
+        Film c = storage.createFilm(film("c"));
+        Film d = storage.createFilm(film("d"));
+        storage.applyLikes(List.of(
+                new EdgeChange(a.getId(), user, true),
+                new EdgeChange(b.getId(), user, true),
+                new EdgeChange(a.getId(), close, true),
+                new EdgeChange(b.getId(), close, true),
+                new EdgeChange(c.getId(), close, true),
+                new EdgeChange(a.getId(), distant, true),
+                new EdgeChange(d.getId(), distant, true)));
+
+        assertThat(storage.getFilmRecommendations(user, 10)).extracting(Film::getId)
+                .containsExactly(c.getId(), d.getId());
+        assertThat(storage.getFilmRecommendations(user, 1).get(0).getLikedUser()).isEqualTo(Set.of(close));
+    }
+
+    @Test
+    void likeOperationsThrowWhenFilmMissing() {
+        long userId = userStorage.createUser(user("user")).getId();
+
+        assertThatThrownBy(() -> storage.addLike(999L, userId))
+                .isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> storage.removeLike(999L, userId))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,318 @@
+package ru.yandex.practicum.filmorate.storage.film;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.id.SequenceIdGenerator;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryFilmStorageTest {
+    private InMemoryFilmStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new InMemoryFilmStorage();
+    }
+
+    @Test
+    void getPopularFilmsOrdersByLikesThenById() {
+        Film first = storage.createFilm(film("first"));
+        Film second = storage.createFilm(film("second"));
+        Film third = storage.createFilm(film("third"));
+
+        storage.addLike(third.getId(), 1L);
+        storage.addLike(third.getId(), 2L);
+        storage.addLike(second.getId(), 1L);
+
+        assertThat(storage.getPopularFilms(10)).containsExactly(third, second, first);
+        assertThat(storage.getPopularFilms(2)).containsExactly(third, second);
+        assertThat(storage.getPopularFilms(0)).isEmpty();
+    }
+
+    @Test
+    void getPopularFilmsFollowsLikeRemoval() {
+        Film first = storage.createFilm(film("first"));
+        Film second = storage.createFilm(film("second"));
+
+        storage.addLike(second.getId(), 1L);
+        storage.addLike(second.getId(), 1L);
+        assertThat(storage.getPopularFilms(1)).containsExactly(second);
+
+        storage.removeLike(second.getId(), 1L);
+        storage.removeLike(second.getId(), 1L);
+        assertThat(second.getLikedUser()).isEmpty();
+        assertThat(storage.getPopularFilms(2)).containsExactly(first, second);
+    }
+
+    @Test
+    void getPopularFilmsFollowsUpdatedLikes() {
+        Film first = storage.createFilm(film("first"));
+        Film second = storage.createFilm(film("second"));
+        storage.addLike(first.getId(), 1L);
+
+        Film replacement = film("second v2");
+        replacement.setId(second.getId());
+        replacement.getLikedUser().addAll(List.of(1L, 2L));
+        storage.updateFilm(replacement);
+
+        assertThat(storage.getPopularFilms(2)).containsExactly(replacement, first);
+    }
+
+    @Test
+    void getPopularFilmsMatchesFullSort() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            Film film = storage.createFilm(film("film " + i));
+            int likes = random.nextInt(20);
+            for (long user = 0; user < likes; user++) {
+                storage.addLike(film.getId(), user);
+            }
+            if (likes > 0 && random.nextBoolean()) {
+                storage.removeLike(film.getId(), 0L);
+            }
+        }
+
+        List<Film> expected = storage.getAllFilms().stream()
+                .sorted(Comparator.comparingInt((Film film) -> film.getLikedUser().size()).reversed()
+                        .thenComparing(Film::getId))
+                .limit(50)
+                .toList();
+
+        assertThat(storage.getPopularFilms(50)).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void getFilmsPagesByIdCursor() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            films.add(storage.createFilm(film("film " + i)));
+        }
+
+        assertThat(storage.getFilms(0, 2)).containsExactly(films.get(0), films.get(1));
+        assertThat(storage.getFilms(films.get(1).getId(), 2)).containsExactly(films.get(2), films.get(3));
+        assertThat(storage.getFilms(films.get(3).getId(), 10)).containsExactly(films.get(4));
+        assertThat(storage.getFilms(films.get(4).getId(), 10)).isEmpty();
+    }
+
+    @Test
+    void getAllFilmsPublishesVersionsSharingUnchangedFilms() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            films.add(storage.createFilm(film("film " + i)));
+        }
+        List<Film> before = List.copyOf(storage.getAllFilms());
+        assertThat(storage.getAllFilms()).isSameAs(storage.getAllFilms());
+
+        storage.addLike(films.get(0).getId(), 7L);
+        List<Film> after = List.copyOf(storage.getAllFilms());
+
+        assertThat(before.get(0).getLikedUser()).isEmpty();
+        assertThat(after.get(0).getLikedUser()).containsExactly(7L);
+        assertThat(after.get(0)).isNotSameAs(films.get(0));
+        // Кусок с последним фильмом не менялся – его копии общие у обеих версий
+        assertThat(after.get(199)).isSameAs(before.get(199));
+        assertThat(after).extracting(Film::getId).isSorted().hasSize(200);
+    }
+
+    @Test
+    void createFilmsAssignsConsecutiveIdsAndIndexesLikes() {
+        storage.createFilm(film("single"));
+        Film liked = film("liked");
+        liked.getLikedUser().add(1L);
+
+        List<Film> created = storage.createFilms(List.of(film("first"), liked));
+
+        assertThat(created).extracting(Film::getId).containsExactly(2L, 3L);
+        assertThat(storage.getFilms(0, 10)).hasSize(3);
+        assertThat(storage.getPopularFilms(1)).containsExactly(liked);
+    }
+
+    @Test
+    void approxPopularFilmsFollowLikesAndSkipUnlikedFilms() {
+        Film first = storage.createFilm(film("first"));
+        Film second = storage.createFilm(film("second"));
+        Film third = storage.createFilm(film("third"));
+        Film unliked = storage.createFilm(film("unliked"));
+        like(1, first, second, third);
+        like(2, second, third);
+        like(3, third);
+        storage.removeLike(third.getId(), 3);
+        storage.removeLike(third.getId(), 2);
+
+        assertThat(storage.getApproxPopularFilms(10)).containsExactly(second, first, third);
+        assertThat(storage.getApproxPopularFilms(1)).containsExactly(second);
+        // Длиннее ёмкости сводки – точный топ, с фильмами без лайков
+        assertThat(storage.getApproxPopularFilms(10_000)).containsExactly(second, first, third, unliked);
+    }
+
+    @Test
+    void trendingFilmsCountOnlyLikesInsideWindow() {
+        MutableClock clock = new MutableClock();
+        storage = new InMemoryFilmStorage(new SequenceIdGenerator(), clock);
+        Film old = storage.createFilm(film("old"));
+        Film fresh = storage.createFilm(film("fresh"));
+        Film unliked = storage.createFilm(film("unliked"));
+        like(1, old);
+        like(2, old);
+        like(3, old);
+
+        clock.advance(Duration.ofHours(2));
+        like(1, fresh);
+        like(2, fresh);
+        like(4, unliked);
+        storage.removeLike(unliked.getId(), 4);
+
+        // Старые лайки уже вне часового окна, но ещё в суточном; фильм со снятым лайком не в трендах
+        assertThat(storage.getTrendingFilms(TrendWindow.HOUR, 10)).containsExactly(fresh);
+        assertThat(storage.getTrendingFilms(TrendWindow.DAY, 10)).containsExactly(old, fresh);
+        assertThat(storage.getTrendingFilms(TrendWindow.DAY, 1)).containsExactly(old);
+
+        // Снятие старого лайка не трогает часовое окно
+        storage.removeLike(old.getId(), 3);
+        assertThat(storage.getTrendingFilms(TrendWindow.HOUR, 10)).containsExactly(fresh);
+        assertThat(storage.getTrendingFilms(TrendWindow.DAY, 10)).containsExactly(old, fresh);
+
+        clock.advance(Duration.ofDays(2));
+        assertThat(storage.getTrendingFilms(TrendWindow.DAY, 10)).isEmpty();
+        assertThat(storage.getTrendingFilms(TrendWindow.WEEK, 10)).containsExactly(old, fresh);
+        assertThat(storage.getPopularFilms(1)).containsExactly(old);
+    }
+
+    @Test
+    void searchFilmsMatchesAllWordsAndRanksByFieldAndLikes() {
+        Film matrix = storage.createFilm(film("The Matrix", "Хакер узнаёт правду о мире"));
+        Film reloaded = storage.createFilm(film("Matrix Reloaded", "Продолжение"));
+        Film documentary = storage.createFilm(film("Making of", "About the matrix trilogy"));
+        storage.createFilm(film("Ёжик в тумане", "Мультфильм"));
+        like(1, reloaded);
+
+        // Совпадение в названии выше описания, при равном совпадении выше фильм с лайками
+        assertThat(storage.searchFilms("matrix", 10)).containsExactly(reloaded, matrix, documentary);
+        assertThat(storage.searchFilms("MATRIX relo", 10)).containsExactly(reloaded);
+        assertThat(storage.searchFilms("мат", 10)).isEmpty();
+        assertThat(storage.searchFilms("ежик", 10)).extracting(Film::getName).containsExactly("Ёжик в тумане");
+        assertThat(storage.searchFilms("узнаеТ пра", 10)).containsExactly(matrix);
+        assertThat(storage.searchFilms(" ,. ", 10)).isEmpty();
+
+        Film renamed = film("Speed", "Автобус");
+        renamed.setId(matrix.getId());
+        storage.updateFilm(renamed);
+        assertThat(storage.searchFilms("matrix", 10)).containsExactly(reloaded, documentary);
+        assertThat(storage.searchFilms("spe", 10)).containsExactly(renamed);
+    }
+
+    @Test
+    void searchPrefixSkipsTermsLeftEmptyByRenames() {
+        for (int i = 0; i < 100; i++) {
+            Film film = storage.createFilm(film(String.format("zz%02d", i)));
+            Film renamed = film("renamed");
+            renamed.setId(film.getId());
+            storage.updateFilm(renamed);
+        }
+        Film target = storage.createFilm(film("zzz"));
+
+        assertThat(storage.searchFilms("zz", 10)).containsExactly(target);
+    }
+
+    @Test
+    void getLikedFilmsPagesUserLikesByFilmId() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            films.add(storage.createFilm(film("film " + i)));
+        }
+        like(7, films.get(4), films.get(0), films.get(2), films.get(3));
+        storage.removeLike(films.get(3).getId(), 7);
+
+        assertThat(storage.getLikedFilms(7, 0, 2)).containsExactly(films.get(0), films.get(2));
+        assertThat(storage.getLikedFilms(7, films.get(2).getId(), 2)).containsExactly(films.get(4));
+        assertThat(storage.getLikedFilms(7, films.get(1).getId(), 10)).containsExactly(films.get(2), films.get(4));
+        assertThat(storage.getLikedFilms(8, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void filmRecommendationsWeighFilmsByOverlapWithNeighbours() {
+        Film a = storage.createFilm(film("a"));
+        Film b = storage.createFilm(film("b"));
+        Film c = storage.createFilm(film("c"));
+        Film d = storage.createFilm(film("d"));
+        Film e = storage.createFilm(film("e"));
+        like(1, a, b);
+        like(2, a, b, c);
+        like(3, a, d);
+        like(4, e);
+
+        // У второго пользователя два общих лайка, у третьего один; с четвёртым общих нет
+        assertThat(storage.getFilmRecommendations(1, 10)).containsExactly(c, d);
+        assertThat(storage.getFilmRecommendations(1, 1)).containsExactly(c);
+        assertThat(storage.getFilmRecommendations(5, 10)).isEmpty();
+
+        // Обратный индекс следует за снятием лайка и за заменой фильма целиком
+        storage.removeLike(d.getId(), 3);
+        Film replaced = film("c");
+        replaced.setId(c.getId());
+        storage.updateFilm(replaced);
+        assertThat(storage.getFilmRecommendations(1, 10)).isEmpty();
+    }
+
+    @Test
+    void addLikeThrowsWhenFilmMissing() {
+        assertThatThrownBy(() -> storage.addLike(99L, 1L))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private static Film film(String name) {
+        return film(name, "description");
+    }
+
+    private static Film film(String name, String description) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription(description);
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+
+    private void like(long userId, Film... films) {
+        for (Film film : films) {
+            storage.addLike(film.getId(), userId);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.storage.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdGeneratorTest {
+
+    @Test
+    void sequenceStartsAfterLastIdAndIncreases() {
+        SequenceIdGenerator generator = new SequenceIdGenerator(41);
+
+        assertThat(generator.nextId()).isEqualTo(42);
+        assertThat(generator.nextId()).isEqualTo(43);
+        assertThat(generator.reserve(10)).isEqualTo(44);
+        assertThat(generator.nextId()).isEqualTo(54);
+    }
+
+    @Test
+    void blockGeneratorHandsOutReservedRangesInOrder() {
+        AtomicInteger reservations = new AtomicInteger();
+        SequenceIdGenerator shared = new SequenceIdGenerator();
+        BlockIdGenerator generator = new BlockIdGenerator(size -> {
+            reservations.incrementAndGet();
+            return shared.reserve(size);
+        }, 100);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            ids.add(generator.nextId());
+        }
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        assertThat(ids.get(0)).isEqualTo(1);
+        assertThat(ids.get(249)).isEqualTo(250);
+        assertThat(reservations).hasValue(3);
+    }
+
+    @Test
+    void blockGeneratorsSharingSourceNeverCollide() throws Exception {
+        SequenceIdGenerator shared = new SequenceIdGenerator();
+        List<IdGenerator> nodes = List.of(
+                new BlockIdGenerator(shared, 64),
+                new BlockIdGenerator(shared, 64),
+                new BlockIdGenerator(shared, 1)
+        );
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            Collection<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 6; thread++) {
+                IdGenerator node = nodes.get(thread % nodes.size());
+                futures.add(executor.submit(() -> {
+                    long previous = 0;
+                    for (int i = 0; i < 10_000; i++) {
+                        long id = node.nextId();
+                        assertThat(id).isGreaterThan(previous);
+                        previous = id;
+                        ids.add(id);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(60_000);
+    }
+
+    @Test
+    void blockGeneratorRejectsNonPositiveBlockSize() {
+        assertThatThrownBy(() -> new BlockIdGenerator(new SequenceIdGenerator(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
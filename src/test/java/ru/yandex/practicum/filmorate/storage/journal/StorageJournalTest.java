@@ -0,0 +1,197 @@
+package ru.yandex.practicum.filmorate.storage.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
+import ru.yandex.practicum.filmorate.storage.film.TrendWindow;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StorageJournalTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopenRestoresFilmsUsersLikesAndFriends() throws IOException {
+        try (StorageJournal journal = open()) {
+            User first = journal.userStorage().createUser(user("first"));
+            User second = journal.userStorage().createUser(user("second"));
+            Film film = journal.filmStorage().createFilm(film("film"));
+            journal.userStorage().addFriend(first.getId(), second.getId());
+            journal.filmStorage().addLike(film.getId(), first.getId());
+            journal.filmStorage().addLike(film.getId(), second.getId());
+            journal.filmStorage().removeLike(film.getId(), first.getId());
+
+            User renamed = user("renamed");
+            renamed.setId(first.getId());
+            journal.userStorage().updateUser(renamed);
+        }
+
+        try (StorageJournal journal = open()) {
+            assertThat(journal.getRecoveredRecords()).isEqualTo(8);
+            User first = journal.userStorage().getUserById(1L).orElseThrow();
+            assertThat(first.getLogin()).isEqualTo("renamed");
+            assertThat(first.getFriends()).containsExactly(2L);
+            assertThat(journal.userStorage().getUserById(2L).orElseThrow().getFriends()).containsExactly(1L);
+            assertThat(journal.filmStorage().getFilmById(1L).orElseThrow().getLikedUser()).containsExactly(2L);
+            assertThat(journal.filmStorage().getPopularFilms(1)).extracting(Film::getId).containsExactly(1L);
+        }
+    }
+
+    @Test
+    void snapshotReplacesCoveredSegmentsAndTailIsReplayedOnTop() throws IOException {
+        try (StorageJournal journal = open()) {
+            User user = journal.userStorage().createUser(user("user"));
+            Film film = journal.filmStorage().createFilm(film("film"));
+            journal.filmStorage().addLike(film.getId(), user.getId());
+
+            journal.snapshot();
+            journal.filmStorage().removeLike(film.getId(), user.getId());
+        }
+
+        assertThat(files("snapshot-")).hasSize(1);
+        assertThat(files("wal-")).hasSize(1);
+
+        try (StorageJournal journal = open()) {
+            assertThat(journal.getRecoveredRecords()).isEqualTo(1);
+            assertThat(journal.filmStorage().getFilmById(1L).orElseThrow().getLikedUser()).isEmpty();
+            assertThat(journal.userStorage().getAllUsers()).hasSize(1);
+        }
+    }
+
+    @Test
+    void tornTailIsTruncatedAndWritingContinues() throws IOException {
+        try (StorageJournal journal = open()) {
+            journal.userStorage().createUser(user("first"));
+            journal.userStorage().createUser(user("second"));
+        }
+
+        // Сбой посреди записи: от последней записи осталась половина
+        Path segment = files("wal-").get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        try (StorageJournal journal = open()) {
+            assertThat(journal.getRecoveredRecords()).isEqualTo(1);
+            assertThat(journal.userStorage().getAllUsers()).extracting(User::getLogin).containsExactly("first");
+            journal.userStorage().createUser(user("third"));
+        }
+
+        try (StorageJournal journal = open()) {
+            assertThat(journal.userStorage().getAllUsers()).extracting(User::getLogin).containsExactly("first", "third");
+        }
+    }
+
+    @Test
+    void idsContinueAfterRecovery() throws IOException {
+        try (StorageJournal journal = open()) {
+            journal.filmStorage().createFilm(film("first"));
+            journal.filmStorage().createFilm(film("second"));
+            journal.snapshot();
+        }
+
+        try (StorageJournal journal = open()) {
+            assertThat(journal.filmStorage().createFilm(film("third")).getId()).isEqualTo(3L);
+        }
+    }
+
+    @Test
+    void batchCreatesAreReplayedAsSeparateRecords() throws IOException {
+        try (StorageJournal journal = open()) {
+            journal.userStorage().createUsers(List.of(user("first"), user("second")));
+            journal.filmStorage().createFilms(List.of(film("first"), film("second"), film("third")));
+        }
+
+        try (StorageJournal journal = open()) {
+            assertThat(journal.getRecoveredRecords()).isEqualTo(5);
+            assertThat(journal.userStorage().getAllUsers()).extracting(User::getLogin)
+                    .containsExactly("first", "second");
+            assertThat(journal.filmStorage().getAllFilms()).extracting(Film::getId).containsExactly(1L, 2L, 3L);
+        }
+    }
+
+    @Test
+    void edgeBatchesAreJournaledPerEdge() throws IOException {
+        try (StorageJournal journal = open()) {
+            User first = journal.userStorage().createUser(user("first"));
+            User second = journal.userStorage().createUser(user("second"));
+            Film film = journal.filmStorage().createFilm(film("film"));
+            journal.filmStorage().applyLikes(List.of(
+                    new EdgeChange(film.getId(), first.getId(), true),
+                    new EdgeChange(film.getId(), second.getId(), true),
+                    new EdgeChange(film.getId(), first.getId(), false)));
+            journal.userStorage().applyFriendships(List.of(new EdgeChange(first.getId(), second.getId(), true)));
+        }
+
+        try (StorageJournal journal = open()) {
+            assertThat(journal.getRecoveredRecords()).isEqualTo(7);
+            assertThat(journal.filmStorage().getFilmById(1L).orElseThrow().getLikedUser()).containsExactly(2L);
+            assertThat(journal.userStorage().getUserById(2L).orElseThrow().getFriends()).containsExactly(1L);
+        }
+    }
+
+    @Test
+    void replayedLikesDoNotCountAsTrending() throws IOException {
+        Clock clock = Clock.fixed(Instant.parse("2024-05-01T12:00:00Z"), ZoneOffset.UTC);
+        try (StorageJournal journal = new StorageJournal(directory, Duration.ZERO, Duration.ZERO, clock)) {
+            User user = journal.userStorage().createUser(user("user"));
+            Film film = journal.filmStorage().createFilm(film("film"));
+            journal.filmStorage().addLike(film.getId(), user.getId());
+            assertThat(journal.filmStorage().getTrendingFilms(TrendWindow.HOUR, 10))
+                    .extracting(Film::getId).containsExactly(film.getId());
+        }
+
+        try (StorageJournal journal = new StorageJournal(directory, Duration.ZERO, Duration.ZERO, clock)) {
+            assertThat(journal.filmStorage().getFilmById(1L).orElseThrow().getLikedUser()).containsExactly(1L);
+            assertThat(journal.filmStorage().getTrendingFilms(TrendWindow.HOUR, 10)).isEmpty();
+
+            User other = journal.userStorage().createUser(user("other"));
+            journal.filmStorage().addLike(1L, other.getId());
+            assertThat(journal.filmStorage().getTrendingFilms(TrendWindow.HOUR, 10))
+                    .extracting(Film::getId).containsExactly(1L);
+        }
+    }
+
+    private StorageJournal open() throws IOException {
+        return new StorageJournal(directory, Duration.ZERO, Duration.ZERO);
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix)).toList();
+        }
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@mail.ru");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+
+    private static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("description");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        return film;
+    }
+}
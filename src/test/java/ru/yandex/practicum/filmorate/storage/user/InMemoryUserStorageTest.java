@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryUserStorageTest {
+    private InMemoryUserStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new InMemoryUserStorage();
+    }
+
+    @Test
+    void addFriendLinksBothUsers() {
+        User first = storage.createUser(user("first"));
+        User second = storage.createUser(user("second"));
+
+        storage.addFriend(first.getId(), second.getId());
+
+        assertThat(storage.getFriends(first.getId())).containsExactly(second);
+        assertThat(storage.getFriends(second.getId())).containsExactly(first);
+
+        storage.removeFriend(second.getId(), first.getId());
+
+        assertThat(storage.getFriends(first.getId())).isEmpty();
+        assertThat(storage.getFriends(second.getId())).isEmpty();
+    }
+
+    @Test
+    void getUsersByIdsKeepsRequestOrderAndSkipsMissingAndRepeatedIds() {
+        User first = storage.createUser(user("first"));
+        User second = storage.createUser(user("second"));
+
+        assertThat(storage.getUsersByIds(List.of(second.getId(), 99L, first.getId(), second.getId())))
+                .containsExactly(second, first);
+    }
+
+    @Test
+    void getAllUsersReturnsVersionUntouchedByLaterChanges() {
+        User first = storage.createUser(user("first"));
+        User second = storage.createUser(user("second"));
+        Collection<User> before = storage.getAllUsers();
+
+        storage.addFriend(first.getId(), second.getId());
+        User renamed = user("renamed");
+        renamed.setId(second.getId());
+        storage.updateUser(renamed);
+
+        assertThat(before).extracting(User::getLogin).containsExactly("first", "second");
+        assertThat(before).allMatch(user -> user.getFriends().isEmpty());
+        assertThat(storage.getAllUsers()).extracting(User::getLogin).containsExactly("first", "renamed");
+        assertThat(storage.getAllUsers()).allMatch(user -> user.getFriends().size() == 1);
+    }
+
+    @Test
+    void getFriendsSkipsMissingFriendEntries() {
+        User user = storage.createUser(user("user"));
+        User friend = storage.createUser(user("friend"));
+        storage.addFriend(user.getId(), friend.getId());
+        user.getFriends().add(99L);
+
+        assertThat(storage.getFriends(user.getId())).containsExactly(friend);
+    }
+
+    @Test
+    void getCommonFriendsLeavesBothFriendSetsUntouched() {
+        User first = storage.createUser(user("first"));
+        User second = storage.createUser(user("second"));
+        User common = storage.createUser(user("common"));
+        User onlyFirst = storage.createUser(user("onlyFirst"));
+        storage.addFriend(first.getId(), common.getId());
+        storage.addFriend(first.getId(), onlyFirst.getId());
+        storage.addFriend(second.getId(), common.getId());
+
+        assertThat(storage.getCommonFriends(first.getId(), second.getId())).containsExactly(common);
+        assertThat(first.getFriends()).isEqualTo(Set.of(common.getId(), onlyFirst.getId()));
+        assertThat(second.getFriends()).isEqualTo(Set.of(common.getId()));
+    }
+
+    @Test
+    void friendRecommendationsRankFriendsOfFriendsByMutualFriends() {
+        User user = storage.createUser(user("user"));
+        User firstFriend = storage.createUser(user("firstFriend"));
+        User secondFriend = storage.createUser(user("secondFriend"));
+        User sharedByBoth = storage.createUser(user("sharedByBoth"));
+        User sharedByOne = storage.createUser(user("sharedByOne"));
+        storage.addFriend(user.getId(), firstFriend.getId());
+        storage.addFriend(user.getId(), secondFriend.getId());
+        storage.addFriend(firstFriend.getId(), secondFriend.getId());
+        storage.addFriend(firstFriend.getId(), sharedByBoth.getId());
+        storage.addFriend(secondFriend.getId(), sharedByBoth.getId());
+        storage.addFriend(secondFriend.getId(), sharedByOne.getId());
+
+        // Уже друзья и сам пользователь в рекомендации не попадают
+        assertThat(storage.getFriendRecommendations(user.getId(), 10))
+                .containsExactly(sharedByBoth, sharedByOne);
+        assertThat(storage.getFriendRecommendations(user.getId(), 1)).containsExactly(sharedByBoth);
+        assertThat(storage.getFriendRecommendations(sharedByOne.getId(), 10))
+                .containsExactly(user, firstFriend, sharedByBoth);
+    }
+
+    @Test
+    void addFriendThrowsWhenUserMissing() {
+        User user = storage.createUser(user("user"));
+
+        assertThatThrownBy(() -> storage.addFriend(user.getId(), 99L))
+                .isInstanceOf(NotFoundException.class);
+        assertThat(user.getFriends()).isEmpty();
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,177 @@
+package ru.yandex.practicum.filmorate.storage.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.EdgeChange;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JdbcTest
+@ActiveProfiles("db")
+@Import(UserDbStorage.class)
+class UserDbStorageTest {
+    @Autowired
+    private UserDbStorage storage;
+
+    @Test
+    void createAndUpdateUser() {
+        User created = storage.createUser(user("login"));
+
+        User update = user("renamed");
+        update.setId(created.getId());
+        update.setName("Name");
+        storage.updateUser(update);
+
+        assertThat(storage.getUserById(created.getId()))
+                .hasValueSatisfying(user -> {
+                    assertThat(user.getLogin()).isEqualTo("renamed");
+                    assertThat(user.getName()).isEqualTo("Name");
+                });
+    }
+
+    @Test
+    void createUsersAssignsKeysInOrder() {
+        User friendly = user("friendly");
+        friendly.getFriends().add(42L);
+
+        List<User> created = storage.createUsers(List.of(user("first"), friendly));
+
+        assertThat(created).extracting(User::getLogin).containsExactly("first", "friendly");
+        assertThat(created).extracting(User::getId).doesNotContainNull().isSorted();
+        assertThat(storage.getUserById(created.get(1).getId()).orElseThrow().getFriends()).isEmpty();
+        assertThat(storage.countUsers()).isEqualTo(2);
+    }
+
+    @Test
+    void updateUserThrowsWhenMissing() {
+        User update = user("missing");
+        update.setId(999L);
+
+        assertThatThrownBy(() -> storage.updateUser(update))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void getUsersByIdsKeepsRequestOrderAcrossInListParts() {
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < 1_500; i++) {
+            batch.add(user("user" + i));
+        }
+        List<User> created = storage.createUsers(batch);
+        long first = created.get(0).getId();
+        long last = created.get(1_499).getId();
+        storage.addFriend(first, last);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 1_499; i >= 0; i--) {
+            ids.add(created.get(i).getId());
+        }
+        ids.add(999_999L);
+        ids.add(first);
+
+        List<User> found = storage.getUsersByIds(ids);
+
+        assertThat(found).hasSize(1_500);
+        assertThat(found).extracting(User::getId).containsExactlyElementsOf(ids.subList(0, 1_500));
+        assertThat(found.get(0).getFriends()).isEqualTo(Set.of(first));
+        assertThat(storage.getUsersByIds(List.of())).isEmpty();
+    }
+
+    @Test
+    void friendshipIsSymmetric() {
+        User first = storage.createUser(user("first"));
+        User second = storage.createUser(user("second"));
+
+        storage.addFriend(first.getId(), second.getId());
+        storage.addFriend(first.getId(), second.getId());
+
+        assertThat(storage.getFriends(first.getId())).extracting(User::getId).containsExactly(second.getId());
+        assertThat(storage.getFriends(second.getId())).extracting(User::getId).containsExactly(first.getId());
+        assertThat(storage.getUserById(first.getId()).orElseThrow().getFriends())
+                .isEqualTo(Set.of(second.getId()));
+
+        storage.removeFriend(second.getId(), first.getId());
+
+        assertThat(storage.getFriends(first.getId())).isEmpty();
+        assertThat(storage.getFriends(second.getId())).isEmpty();
+    }
+
+    @Test
+    void applyFriendshipsWritesBothDirections() {
+        User first = storage.createUser(user("first"));
+        User second = storage.createUser(user("second"));
+        User third = storage.createUser(user("third"));
+        storage.addFriend(first.getId(), third.getId());
+
+        storage.applyFriendships(List.of(
+                new EdgeChange(first.getId(), second.getId(), true),
+                new EdgeChange(first.getId(), third.getId(), false)));
+
+        assertThat(storage.getFriends(first.getId())).extracting(User::getId).containsExactly(second.getId());
+        assertThat(storage.getFriends(second.getId())).extracting(User::getId).containsExactly(first.getId());
+        assertThat(storage.getFriends(third.getId())).isEmpty();
+    }
+
+    @Test
+    void getCommonFriendsRunsIntersectionInSql() {
+        User first = storage.createUser(user("first"));
+        User second = storage.createUser(user("second"));
+        User common = storage.createUser(user("common"));
+        User onlyFirst = storage.createUser(user("onlyFirst"));
+        storage.addFriend(first.getId(), common.getId());
+        storage.addFriend(first.getId(), onlyFirst.getId());
+        storage.addFriend(second.getId(), common.getId());
+
+        assertThat(storage.getCommonFriends(first.getId(), second.getId()))
+                .extracting(User::getId)
+                .containsExactly(common.getId());
+    }
+
+    @Test
+    void getFriendRecommendationsCountsMutualFriendsInSql() {
+        User user = storage.createUser(user("user"));
+        User firstFriend = storage.createUser(user("firstFriend"));
+        User secondFriend = storage.createUser(user("secondFriend"));
+        User sharedByBoth = storage.createUser(user("sharedByBoth"));
+        User sharedByOne = storage.createUser(user("sharedByOne"));
+        storage.addFriend(user.getId(), firstFriend.getId());
+        storage.addFriend(user.getId(), secondFriend.getId());
+        storage.addFriend(firstFriend.getId(), secondFriend.getId());
+        storage.addFriend(firstFriend.getId(), sharedByBoth.getId());
+        storage.addFriend(secondFriend.getId(), sharedByBoth.getId());
+        storage.addFriend(secondFriend.getId(), sharedByOne.getId());
+
+        assertThat(storage.getFriendRecommendations(user.getId(), 10))
+                .extracting(User::getId)
+                .containsExactly(sharedByBoth.getId(), sharedByOne.getId());
+        assertThat(storage.getFriendRecommendations(user.getId(), 1).get(0).getFriends())
+                .containsExactlyInAnyOrder(firstFriend.getId(), secondFriend.getId());
+    }
+
+    @Test
+    void addFriendThrowsWhenFriendMissing() {
+        User user = storage.createUser(user("user"));
+
+        assertThatThrownBy(() -> storage.addFriend(user.getId(), 999L))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
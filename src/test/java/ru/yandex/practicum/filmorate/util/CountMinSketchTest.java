@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CountMinSketchTest {
+
+    @Test
+    void estimatesNeverUndercountAndStayWithinErrorBound() {
+        CountMinSketch sketch = new CountMinSketch(0.001, 0.01);
+        Random random = new Random(3);
+        Map<Long, Long> expected = new HashMap<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            long key = (long) (Math.pow(random.nextDouble(), 3) * 20_000);
+            sketch.add(key, 1);
+            expected.merge(key, 1L, Long::sum);
+        }
+        // Снятия не уводят ключи ниже нуля
+        for (long key = 0; key < 100; key++) {
+            long count = expected.getOrDefault(key, 0L);
+            sketch.add(key, -count);
+            expected.remove(key);
+        }
+
+        assertThat(sketch.width()).isEqualTo(4096);
+        assertThat(sketch.depth()).isEqualTo(5);
+        long bound = (long) (0.001 * sketch.total());
+        long outliers = 0;
+        for (long key = 0; key < 20_000; key++) {
+            long estimate = sketch.estimate(key);
+            long actual = expected.getOrDefault(key, 0L);
+            assertThat(estimate).isGreaterThanOrEqualTo(actual);
+            if (estimate - actual > bound) {
+                outliers++;
+            }
+        }
+        assertThat(outliers).isLessThan(20_000 / 100);
+    }
+
+    @Test
+    void rejectsParametersOutsideUnitInterval() {
+        assertThatThrownBy(() -> new CountMinSketch(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CountMinSketch(0.01, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.yandex.practicum.filmorate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeavyHittersTest {
+
+    @Test
+    void findsHeavyKeysInLongTailStream() {
+        HeavyHitters hitters = new HeavyHitters(256, 0.001, 0.01);
+        Random random = new Random(5);
+
+        // 100 000 случайных ключей по одному разу и ключи 1..10 вперемешку с ними: у ключа k – (11 - k) · 1000
+        for (int i = 0; i < 100_000; i++) {
+            hitters.add(1_000 + random.nextInt(1_000_000), 1);
+            for (long heavy = 1; heavy <= 10; heavy++) {
+                if (i % 100 < 11 - heavy) {
+                    hitters.add(heavy, 1);
+                }
+            }
+        }
+
+        assertThat(hitters.capacity()).isEqualTo(256);
+        assertThat(hitters.top(10)).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        assertThat(hitters.estimate(1)).isGreaterThanOrEqualTo(10_000);
+    }
+
+    @Test
+    void negativeWeightsLowerTrackedKeysAndDropEmptyOnes() {
+        HeavyHitters hitters = new HeavyHitters(64, 0.01, 0.01);
+        hitters.add(1, 5);
+        hitters.add(2, 3);
+        hitters.add(3, 1);
+        hitters.add(1, -4);
+        hitters.add(3, -1);
+        // Неотслеживаемый ключ с отрицательным весом ничего не ломает
+        hitters.add(4, -1);
+        hitters.add(4, 1);
+
+        assertThat(hitters.top(10)).containsExactly(2, 1);
+        assertThat(hitters.estimate(1)).isEqualTo(1);
+        assertThat(hitters.top(1)).containsExactly(2);
+        assertThat(hitters.top(0)).isEmpty();
+    }
+}
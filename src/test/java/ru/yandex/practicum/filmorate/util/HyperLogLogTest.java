@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimatesDistinctValuesWithinFewPercent() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long value = 1; value <= 100_000; value++) {
+            sketch.add(value);
+            // Повторы не меняют оценку
+            sketch.add(value);
+        }
+
+        assertThat(sketch.estimate()).isCloseTo(100_000L, within(7_000L));
+        assertThat(sketch.sizeInBytes()).isEqualTo(1 << HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    @Test
+    void smallSetsStaySparseAndExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long value = 1; value <= 50; value++) {
+            sketch.add(value);
+        }
+
+        assertThat(sketch.estimate()).isCloseTo(50L, within(2L));
+        assertThat(sketch.sizeInBytes()).isLessThan(256);
+    }
+
+    @Test
+    void mergeEstimatesUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (long value = 0; value < 30_000; value++) {
+            first.add(value);
+            second.add(value + 20_000);
+        }
+
+        first.merge(second);
+
+        assertThat(first.estimate()).isCloseTo(50_000L, within(3_500L));
+        assertThat(second.estimate()).isCloseTo(30_000L, within(2_100L));
+        assertThatThrownBy(() -> first.merge(new HyperLogLog(12))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void roundTripsSparseAndDenseSketches() throws IOException {
+        for (int size : new int[]{10, 10_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (long value = 0; value < size; value++) {
+                sketch.add(value);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            sketch.writeTo(new DataOutputStream(bytes));
+
+            HyperLogLog restored = HyperLogLog.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+            assertThat(restored.estimate()).isEqualTo(sketch.estimate());
+            assertThat(restored.sizeInBytes()).isEqualTo(sketch.sizeInBytes());
+        }
+    }
+}
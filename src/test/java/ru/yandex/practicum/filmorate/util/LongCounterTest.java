@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongCounterTest {
+
+    @Test
+    void countsLikeHashMapAndSelectsTopKeys() {
+        Random random = new Random(11);
+        LongCounter counter = new LongCounter();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(3_000) - 500;
+            assertThat(counter.increment(key)).isEqualTo(expected.merge(key, 1, Integer::sum));
+        }
+
+        assertThat(counter.size()).isEqualTo(expected.size());
+        assertThat(counter.get(-500)).isEqualTo(expected.getOrDefault(-500L, 0));
+        assertThat(counter.get(1_000_000)).isZero();
+
+        long[] top = expected.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                .limit(25)
+                .mapToLong(Map.Entry::getKey)
+                .toArray();
+        assertThat(counter.topKeys(25)).containsExactly(top);
+    }
+
+    @Test
+    void topKeysIsBoundedBySize() {
+        LongCounter counter = new LongCounter();
+        counter.increment(3);
+        counter.increment(1);
+        counter.increment(3);
+
+        assertThat(counter.topKeys(10)).containsExactly(3, 1);
+        assertThat(counter.topKeys(0)).isEmpty();
+        assertThat(new LongCounter().topKeys(5)).isEmpty();
+    }
+
+    @Test
+    void addAllMergesCounts() {
+        LongCounter counter = new LongCounter();
+        counter.add(1, 5);
+        LongCounter other = new LongCounter();
+        other.add(1, 2);
+        other.add(2, 10);
+
+        counter.addAll(other);
+
+        assertThat(counter.get(1)).isEqualTo(7);
+        assertThat(counter.topKeys(2)).containsExactly(2, 1);
+    }
+
+    @Test
+    void removeKeepsOtherKeysReachable() {
+        Random random = new Random(7);
+        LongCounter counter = new LongCounter();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(counter.remove(key)).isEqualTo(expected.getOrDefault(key, 0));
+                expected.remove(key);
+            } else {
+                counter.increment(key);
+                expected.merge(key, 1, Integer::sum);
+            }
+        }
+
+        assertThat(counter.size()).isEqualTo(expected.size());
+        for (long key = 0; key < 2_000; key++) {
+            assertThat(counter.get(key)).isEqualTo(expected.getOrDefault(key, 0));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ru.yandex.practicum.filmorate.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongHashSetTest {
+
+    @Test
+    void behavesLikeHashSetUnderRandomOperations() {
+        Random random = new Random(7);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextInt(2_000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertThat(set.remove(value)).isEqualTo(expected.remove(value));
+            } else {
+                assertThat(set.add(value)).isEqualTo(expected.add(value));
+            }
+        }
+
+        assertThat(set).hasSize(expected.size());
+        assertThat(set).isEqualTo(expected);
+        assertThat(set.toLongArray()).hasSize(expected.size());
+        for (long value = -100; value < 1_900; value++) {
+            assertThat(set.contains(value)).isEqualTo(expected.contains(value));
+        }
+    }
+
+    @Test
+    void intersectionReturnsCommonValuesWithoutMutatingOperands() {
+        LongHashSet small = new LongHashSet(List.of(2L, 4L, 6L, 100L));
+        LongHashSet large = new LongHashSet();
+        for (long value = 0; value < 50; value++) {
+            large.add(value);
+        }
+
+        assertThat(small.intersection(large)).containsExactlyInAnyOrder(2L, 4L, 6L);
+        assertThat(large.intersection(small)).containsExactlyInAnyOrder(2L, 4L, 6L);
+        assertThat(small).hasSize(4);
+        assertThat(large).hasSize(50);
+        assertThat(small.intersection(new LongHashSet())).isEmpty();
+    }
+
+    @Test
+    void supportsSentinelValue() {
+        LongHashSet set = new LongHashSet(List.of(Long.MIN_VALUE, 0L, 5L));
+
+        assertThat(set).containsExactlyInAnyOrder(Long.MIN_VALUE, 0L, 5L);
+        assertThat(set.remove(Long.MIN_VALUE)).isTrue();
+        assertThat(set.contains(Long.MIN_VALUE)).isFalse();
+        assertThat(set).containsExactlyInAnyOrder(0L, 5L);
+    }
+
+    @Test
+    void copyOfLongHashSetIsIndependentOfOriginal() {
+        LongHashSet original = new LongHashSet(List.of(Long.MIN_VALUE, 1L, 2L));
+
+        LongHashSet copy = new LongHashSet(original);
+        original.remove(1L);
+        copy.add(3L);
+
+        assertThat(copy).containsExactlyInAnyOrder(Long.MIN_VALUE, 1L, 2L, 3L);
+        assertThat(original).containsExactlyInAnyOrder(Long.MIN_VALUE, 2L);
+    }
+
+    @Test
+    void iteratorRemovesFromSet() {
+        LongHashSet set = new LongHashSet(List.of(1L, 2L, 3L));
+
+        Iterator<Long> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 1) {
+                iterator.remove();
+            }
+        }
+
+        assertThat(set).containsExactly(2L);
+    }
+
+    @Test
+    void serializesAsPlainJsonArray() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        LongHashSet set = new LongHashSet(List.of(3L, 1L));
+
+        String json = mapper.writeValueAsString(set);
+
+        assertThat(mapper.readValue(json, long[].class)).containsExactlyInAnyOrder(1L, 3L);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextTokensTest {
+
+    @Test
+    void splitsOnNonLettersAndFoldsCase() {
+        assertThat(TextTokens.tokenize("Ёлки-Палки 2: The  RETURN!"))
+                .containsExactly("елки", "палки", "2", "the", "return");
+        assertThat(TextTokens.tokenize("  ...  ")).isEmpty();
+        assertThat(TextTokens.tokenize(null)).isEmpty();
+    }
+}